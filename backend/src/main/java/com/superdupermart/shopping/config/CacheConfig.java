@@ -0,0 +1,62 @@
+package com.superdupermart.shopping.config;
+
+import com.superdupermart.shopping.service.cache.CacheInvalidationListener;
+import com.superdupermart.shopping.service.cache.CacheInvalidationPublisher;
+import com.superdupermart.shopping.service.cache.TwoTierCacheManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured Redis cache manager with an L1 (Caffeine) + L2 (Redis)
+ * manager. Skipped when spring.cache.type is set to something else (tests use "none").
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+@ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis", matchIfMissing = true)
+public class CacheConfig {
+
+    @Bean
+    public CacheInvalidationPublisher cacheInvalidationPublisher(StringRedisTemplate redisTemplate,
+            CacheProperties properties) {
+        return new CacheInvalidationPublisher(redisTemplate, properties.getInvalidationChannel(),
+                properties.getNodeId());
+    }
+
+    @Bean
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+            CacheInvalidationPublisher publisher, CacheProperties properties) {
+        Map<String, RedisCacheConfiguration> perCache = new HashMap<>();
+        properties.getSpecs().forEach((name, spec) -> perCache.put(name,
+                RedisCacheConfiguration.defaultCacheConfig().entryTtl(spec.getTtl())));
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+                        .entryTtl(properties.getDefaults().getTtl()))
+                .withInitialCacheConfigurations(perCache)
+                .build();
+        redisCacheManager.afterPropertiesSet();
+
+        return new TwoTierCacheManager(redisCacheManager, publisher, properties);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+            TwoTierCacheManager cacheManager, CacheProperties properties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(new CacheInvalidationListener(cacheManager, properties.getNodeId()),
+                new ChannelTopic(properties.getInvalidationChannel()));
+        return container;
+    }
+}
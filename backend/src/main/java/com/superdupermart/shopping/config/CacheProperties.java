@@ -0,0 +1,39 @@
+package com.superdupermart.shopping.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+
+    // Identifies this instance on the invalidation channel so it can ignore its own messages
+    private String nodeId = UUID.randomUUID().toString();
+
+    private String invalidationChannel = "cache:invalidation";
+
+    private Spec defaults = new Spec();
+
+    // Per cache name overrides, e.g. app.cache.specs.product.ttl=30m
+    private Map<String, Spec> specs = new HashMap<>();
+
+    public Spec specFor(String cacheName) {
+        return specs.getOrDefault(cacheName, defaults);
+    }
+
+    @Data
+    public static class Spec {
+        // Redis (L2) entry TTL
+        private Duration ttl = Duration.ofMinutes(10);
+
+        // In-process (L1) entry TTL, kept short so a missed invalidation heals quickly
+        private Duration localTtl = Duration.ofSeconds(60);
+
+        private long localMaxSize = 1000;
+    }
+}
@@ -0,0 +1,27 @@
+package com.superdupermart.shopping.config;
+
+import com.superdupermart.shopping.service.catalog.CatalogChangeRelay;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Subscribes the catalog change relay to its Redis channel. Skipped when the relay is
+ * disabled (tests set app.catalog.events.redis-relay=false).
+ */
+@Configuration
+public class CatalogEventsConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.catalog.events.redis-relay", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer catalogChangeListenerContainer(RedisConnectionFactory connectionFactory,
+            CatalogChangeRelay relay) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(relay, new ChannelTopic(relay.getChannel()));
+        return container;
+    }
+}
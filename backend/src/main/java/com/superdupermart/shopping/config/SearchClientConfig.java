@@ -0,0 +1,42 @@
+package com.superdupermart.shopping.config;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.transport.rest_client.RestClientOptions;
+import org.apache.http.client.config.RequestConfig;
+import org.elasticsearch.client.RequestOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+
+import java.time.Duration;
+
+/**
+ * Gives shopper-facing searches their own socket timeout. A short timeout lets a hung cluster
+ * trip the search breaker quickly, but bulk indexing, reindexing and alias updates legitimately
+ * take longer and keep the client-wide timeout.
+ */
+@Configuration
+public class SearchClientConfig {
+
+    // Declared here because any other ElasticsearchOperations bean switches off Boot's own
+    @Bean
+    @Primary
+    public ElasticsearchOperations elasticsearchTemplate(ElasticsearchClient client, ElasticsearchConverter converter) {
+        return new ElasticsearchTemplate(client, converter);
+    }
+
+    @Bean
+    public ElasticsearchOperations searchOperations(ElasticsearchClient client, ElasticsearchConverter converter,
+            @Value("${app.search.socket-timeout:5s}") Duration socketTimeout) {
+        RequestOptions options = RequestOptions.DEFAULT.toBuilder()
+                .setRequestConfig(RequestConfig.custom()
+                        .setSocketTimeout((int) socketTimeout.toMillis())
+                        .build())
+                .build();
+        return new ElasticsearchTemplate(client.withTransportOptions(new RestClientOptions(options)), converter);
+    }
+}
@@ -0,0 +1,36 @@
+package com.superdupermart.shopping.config;
+
+import com.superdupermart.shopping.config.jdbc.StatementCountingDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes the application's connections through {@link StatementCountingDataSource}, so code can
+ * measure how many statements a unit of work costs (see checkout). Opt-in, and only the primary
+ * {@code dataSource} bean is wrapped; other data sources (e.g. a read replica) are left alone.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.db.count-statements", havingValue = "true")
+public class StatementCountingConfig {
+
+    // Name Boot gives the data source it auto-configures (and the one tests replace)
+    static final String PRIMARY_DATA_SOURCE = "dataSource";
+
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (PRIMARY_DATA_SOURCE.equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof StatementCountingDataSource)) {
+                    return new StatementCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.superdupermart.shopping.config.jdbc;
+
+/**
+ * Counts the statements the current thread sends to the database between {@link #start()} and
+ * {@link #stop()}. A JDBC batch counts once, as it is one round trip. Only statements going through
+ * {@link StatementCountingDataSource} are seen.
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private StatementCounter() {
+    }
+
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /**
+     * @return statements since {@link #start()}, 0 if counting was not started
+     */
+    public static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count[0] : 0;
+    }
+
+    static void increment() {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.superdupermart.shopping.config.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wraps connections so every {@code execute*} call on their statements is reported to
+ * {@link StatementCounter}. {@code unwrap} still reaches the pool behind it.
+ */
+public class StatementCountingDataSource extends DelegatingDataSource {
+
+    public StatementCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (method.getName().equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && method.getReturnType().isInterface()
+                            && Statement.class.isAssignableFrom(method.getReturnType())) {
+                        return wrap(statement, method.getReturnType());
+                    }
+                    return result;
+                });
+    }
+
+    private static Object wrap(Statement statement, Class<?> type) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().startsWith("execute")) {
+                StatementCounter.increment();
+            }
+            return invoke(statement, method, args);
+        };
+        return Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(), new Class<?>[] { type },
+                handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
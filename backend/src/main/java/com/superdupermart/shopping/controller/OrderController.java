@@ -1,9 +1,13 @@
 package com.superdupermart.shopping.controller;
 
+import com.superdupermart.shopping.dto.OrderItemResponse;
 import com.superdupermart.shopping.dto.OrderRequest;
 import com.superdupermart.shopping.dto.OrderResponse;
 import com.superdupermart.shopping.security.SecurityUtils;
 import com.superdupermart.shopping.service.OrderService;
+import com.superdupermart.shopping.service.count.CountMode;
+import com.superdupermart.shopping.service.idempotency.IdempotencyService;
+import com.superdupermart.shopping.service.pagination.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -17,36 +21,56 @@ import java.util.Collections;
 public class OrderController {
 
     private final OrderService orderService;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, IdempotencyService idempotencyService) {
         this.orderService = orderService;
+        this.idempotencyService = idempotencyService;
     }
 
+    // A retry with the same Idempotency-Key gets the first attempt's response instead of a second order
     @PostMapping
-    public ResponseEntity<OrderResponse> placeOrder(@RequestBody OrderRequest request) {
+    public ResponseEntity<OrderResponse> placeOrder(@RequestBody OrderRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         Integer userId = SecurityUtils.getCurrentUserId();
         if (userId == null) {
             throw new RuntimeException("Unable to retrieve user ID from authentication context");
         }
-        return ResponseEntity.ok(orderService.placeOrder(userId, request));
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(orderService.placeOrder(userId, request));
+        }
+        return ResponseEntity.ok(idempotencyService.execute("orders:" + userId, idempotencyKey, request,
+                OrderResponse.class, () -> orderService.placeOrder(userId, request)));
     }
 
     @GetMapping("/all")
     public ResponseEntity<Object> getAllOrders(@RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "5") int size) {
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "exact") String count,
+            @RequestParam(required = false) String status) {
+        KeysetCursor.checkPageSize(size);
         if (SecurityUtils.isAdmin()) {
-            return ResponseEntity.ok(orderService.getOrdersPage(page, size));
+            // Any cursor parameter (empty for the first page) switches to keyset pagination
+            if (cursor != null) {
+                return ResponseEntity.ok(orderService.getOrdersByCursor(cursor, size));
+            }
+            return ResponseEntity.ok(orderService.getOrdersPage(page, size, CountMode.fromParam(count)));
         } else {
+            // Customers always get keyset pages of order summaries; items load per order from /{id}/items
             Integer userId = SecurityUtils.getCurrentUserId();
-            // Current Service implementation doesn't have pagination for user orders
-            // specifically,
-            // but we can filter or just return all for now if small.
-            // Aligning with standard paginated response if possible.
-            return ResponseEntity.ok(orderService.getOrdersByUser(userId));
+            String statusFilter = status == null || status.isBlank() ? null : status;
+            return ResponseEntity.ok(orderService.getOrderHistory(userId, cursor, size, statusFilter));
         }
     }
 
+    @GetMapping("/{id}/items")
+    public ResponseEntity<List<OrderItemResponse>> getOrderItems(@PathVariable Integer id) {
+        return ResponseEntity.ok(orderService.getOrderItems(id, SecurityUtils.getCurrentUserId(),
+                SecurityUtils.isAdmin()));
+    }
+
     @PatchMapping("/{id}/cancel")
     public ResponseEntity<Map<String, String>> cancelOrder(@PathVariable Integer id) {
         boolean isAdmin = SecurityUtils.isAdmin();
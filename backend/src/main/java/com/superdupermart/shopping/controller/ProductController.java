@@ -1,32 +1,103 @@
 package com.superdupermart.shopping.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.superdupermart.shopping.dto.BulkUpsertResponse;
+import com.superdupermart.shopping.dto.FlashSaleStatusResponse;
 import com.superdupermart.shopping.dto.ProductRequest;
 import com.superdupermart.shopping.dto.ProductResponse;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import com.superdupermart.shopping.dto.ReindexStatusResponse;
+import com.superdupermart.shopping.dto.SuggestionResponse;
 import com.superdupermart.shopping.service.ProductService;
+import com.superdupermart.shopping.service.count.CountMode;
 import com.superdupermart.shopping.service.StatsService;
+import com.superdupermart.shopping.service.bulk.ProductBulkImportService;
+import com.superdupermart.shopping.service.bulk.ProductRowReader;
+import com.superdupermart.shopping.service.image.ImageSize;
+import com.superdupermart.shopping.service.inventory.FlashSaleService;
+import com.superdupermart.shopping.service.image.ProductImage;
+import com.superdupermart.shopping.service.image.StoredImage;
+import com.superdupermart.shopping.service.search.HotSearchQueries;
+import com.superdupermart.shopping.service.search.ProductSuggestService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import com.superdupermart.shopping.security.SecurityUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/products")
 public class ProductController {
 
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     private final ProductService productService;
     private final StatsService statsService;
+    private final ObjectMapper objectMapper;
+    private final ProductBulkImportService productBulkImportService;
+    private final ProductSuggestService productSuggestService;
+    private final HotSearchQueries hotSearchQueries;
+    private final FlashSaleService flashSaleService;
 
     @Autowired
-    public ProductController(ProductService productService, StatsService statsService) {
+    public ProductController(ProductService productService, StatsService statsService, ObjectMapper objectMapper,
+            ProductBulkImportService productBulkImportService, ProductSuggestService productSuggestService,
+            HotSearchQueries hotSearchQueries, FlashSaleService flashSaleService) {
         this.productService = productService;
         this.statsService = statsService;
+        this.objectMapper = objectMapper;
+        this.productBulkImportService = productBulkImportService;
+        this.productSuggestService = productSuggestService;
+        this.hotSearchQueries = hotSearchQueries;
+        this.flashSaleService = flashSaleService;
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
+    public ResponseEntity<List<ProductSummaryResponse>> getAllProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletResponse response) throws IOException {
         boolean admin = SecurityUtils.isAdmin();
+        if (accept != null && accept.contains(NDJSON_VALUE)) {
+            // Export mode: one JSON object per line, written as rows come off the DB cursor
+            response.setContentType(NDJSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            OutputStream out = response.getOutputStream();
+            ObjectWriter writer = objectMapper.writerFor(ProductSummaryResponse.class);
+            try {
+                productService.streamAllProducts(admin, product -> {
+                    try {
+                        out.write(writer.writeValueAsBytes(product));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                // Client went away mid-export; nothing left to send
+                throw e.getCause();
+            }
+            out.flush();
+            return null;
+        }
         // delegating to service which handles admin filter
         return ResponseEntity.ok(productService.getAllProducts(admin));
     }
@@ -42,16 +113,38 @@ public class ProductController {
             @RequestParam(required = false) String query,
             @RequestParam(required = false) Double minPrice,
             @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String brand,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "12") int size) {
-        return ResponseEntity.ok(productService.searchProducts(query, minPrice, maxPrice, page, size));
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(required = false) String cursor) {
+        // As with GET /products, any cursor parameter (empty for the first page) switches to cursor mode
+        if (cursor != null) {
+            return ResponseEntity.ok(productService.searchProductsByCursor(query, minPrice, maxPrice, category,
+                    brand, cursor, size));
+        }
+        hotSearchQueries.record(query, minPrice, maxPrice, category, brand, page, size);
+        return ResponseEntity.ok(productService.searchProducts(query, minPrice, maxPrice, category, brand, page,
+                size));
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(@RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productSuggestService.suggest(prefix, Math.max(1, limit)));
     }
 
     @GetMapping
-    public ResponseEntity<com.superdupermart.shopping.dto.PageResponse<ProductResponse>> getProducts(
+    public ResponseEntity<com.superdupermart.shopping.dto.PageResponse<ProductSummaryResponse>> getProducts(
             @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "5") int size) {
-        return ResponseEntity.ok(productService.getProductsPage(page, size));
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "exact") String count) {
+        // Any cursor parameter (empty for the first page) switches to keyset pagination
+        if (cursor != null) {
+            return ResponseEntity.ok(productService.getProductsByCursor(cursor, size));
+        }
+        return ResponseEntity.ok(productService.getProductsPage(page, size, CountMode.fromParam(count)));
     }
 
     @PostMapping
@@ -60,6 +153,13 @@ public class ProductController {
         return ResponseEntity.ok(productService.addProduct(request));
     }
 
+    // Streams a CSV (with header row) or NDJSON feed; rows with an id update, rows without insert
+    @PostMapping(value = "/bulk", consumes = { ProductRowReader.CSV, ProductRowReader.NDJSON })
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkUpsertResponse> bulkUpsert(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(productBulkImportService.upsert(request.getContentType(), request.getInputStream()));
+    }
+
     @PatchMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ProductResponse> updateProduct(@PathVariable Integer id,
@@ -88,14 +188,58 @@ public class ProductController {
     }
 
     @GetMapping("/{id}/image")
-    public ResponseEntity<byte[]> getProductImage(@PathVariable Integer id) {
-        com.superdupermart.shopping.entity.Product product = productService.getProductEntity(id);
-        if (product.getImage() == null || product.getImage().length == 0) {
+    public ResponseEntity<Resource> getProductImage(@PathVariable Integer id,
+            @RequestParam(defaultValue = "original") String size,
+            @RequestParam(name = "v", required = false) String version,
+            HttpServletRequest request, HttpServletResponse response) {
+        ImageSize imageSize = ImageSize.fromParam(size);
+        if (imageSize == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        ProductImage image = productService.getProductImage(id, imageSize).orElse(null);
+        if (image == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok()
-                .contentType(org.springframework.http.MediaType.parseMediaType(product.getImageContentType()))
-                .body(product.getImage());
+
+        // A URL pinned to the content hash (?v=) can never change meaning, so it may be cached forever;
+        // unpinned URLs follow the product's current image and must be revalidated
+        boolean pinned = image.getFile().getHash().equals(version) && image.getSize() == imageSize;
+        CacheControl cacheControl = pinned
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable()
+                : CacheControl.noCache();
+        return serveImage(image, cacheControl, request, response);
+    }
+
+    /**
+     * Serves a stored image with a content-hash ETag and Last-Modified. Full GETs are handed
+     * to Tomcat's sendfile (kernel zero-copy) when the connector supports it; Range and HEAD
+     * requests go through the Resource body, which Spring MVC turns into 206 responses.
+     */
+    private ResponseEntity<Resource> serveImage(ProductImage image, CacheControl cacheControl,
+            HttpServletRequest request, HttpServletResponse response) {
+        StoredImage file = image.getFile();
+        String etag = "\"" + image.getEtag() + "\"";
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        if (webRequest.checkNotModified(etag, file.getLastModified())) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(image.getContentType() != null ? MediaType.parseMediaType(image.getContentType())
+                        : MediaType.APPLICATION_OCTET_STREAM)
+                .eTag(etag)
+                .lastModified(file.getLastModified())
+                .cacheControl(cacheControl)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if ("GET".equals(request.getMethod()) && request.getHeader(HttpHeaders.RANGE) == null
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.getPath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, file.getSize());
+            return builder.contentLength(file.getSize()).build();
+        }
+        return builder.body(new FileSystemResource(file.getPath()));
     }
 
     @GetMapping("/frequent/{limit}")
@@ -124,8 +268,32 @@ public class ProductController {
 
     @PostMapping("/sync")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<String> syncAllProducts() {
-        productService.syncAllProducts();
-        return ResponseEntity.ok("Products synced to Elasticsearch successfully");
+    public ResponseEntity<ReindexStatusResponse> syncAllProducts() {
+        return ResponseEntity.accepted().body(productService.syncAllProducts());
+    }
+
+    @GetMapping("/sync/status")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReindexStatusResponse> getSyncStatus() {
+        return ResponseEntity.ok(productService.getSyncStatus());
+    }
+
+    // Moves the product's stock to Redis; it becomes buyable again once the stock is loaded
+    @PostMapping("/{id}/flash-sale")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FlashSaleStatusResponse> startFlashSale(@PathVariable Integer id) {
+        return ResponseEntity.accepted().body(flashSaleService.start(id));
+    }
+
+    @GetMapping("/{id}/flash-sale")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FlashSaleStatusResponse> getFlashSale(@PathVariable Integer id) {
+        return ResponseEntity.ok(flashSaleService.getStatus(id));
+    }
+
+    @DeleteMapping("/{id}/flash-sale")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FlashSaleStatusResponse> stopFlashSale(@PathVariable Integer id) {
+        return ResponseEntity.ok(flashSaleService.stop(id));
     }
 }
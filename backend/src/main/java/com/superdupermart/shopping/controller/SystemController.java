@@ -2,10 +2,15 @@ package com.superdupermart.shopping.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import com.superdupermart.shopping.dto.ReindexStatusResponse;
+import com.superdupermart.shopping.exception.ReindexInProgressException;
+import com.superdupermart.shopping.repository.ProductSearchRepository;
 import com.superdupermart.shopping.service.ProductService;
+import com.superdupermart.shopping.service.search.SearchCircuitBreaker;
 
 import javax.sql.DataSource;
 import java.io.File;
@@ -33,6 +38,12 @@ public class SystemController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductSearchRepository productSearchRepository;
+
+    @Autowired
+    private SearchCircuitBreaker searchCircuitBreaker;
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> getHealth() {
         Map<String, String> status = new HashMap<>();
@@ -52,15 +63,17 @@ public class SystemController {
             status.put("redis", "DOWN: " + e.getMessage());
         }
 
-        // Elasticsearch Check (via ProductService or Repository)
-        // Simple check: Sync a dummy product or count
+        // Elasticsearch Check
+        // Goes to the repository directly: unfiltered product searches may be answered from
+        // the in-memory catalog snapshot without touching Elasticsearch
         try {
-            // We can check if search returns without error
-            productService.searchProducts("", null, null, 0, 1);
+            productSearchRepository.count();
             status.put("elasticsearch", "UP");
         } catch (Exception e) {
             status.put("elasticsearch", "DOWN: " + e.getMessage());
         }
+        status.put("searchMode", searchCircuitBreaker.getState() == SearchCircuitBreaker.State.CLOSED
+                ? "elasticsearch" : "fallback (" + searchCircuitBreaker.getState() + ")");
 
         return ResponseEntity.ok(status);
     }
@@ -127,8 +140,10 @@ public class SystemController {
     @PostMapping("/sync-products")
     public ResponseEntity<String> syncProducts() {
         try {
-            productService.syncAllProducts();
-            return ResponseEntity.ok("Products synced successfully.");
+            ReindexStatusResponse status = productService.syncAllProducts();
+            return ResponseEntity.ok("Reindex started into " + status.getIndex() + ".");
+        } catch (ReindexInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.internalServerError().body("Sync failed: " + e.getMessage());
         }
@@ -1,8 +1,12 @@
 package com.superdupermart.shopping.dao;
 
+import com.superdupermart.shopping.dto.OrderItemResponse;
+import com.superdupermart.shopping.dto.OrderSummaryResponse;
 import com.superdupermart.shopping.entity.Order;
-import com.superdupermart.shopping.entity.User;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface OrderDao {
@@ -10,13 +14,42 @@ public interface OrderDao {
 
     List<Order> getAllOrders();
 
-    List<Order> getOrdersByUser(User user);
+    // Listing pages load in two phases: the ids of one page, then findAllForListing and
+    // getItemSummaries for those ids, so a page costs the same few queries whatever its size.
 
-    List<Order> getPaginatedOrders(int page, int size);
+    // One user's orders as a keyset page ordered by (datePlaced, id) DESC, starting after the given
+    // row (nulls for the first page). status is null for every status.
+    List<OrderSummaryResponse> getUserOrderSummaries(Integer userId, String status, LocalDateTime afterDatePlaced,
+            Integer afterId, int limit);
+
+    List<Integer> getPaginatedOrderIds(int page, int size);
+
+    // Keyset page ordered by (datePlaced, id) DESC, starting after the given row; nulls for the first page
+    List<Integer> getOrderIdsAfter(LocalDateTime afterDatePlaced, Integer afterId, int limit);
+
+    // The orders with their user, shipping address and payment method, newest first. Items are not loaded.
+    List<Order> findAllForListing(Collection<Integer> orderIds);
+
+    // Items per order id, with only the id and name of each product
+    Map<Integer, List<OrderItemResponse>> getItemSummaries(Collection<Integer> orderIds);
 
     long countOrders();
 
+    // Units sold per product id over Completed and Processing orders
+    Map<Integer, Long> getUnitsSoldByProduct();
+
     void save(Order order);
 
+    // Inserts the order, then all its items as one JDBC batch. The order comes back detached, with
+    // its id set; the items keep a null id.
+    void insertWithItems(Order order);
+
     void update(Order order);
+
+    // Moves the order to newStatus only if it is still in expectedStatus; false when it was not.
+    // A loaded Order entity keeps its old status.
+    boolean updateStatus(Integer orderId, String expectedStatus, String newStatus);
+
+    // Oldest first
+    List<Integer> getOrderIdsByStatusBefore(String status, LocalDateTime before, int limit);
 }
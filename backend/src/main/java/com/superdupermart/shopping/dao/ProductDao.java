@@ -1,12 +1,22 @@
 package com.superdupermart.shopping.dao;
 
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
 import com.superdupermart.shopping.entity.Product;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductDao {
     Optional<Product> findById(Integer id);
 
+    // Locks the row until the transaction ends, so it waits for any checkout still holding it
+    Optional<Product> findByIdForUpdate(Integer id);
+
+    // One IN query, ordered by id; ids that do not exist are simply missing
+    List<Product> findAllByIds(Collection<Integer> ids);
+
     List<Product> getAllProducts();
 
     List<Product> getInStockProducts();
@@ -15,11 +25,42 @@ public interface ProductDao {
 
     void update(Product product);
 
+    // Conditional "quantity = quantity - n WHERE quantity >= n" per product id, sent as one JDBC batch.
+    // Returns the ids that did not have enough stock; those rows are left untouched. Loaded Product
+    // entities keep their old quantity.
+    List<Integer> decrementStock(Map<Integer, Integer> quantities);
+
+    // "quantity = quantity + delta" per product id (negative deltas take stock), sent as one JDBC batch
+    void adjustStock(Map<Integer, Integer> deltas);
+
+    // The given products that currently have no stock
+    List<Integer> getSoldOutIds(Collection<Integer> ids);
+
     List<Product> searchProducts(String query, Double minPrice, Double maxPrice);
 
     List<Product> getPaginatedProducts(int page, int size);
 
+    List<ProductSummaryResponse> getProductSummaries(boolean inStockOnly);
+
+    List<ProductSummaryResponse> getPaginatedProductSummaries(int page, int size);
+
+    // Keyset page ordered by id DESC; afterId is the last id of the previous page, or null for the first page
+    List<ProductSummaryResponse> getProductSummariesAfter(Integer afterId, int limit);
+
+    List<ProductSummaryResponse> getProductSummariesByIds(Collection<Integer> ids);
+
+    // Forward-only cursor ordered by id; must be consumed and closed inside the caller's transaction
+    Stream<ProductSummaryResponse> streamProductSummaries(boolean inStockOnly, int fetchSize);
+
+    // {min id, max id}, or null when there are no products
+    int[] getProductIdRange();
+
+    // Keyset scan of one id partition: afterId < id <= toId, ascending
+    List<ProductSummaryResponse> getProductSummariesInRange(int afterId, int toId, int limit);
+
     long countProducts();
 
+    long countByImageHash(String imageHash);
+
     void delete(Integer id);
 }
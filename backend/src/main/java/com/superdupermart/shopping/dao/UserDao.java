@@ -6,6 +6,8 @@ import java.util.Optional;
 
 public interface UserDao {
     Optional<User> findById(Integer id);
+    // Uninitialized proxy for use as a foreign key; no SELECT
+    User getReference(Integer id);
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     void save(User user);
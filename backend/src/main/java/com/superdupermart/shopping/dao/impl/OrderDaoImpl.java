@@ -1,12 +1,23 @@
 package com.superdupermart.shopping.dao.impl;
 
 import com.superdupermart.shopping.dao.OrderDao;
+import com.superdupermart.shopping.dto.OrderItemResponse;
+import com.superdupermart.shopping.dto.OrderSummaryResponse;
 import com.superdupermart.shopping.entity.Order;
-import com.superdupermart.shopping.entity.User;
+import com.superdupermart.shopping.entity.OrderItem;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
@@ -26,32 +37,174 @@ public class OrderDaoImpl implements OrderDao {
     }
 
     @Override
-    public List<Order> getOrdersByUser(User user) {
-        return entityManager.createQuery("SELECT o FROM Order o WHERE o.user = :user", Order.class)
-                .setParameter("user", user)
-                .getResultList();
+    public List<OrderSummaryResponse> getUserOrderSummaries(Integer userId, String status,
+            LocalDateTime afterDatePlaced, Integer afterId, int limit) {
+        // Walks idx_orders_user_date_placed_id; the item aggregates run over this page only
+        StringBuilder jpql = new StringBuilder("SELECT new com.superdupermart.shopping.dto.OrderSummaryResponse("
+                + "o.id, o.datePlaced, o.orderStatus) FROM Order o WHERE o.user.id = :userId");
+        if (status != null) {
+            jpql.append(" AND o.orderStatus = :status");
+        }
+        if (afterDatePlaced != null) {
+            jpql.append(" AND (o.datePlaced < :datePlaced OR (o.datePlaced = :datePlaced AND o.id < :id))");
+        }
+        jpql.append(" ORDER BY o.datePlaced DESC, o.id DESC");
+
+        TypedQuery<OrderSummaryResponse> query = entityManager.createQuery(jpql.toString(),
+                OrderSummaryResponse.class)
+                .setParameter("userId", userId)
+                .setMaxResults(limit);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (afterDatePlaced != null) {
+            query.setParameter("datePlaced", afterDatePlaced).setParameter("id", afterId);
+        }
+        List<OrderSummaryResponse> summaries = query.getResultList();
+        if (summaries.isEmpty()) {
+            return summaries;
+        }
+
+        Map<Integer, OrderSummaryResponse> byId = new HashMap<>();
+        summaries.forEach(summary -> byId.put(summary.getOrderId(), summary));
+        entityManager.createQuery("SELECT i.order.id, COUNT(i), SUM(i.quantity * i.purchasedPrice) "
+                + "FROM OrderItem i WHERE i.order.id IN :ids GROUP BY i.order.id", Object[].class)
+                .setParameter("ids", byId.keySet())
+                .getResultList()
+                .forEach(row -> {
+                    OrderSummaryResponse summary = byId.get((Integer) row[0]);
+                    summary.setItemCount(((Number) row[1]).intValue());
+                    summary.setTotal((BigDecimal) row[2]);
+                });
+        return summaries;
     }
 
     @Override
-    public List<Order> getPaginatedOrders(int page, int size) {
-        return entityManager.createQuery("SELECT o FROM Order o ORDER BY o.datePlaced DESC", Order.class)
+    public List<Integer> getPaginatedOrderIds(int page, int size) {
+        return entityManager.createQuery("SELECT o.id FROM Order o ORDER BY o.datePlaced DESC, o.id DESC",
+                Integer.class)
                 .setFirstResult((page - 1) * size)
                 .setMaxResults(size)
                 .getResultList();
     }
 
+    @Override
+    public List<Integer> getOrderIdsAfter(LocalDateTime afterDatePlaced, Integer afterId, int limit) {
+        if (afterDatePlaced == null) {
+            return entityManager.createQuery("SELECT o.id FROM Order o ORDER BY o.datePlaced DESC, o.id DESC",
+                    Integer.class)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+        // Row-value comparison spelled out so it can use idx_orders_date_placed_id
+        return entityManager.createQuery("SELECT o.id FROM Order o "
+                + "WHERE o.datePlaced < :datePlaced OR (o.datePlaced = :datePlaced AND o.id < :id) "
+                + "ORDER BY o.datePlaced DESC, o.id DESC", Integer.class)
+                .setParameter("datePlaced", afterDatePlaced)
+                .setParameter("id", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Order> findAllForListing(Collection<Integer> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        // The id list is one page, so the IN list and the joined rows stay small
+        return entityManager.createQuery("SELECT o FROM Order o WHERE o.id IN :ids "
+                + "ORDER BY o.datePlaced DESC, o.id DESC", Order.class)
+                .setParameter("ids", orderIds)
+                .setHint("jakarta.persistence.fetchgraph", entityManager.getEntityGraph(Order.LISTING_GRAPH))
+                .getResultList();
+    }
+
+    @Override
+    public Map<Integer, List<OrderItemResponse>> getItemSummaries(Collection<Integer> orderIds) {
+        Map<Integer, List<OrderItemResponse>> items = new HashMap<>();
+        if (orderIds.isEmpty()) {
+            return items;
+        }
+        // Projects the product id and name instead of loading Product entities
+        entityManager.createQuery("SELECT i.order.id, p.id, p.name, i.quantity, i.purchasedPrice "
+                + "FROM OrderItem i JOIN i.product p WHERE i.order.id IN :ids ORDER BY i.id", Object[].class)
+                .setParameter("ids", orderIds)
+                .getResultList()
+                .forEach(row -> items.computeIfAbsent((Integer) row[0], id -> new ArrayList<>())
+                        .add(new OrderItemResponse((Integer) row[1], (String) row[2], (Integer) row[3],
+                                (BigDecimal) row[4])));
+        return items;
+    }
+
     @Override
     public long countOrders() {
         return entityManager.createQuery("SELECT COUNT(o) FROM Order o", Long.class).getSingleResult();
     }
 
+    @Override
+    public Map<Integer, Long> getUnitsSoldByProduct() {
+        Map<Integer, Long> unitsSold = new HashMap<>();
+        entityManager.createQuery("SELECT i.product.id, SUM(i.quantity) FROM OrderItem i "
+                + "WHERE i.order.orderStatus IN ('Completed', 'Processing') GROUP BY i.product.id", Object[].class)
+                .getResultList()
+                .forEach(row -> unitsSold.put((Integer) row[0], ((Number) row[1]).longValue()));
+        return unitsSold;
+    }
+
     @Override
     public void save(Order order) {
         entityManager.persist(order);
     }
 
+    @Override
+    public void insertWithItems(Order order) {
+        // IDENTITY ids rule out Hibernate's insert batching, so the items are written directly
+        List<OrderItem> items = order.getItems();
+        order.setItems(new ArrayList<>());
+        entityManager.persist(order);
+        entityManager.detach(order);
+        order.setItems(items);
+        if (items.isEmpty()) {
+            return;
+        }
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement("INSERT INTO order_item "
+                    + "(order_id, product_id, quantity, purchased_price, flash_sale) VALUES (?, ?, ?, ?, ?)")) {
+                for (OrderItem item : items) {
+                    ps.setInt(1, order.getId());
+                    ps.setInt(2, item.getProduct().getId());
+                    ps.setInt(3, item.getQuantity());
+                    ps.setBigDecimal(4, item.getPurchasedPrice());
+                    ps.setBoolean(5, Boolean.TRUE.equals(item.getFlashSale()));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        });
+    }
+
     @Override
     public void update(Order order) {
         entityManager.merge(order);
     }
+
+    @Override
+    public boolean updateStatus(Integer orderId, String expectedStatus, String newStatus) {
+        return entityManager.createQuery("UPDATE Order o SET o.orderStatus = :newStatus "
+                + "WHERE o.id = :id AND o.orderStatus = :expectedStatus")
+                .setParameter("newStatus", newStatus)
+                .setParameter("id", orderId)
+                .setParameter("expectedStatus", expectedStatus)
+                .executeUpdate() == 1;
+    }
+
+    @Override
+    public List<Integer> getOrderIdsByStatusBefore(String status, LocalDateTime before, int limit) {
+        return entityManager.createQuery("SELECT o.id FROM Order o WHERE o.orderStatus = :status "
+                + "AND o.datePlaced < :before ORDER BY o.datePlaced", Integer.class)
+                .setParameter("status", status)
+                .setParameter("before", before)
+                .setMaxResults(limit)
+                .getResultList();
+    }
 }
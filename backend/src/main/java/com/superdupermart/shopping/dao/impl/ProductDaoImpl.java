@@ -1,19 +1,33 @@
 package com.superdupermart.shopping.dao.impl;
 
 import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
 import com.superdupermart.shopping.entity.Product;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public class ProductDaoImpl implements ProductDao {
 
+    // Constructor expression for list views: plain DTOs, no managed entities, no image data
+    private static final String SUMMARY_SELECT = "SELECT new com.superdupermart.shopping.dto.ProductSummaryResponse("
+            + "p.id, p.name, p.description, p.retailPrice, p.category, p.brand, p.wholesalePrice, p.quantity, "
+            + "p.imageContentType, p.imageHash) FROM Product p";
+
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -22,6 +36,21 @@ public class ProductDaoImpl implements ProductDao {
         return Optional.ofNullable(entityManager.find(Product.class, id));
     }
 
+    @Override
+    public Optional<Product> findByIdForUpdate(Integer id) {
+        return Optional.ofNullable(entityManager.find(Product.class, id, LockModeType.PESSIMISTIC_WRITE));
+    }
+
+    @Override
+    public List<Product> findAllByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id", Product.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
     @Override
     public List<Product> getAllProducts() {
         return entityManager.createQuery("SELECT p FROM Product p", Product.class).getResultList();
@@ -50,6 +79,58 @@ public class ProductDaoImpl implements ProductDao {
         entityManager.merge(product);
     }
 
+    @Override
+    public List<Integer> decrementStock(Map<Integer, Integer> quantities) {
+        List<Map.Entry<Integer, Integer>> rows = new ArrayList<>(quantities.entrySet());
+        int[] counts = batchStockUpdate("UPDATE product SET quantity = quantity - ? WHERE id = ? AND quantity >= ?",
+                rows, true);
+        List<Integer> insufficient = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            // Exactly one row per id; SUCCESS_NO_INFO is treated as a failure rather than risk overselling
+            if (counts[i] != 1) {
+                insufficient.add(rows.get(i).getKey());
+            }
+        }
+        return insufficient;
+    }
+
+    @Override
+    public void adjustStock(Map<Integer, Integer> deltas) {
+        batchStockUpdate("UPDATE product SET quantity = quantity + ? WHERE id = ?",
+                new ArrayList<>(deltas.entrySet()), false);
+    }
+
+    // Runs on the transaction's own connection, so a rollback undoes the whole batch
+    private int[] batchStockUpdate(String sql, List<Map.Entry<Integer, Integer>> rows, boolean conditional) {
+        if (rows.isEmpty()) {
+            return new int[0];
+        }
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                for (Map.Entry<Integer, Integer> row : rows) {
+                    ps.setInt(1, row.getValue());
+                    ps.setInt(2, row.getKey());
+                    if (conditional) {
+                        ps.setInt(3, row.getValue());
+                    }
+                    ps.addBatch();
+                }
+                return ps.executeBatch();
+            }
+        });
+    }
+
+    @Override
+    public List<Integer> getSoldOutIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery("SELECT p.id FROM Product p WHERE p.id IN :ids AND p.quantity <= 0",
+                Integer.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
     @Override
     public List<Product> searchProducts(String query, Double minPrice, Double maxPrice) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
@@ -88,11 +169,88 @@ public class ProductDaoImpl implements ProductDao {
                 .getResultList();
     }
 
+    @Override
+    public List<ProductSummaryResponse> getProductSummaries(boolean inStockOnly) {
+        String jpql = inStockOnly ? SUMMARY_SELECT + " WHERE p.quantity > 0" : SUMMARY_SELECT;
+        return entityManager.createQuery(jpql, ProductSummaryResponse.class).getResultList();
+    }
+
+    @Override
+    public List<ProductSummaryResponse> getPaginatedProductSummaries(int page, int size) {
+        return entityManager.createQuery(SUMMARY_SELECT + " ORDER BY p.id DESC", ProductSummaryResponse.class)
+                .setFirstResult((page - 1) * size)
+                .setMaxResults(size)
+                .getResultList();
+    }
+
+    @Override
+    public List<ProductSummaryResponse> getProductSummariesAfter(Integer afterId, int limit) {
+        if (afterId == null) {
+            return entityManager.createQuery(SUMMARY_SELECT + " ORDER BY p.id DESC", ProductSummaryResponse.class)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+        return entityManager.createQuery(SUMMARY_SELECT + " WHERE p.id < :afterId ORDER BY p.id DESC",
+                ProductSummaryResponse.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<ProductSummaryResponse> getProductSummariesByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery(SUMMARY_SELECT + " WHERE p.id IN :ids", ProductSummaryResponse.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<ProductSummaryResponse> streamProductSummaries(boolean inStockOnly, int fetchSize) {
+        String jpql = inStockOnly ? SUMMARY_SELECT + " WHERE p.quantity > 0" : SUMMARY_SELECT;
+        // With useCursorFetch=true on the JDBC URL, MySQL hands rows over fetchSize at a time
+        // instead of materializing the whole result set in the driver (see the note on the URL
+        // in application.properties for what the flag changes for every other query)
+        return entityManager.createQuery(jpql + " ORDER BY p.id", ProductSummaryResponse.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public int[] getProductIdRange() {
+        Object[] range = entityManager.createQuery("SELECT MIN(p.id), MAX(p.id) FROM Product p", Object[].class)
+                .getSingleResult();
+        if (range[0] == null) {
+            return null;
+        }
+        return new int[] { (Integer) range[0], (Integer) range[1] };
+    }
+
+    @Override
+    public List<ProductSummaryResponse> getProductSummariesInRange(int afterId, int toId, int limit) {
+        return entityManager.createQuery(SUMMARY_SELECT + " WHERE p.id > :afterId AND p.id <= :toId ORDER BY p.id",
+                ProductSummaryResponse.class)
+                .setParameter("afterId", afterId)
+                .setParameter("toId", toId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
     @Override
     public long countProducts() {
         return entityManager.createQuery("SELECT COUNT(p) FROM Product p", Long.class).getSingleResult();
     }
 
+    @Override
+    public long countByImageHash(String imageHash) {
+        return entityManager.createQuery("SELECT COUNT(p) FROM Product p WHERE p.imageHash = :hash", Long.class)
+                .setParameter("hash", imageHash)
+                .getSingleResult();
+    }
+
     @Override
     public void delete(Integer id) {
         Product product = entityManager.find(Product.class, id);
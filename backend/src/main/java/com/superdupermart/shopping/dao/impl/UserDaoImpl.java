@@ -21,6 +21,11 @@ public class UserDaoImpl implements UserDao {
         return Optional.ofNullable(entityManager.find(User.class, id));
     }
 
+    @Override
+    public User getReference(Integer id) {
+        return entityManager.getReference(User.class, id);
+    }
+
     @Override
     public Optional<User> findByUsername(String username) {
         TypedQuery<User> query = entityManager.createQuery(
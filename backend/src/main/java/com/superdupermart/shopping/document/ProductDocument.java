@@ -8,6 +8,9 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.InnerField;
+import org.springframework.data.elasticsearch.annotations.MultiField;
+import org.springframework.data.elasticsearch.annotations.Setting;
 import java.math.BigDecimal;
 
 @Data
@@ -15,23 +18,43 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(indexName = "products")
+// Analyzers and shard count; refresh interval and replicas are managed by ProductReindexService
+@Setting(settingPath = "elasticsearch/product-settings.json")
 public class ProductDocument {
 
+    // Mapped explicitly: cursor mode sorts on it
     @Id
+    @Field(type = FieldType.Integer)
     private Integer id;
 
-    @Field(type = FieldType.Text, analyzer = "standard")
+    // name.prefix matches partial words ("lapt" finds "Laptop"); name.raw for exact matches and sorting
+    @MultiField(mainField = @Field(type = FieldType.Text, analyzer = "standard"), otherFields = {
+            @InnerField(suffix = "raw", type = FieldType.Keyword, ignoreAbove = 256),
+            @InnerField(suffix = "prefix", type = FieldType.Text, analyzer = "product_prefix",
+                    searchAnalyzer = "product_prefix_search") })
     private String name;
 
     @Field(type = FieldType.Text, analyzer = "standard")
     private String description;
 
-    @Field(type = FieldType.Auto)
-    private BigDecimal price; // We'll index retail price for searching
+    // Retail price in cents as a long: exact range filters and compact doc values
+    @Field(type = FieldType.Scaled_Float, scalingFactor = 100)
+    private BigDecimal price;
 
-    @Field(type = FieldType.Keyword)
+    // Only carried back to build image URLs, never searched
+    @Field(type = FieldType.Keyword, index = false)
     private String imageContentType;
 
+    @Field(type = FieldType.Keyword, index = false)
+    private String imageVersion;
+
+    // Exact-match facet fields
+    @Field(type = FieldType.Keyword)
+    private String category;
+
+    @Field(type = FieldType.Keyword)
+    private String brand;
+
     // We don't need to index binary image data, just metadata is enough for search
     // results
 }
@@ -0,0 +1,34 @@
+package com.superdupermart.shopping.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUpsertResponse {
+    private long received;
+    private long inserted;
+    private long updated;
+    private long failed;
+
+    @Builder.Default
+    private List<RowError> errors = new ArrayList<>();
+    // Only the first errors are listed so a bad feed can't blow up the response
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        // 1-based line of the row in the uploaded body (header is line 1 for CSV)
+        private long line;
+        private String message;
+    }
+}
@@ -0,0 +1,25 @@
+package com.superdupermart.shopping.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FlashSaleStatusResponse {
+    private Integer productId;
+    // NONE, PENDING (stock loads at activatesAt), ACTIVE or DRAINING (stopped, reservations settling)
+    private String state;
+    private Long activatesAt;
+    // Units still sellable from Redis
+    private Long stock;
+    // Units in open reservations
+    private Long held;
+    // Confirmed units not yet written to product.quantity
+    private Long unreconciled;
+}
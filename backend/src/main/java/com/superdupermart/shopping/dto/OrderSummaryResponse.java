@@ -0,0 +1,26 @@
+package com.superdupermart.shopping.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One row of a customer's order history; the items come from GET /orders/{id}/items
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryResponse {
+    private Integer orderId;
+    private LocalDateTime datePlaced;
+    private String orderStatus;
+    private Integer itemCount;
+    private BigDecimal total;
+
+    // JPQL constructor expression; the item aggregates are filled in from a second query
+    public OrderSummaryResponse(Integer orderId, LocalDateTime datePlaced, String orderStatus) {
+        this(orderId, datePlaced, orderStatus, 0, BigDecimal.ZERO);
+    }
+}
@@ -1,5 +1,6 @@
 package com.superdupermart.shopping.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,4 +21,30 @@ public class PageResponse<T> implements Serializable {
     private int number; // Current page number (0-indexed or 1-indexed, usually 0 in Spring Data but we
                         // use 1-based in Controller?)
                         // Let's stick to what the Controller receives.
+
+    // Cursor (keyset) mode only: opaque token for the next page, null on the last page.
+    // Totals are not computed in cursor mode, that is what keeps deep pages cheap.
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    // Page-number mode only: false when totalElements is a table statistic estimate
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean totalExact;
+
+    // Product search only
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private SearchFacets facets;
+
+    // Product search only: true when answered from the in-memory fallback index because
+    // Elasticsearch was unavailable; ranking is simpler and facets are limited to browse queries
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean degraded;
+
+    // Product search only: the query had no hits, these results are for this spelling instead
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String correctedQuery;
+
+    // Product search only: the query had few hits, this spelling may find more ("did you mean")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String suggestedQuery;
 }
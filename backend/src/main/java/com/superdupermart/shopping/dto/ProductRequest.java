@@ -16,4 +16,6 @@ public class ProductRequest {
     private BigDecimal wholesalePrice;
     private BigDecimal retailPrice;
     private Integer quantity;
+    private String category;
+    private String brand;
 }
@@ -24,8 +24,11 @@ public class ProductResponse implements Serializable {
     // Admin only fields
     private BigDecimal wholesalePrice;
     private Integer quantity;
-    private byte[] image;
     private String imageContentType;
+    private String category;
+    private String brand;
+    // Content hash of the image; changes whenever the image does
+    private String imageVersion;
 
     public static ProductResponse fromEntity(com.superdupermart.shopping.entity.Product product, boolean isAdmin) {
         ProductResponseBuilder builder = ProductResponse.builder()
@@ -33,8 +36,8 @@ public class ProductResponse implements Serializable {
                 .name(product.getName())
                 .description(product.getDescription())
                 .retailPrice(product.getRetailPrice())
-                .image(product.getImage())
-                .imageContentType(product.getImageContentType());
+                .imageContentType(product.getImageContentType())
+                .imageVersion(product.getImageHash());
 
         if (isAdmin) {
             builder.wholesalePrice(product.getWholesalePrice())
@@ -42,4 +45,9 @@ public class ProductResponse implements Serializable {
         }
         return builder.build();
     }
+
+    // Relative URL pinned to imageVersion, safe for long-lived browser caching
+    public String getImageUrl() {
+        return imageVersion != null ? "/products/" + id + "/image?v=" + imageVersion : null;
+    }
 }
@@ -0,0 +1,65 @@
+package com.superdupermart.shopping.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * List/grid view of a product. Built directly by JPQL constructor expressions, so list
+ * queries never hydrate Product entities. Images are referenced by URL, never inlined.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductSummaryResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private Integer id;
+    private String name;
+    private String description;
+    private BigDecimal retailPrice;
+    private String category;
+    private String brand;
+
+    // Admin only fields
+    private BigDecimal wholesalePrice;
+    private Integer quantity;
+
+    private String imageContentType;
+    // Content hash of the image; changes whenever the image does
+    private String imageVersion;
+    // Relative URL pinned to imageVersion, safe for long-lived browser caching
+    private String imageUrl;
+
+    public ProductSummaryResponse(Integer id, String name, String description, BigDecimal retailPrice,
+            BigDecimal wholesalePrice, Integer quantity, String imageContentType, String imageHash) {
+        this(id, name, description, retailPrice, null, null, wholesalePrice, quantity, imageContentType, imageHash);
+    }
+
+    // Used by the JPQL constructor expressions in ProductDaoImpl
+    public ProductSummaryResponse(Integer id, String name, String description, BigDecimal retailPrice,
+            String category, String brand, BigDecimal wholesalePrice, Integer quantity, String imageContentType,
+            String imageHash) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.retailPrice = retailPrice;
+        this.category = category;
+        this.brand = brand;
+        this.wholesalePrice = wholesalePrice;
+        this.quantity = quantity;
+        this.imageContentType = imageContentType;
+        this.imageVersion = imageHash;
+        this.imageUrl = imageHash != null ? "/products/" + id + "/image?v=" + imageHash : null;
+    }
+
+    public ProductSummaryResponse withoutAdminFields() {
+        return toBuilder().wholesalePrice(null).quantity(null).build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.superdupermart.shopping.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReindexStatusResponse {
+    // IDLE, RUNNING, DONE or FAILED
+    private String status;
+    private String index;
+    private Long totalProducts;
+    // Documents sent so far; partitions redone after a resume are counted again
+    private Long indexed;
+    private Integer partitionsTotal;
+    private Integer partitionsDone;
+    private String startedAt;
+    private Long elapsedSeconds;
+    private Double docsPerSecond;
+    private String error;
+}
@@ -0,0 +1,51 @@
+package com.superdupermart.shopping.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Facet counts for a search, over every product matching the query and filters.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchFacets implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // Most frequent first
+    @Builder.Default
+    private List<FacetCount> categories = new ArrayList<>();
+    @Builder.Default
+    private List<FacetCount> brands = new ArrayList<>();
+    // Fixed-width price histogram in ascending order; empty buckets are omitted
+    @Builder.Default
+    private List<PriceBucket> prices = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FacetCount implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private String value;
+        private long count;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceBucket implements Serializable {
+        private static final long serialVersionUID = 1L;
+        // Inclusive lower and exclusive upper bound
+        private BigDecimal from;
+        private BigDecimal to;
+        private long count;
+    }
+}
@@ -0,0 +1,18 @@
+package com.superdupermart.shopping.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SuggestionResponse {
+    private String text;
+    // Set when the suggestion is a product name; popular terms have none
+    private Integer productId;
+}
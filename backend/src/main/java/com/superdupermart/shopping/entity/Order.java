@@ -6,13 +6,26 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Backs keyset pagination ordered by (datePlaced, id)
+        @Index(name = "idx_orders_date_placed_id", columnList = "date_placed, id"),
+        // Backs a customer's order history, keyset over (datePlaced, id) within one user
+        @Index(name = "idx_orders_user_date_placed_id", columnList = "user_id, date_placed, id"),
+        // Lets the checkout sweeper find stale Pending orders without a scan
+        @Index(name = "idx_orders_status_date_placed", columnList = "order_status, date_placed") })
+// Everything an order listing reads besides the items, which are projected separately
+@NamedEntityGraph(name = Order.LISTING_GRAPH, attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("shippingAddress"),
+        @NamedAttributeNode("paymentMethod") })
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Order {
+    public static final String LISTING_GRAPH = "Order.listing";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
@@ -25,7 +38,7 @@ public class Order {
     private LocalDateTime datePlaced;
 
     @Column(name = "order_status", nullable = false)
-    private String orderStatus; // Processing, Completed, Canceled
+    private String orderStatus; // Pending (awaiting payment), Processing, Completed, Canceled, Failed
 
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> items;
@@ -41,4 +54,8 @@ public class Order {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "payment_method_id")
     private PaymentMethod paymentMethod;
+
+    // Redis reservation holding the flash-sale items while the order is Pending
+    @Column(name = "flash_reservation_id")
+    private String flashReservationId;
 }
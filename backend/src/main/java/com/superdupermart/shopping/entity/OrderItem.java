@@ -29,4 +29,9 @@ public class OrderItem {
 
     @Column(name = "purchased_price", nullable = false)
     private BigDecimal purchasedPrice; // Critical for price change resilience
+
+    // Reserved from a flash sale rather than taken from product.quantity
+    @Column(name = "flash_sale")
+    @Builder.Default
+    private Boolean flashSale = false;
 }
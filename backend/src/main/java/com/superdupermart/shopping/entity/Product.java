@@ -30,13 +30,20 @@ public class Product {
     @Column(nullable = false)
     private Integer quantity;
 
-    @Lob
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] image;
+    // SHA-256 of the image bytes held in the ImageStore; the bytes themselves are not in this table
+    @Column(name = "image_hash", length = 64)
+    private String imageHash;
 
     @Column(name = "image_content_type")
     private String imageContentType;
 
+    // Facet attributes; optional
+    @Column(length = 100)
+    private String category;
+
+    @Column(length = 100)
+    private String brand;
+
     public Integer getId() {
         return id;
     }
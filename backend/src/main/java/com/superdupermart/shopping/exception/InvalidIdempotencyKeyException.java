@@ -0,0 +1,7 @@
+package com.superdupermart.shopping.exception;
+
+public class InvalidIdempotencyKeyException extends RuntimeException {
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
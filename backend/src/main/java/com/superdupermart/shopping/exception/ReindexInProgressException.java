@@ -0,0 +1,7 @@
+package com.superdupermart.shopping.exception;
+
+public class ReindexInProgressException extends RuntimeException {
+    public ReindexInProgressException(String message) {
+        super(message);
+    }
+}
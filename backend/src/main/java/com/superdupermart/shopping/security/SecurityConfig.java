@@ -67,7 +67,7 @@ public class SecurityConfig {
                 configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
                 configuration
                                 .setAllowedHeaders(Arrays.asList("authorization", "content-type", "x-auth-token",
-                                                "origin", "accept"));
+                                                "origin", "accept", "idempotency-key"));
                 configuration.setExposedHeaders(Arrays.asList("x-auth-token"));
                 configuration.setAllowCredentials(true);
                 UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -1,8 +1,11 @@
 package com.superdupermart.shopping.service;
 
+import com.superdupermart.shopping.dto.OrderItemResponse;
 import com.superdupermart.shopping.dto.OrderRequest;
 import com.superdupermart.shopping.dto.OrderResponse;
+import com.superdupermart.shopping.dto.OrderSummaryResponse;
 import com.superdupermart.shopping.dto.PageResponse; // Import
+import com.superdupermart.shopping.service.count.CountMode;
 import java.util.List;
 
 public interface OrderService {
@@ -12,7 +15,13 @@ public interface OrderService {
 
     void completeOrder(Integer orderId);
 
-    List<OrderResponse> getOrdersByUser(Integer userId);
+    // A customer's orders, newest first, as keyset pages; status null for every status
+    PageResponse<OrderSummaryResponse> getOrderHistory(Integer userId, String cursor, int size, String status);
 
-    PageResponse<OrderResponse> getOrdersPage(int page, int size);
+    List<OrderItemResponse> getOrderItems(Integer orderId, Integer userId, boolean isAdmin);
+
+    PageResponse<OrderResponse> getOrdersPage(int page, int size, CountMode countMode);
+
+    // Keyset pagination over (datePlaced, id); cursor is null or empty for the first page
+    PageResponse<OrderResponse> getOrdersByCursor(String cursor, int size);
 }
@@ -2,13 +2,27 @@ package com.superdupermart.shopping.service;
 
 import com.superdupermart.shopping.dto.ProductRequest;
 import com.superdupermart.shopping.dto.ProductResponse;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import com.superdupermart.shopping.dto.ReindexStatusResponse;
+import com.superdupermart.shopping.service.count.CountMode;
+import com.superdupermart.shopping.service.image.ImageSize;
+import com.superdupermart.shopping.service.image.ProductImage;
 import org.springframework.web.multipart.MultipartFile;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ProductService {
-    List<ProductResponse> getAllProducts(boolean isAdmin);
+    List<ProductSummaryResponse> getAllProducts(boolean isAdmin);
 
-    com.superdupermart.shopping.dto.PageResponse<ProductResponse> getProductsPage(int page, int size);
+    // Same rows as getAllProducts, handed to the sink one at a time instead of collected in memory
+    void streamAllProducts(boolean isAdmin, Consumer<ProductSummaryResponse> sink);
+
+    com.superdupermart.shopping.dto.PageResponse<ProductSummaryResponse> getProductsPage(int page, int size,
+            CountMode countMode);
+
+    // Keyset pagination; cursor is the nextCursor of the previous page, null or empty for the first page
+    com.superdupermart.shopping.dto.PageResponse<ProductSummaryResponse> getProductsByCursor(String cursor, int size);
 
     ProductResponse getProductById(Integer id, boolean isAdmin);
 
@@ -16,14 +30,25 @@ public interface ProductService {
 
     ProductResponse updateProduct(Integer id, ProductRequest request);
 
+    // Hits plus category, brand and price facet counts
     com.superdupermart.shopping.dto.PageResponse<ProductResponse> searchProducts(String query, Double minPrice,
-            Double maxPrice, int page, int size);
+            Double maxPrice, String category, String brand, int page, int size);
+
+    // Same as searchProducts but never reads product_search; used to re-warm it
+    com.superdupermart.shopping.dto.PageResponse<ProductResponse> searchProductsUncached(String query,
+            Double minPrice, Double maxPrice, String category, String brand, int page, int size);
+
+    // search_after pagination over a point in time; cursor is the previous nextCursor, empty for the first page
+    com.superdupermart.shopping.dto.PageResponse<ProductResponse> searchProductsByCursor(String query,
+            Double minPrice, Double maxPrice, String category, String brand, String cursor, int size);
 
     void uploadProductImage(Integer id, MultipartFile file); // Changed type to MultipartFile
 
-    com.superdupermart.shopping.entity.Product getProductEntity(Integer id);
+    Optional<ProductImage> getProductImage(Integer id, ImageSize size);
+
+    ReindexStatusResponse syncAllProducts(); // Admin only, runs in the background
 
-    void syncAllProducts(); // Admin only
+    ReindexStatusResponse getSyncStatus(); // Admin only
 
     void deleteProduct(Integer id);
 }
@@ -0,0 +1,107 @@
+package com.superdupermart.shopping.service.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RFC 4180 CSV with a header row naming the columns (id, name, description, wholesalePrice,
+ * retailPrice, quantity; any order, id optional). Quoted fields may contain commas, doubled
+ * quotes and line breaks.
+ */
+class CsvProductRowReader implements ProductRowReader {
+
+    private final BufferedReader reader;
+    private List<String> header;
+    // Physical line the reader is on; a record spanning lines is reported at its first line
+    private long line = 1;
+
+    CsvProductRowReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public ProductRow next() throws IOException {
+        if (header == null) {
+            List<String> columns = readRecord();
+            if (columns == null) {
+                return null;
+            }
+            header = new ArrayList<>();
+            for (String column : columns) {
+                header.add(ProductRow.normalize(column));
+            }
+        }
+
+        List<String> values;
+        long recordLine;
+        do {
+            recordLine = line;
+            values = readRecord();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.get(0).isBlank());
+
+        if (values.size() != header.size()) {
+            return ProductRow.invalid(recordLine,
+                    "Expected " + header.size() + " columns but found " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            fields.put(header.get(i), values.get(i));
+        }
+        return ProductRow.fromFields(recordLine, fields);
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> values = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int peek = reader.read();
+                    if (peek == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                line++;
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+        values.add(field.toString());
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,62 @@
+package com.superdupermart.shopping.service.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * One JSON object per line, using the same field names as {@code ProductRequest} plus an optional id.
+ */
+class NdjsonProductRowReader implements ProductRowReader {
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private long line;
+
+    NdjsonProductRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ProductRow next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) {
+                return null;
+            }
+        } while (text.isBlank());
+
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (JsonProcessingException e) {
+            return ProductRow.invalid(line, "Malformed JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            return ProductRow.invalid(line, "Expected a JSON object");
+        }
+
+        Map<String, String> fields = new HashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext();) {
+            Map.Entry<String, JsonNode> field = it.next();
+            if (!field.getValue().isNull()) {
+                fields.put(ProductRow.normalize(field.getKey()), field.getValue().asText());
+            }
+        }
+        return ProductRow.fromFields(line, fields);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
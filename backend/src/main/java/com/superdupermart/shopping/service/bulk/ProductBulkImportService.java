@@ -0,0 +1,246 @@
+package com.superdupermart.shopping.service.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.superdupermart.shopping.dto.BulkUpsertResponse;
+import com.superdupermart.shopping.entity.Product;
+import com.superdupermart.shopping.service.catalog.ProductChangedEvent;
+import com.superdupermart.shopping.service.count.EntityCountService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Loads supplier feeds of any size: rows are streamed from the request body and written in
+ * chunks, each chunk in its own transaction with one JDBC batch for updates and one for inserts.
+ * The search index follows through {@link ProductChangedEvent} like any other write. Caches are
+ * evicted once at the end rather than per row.
+ * <p>
+ * Inserts go through JDBC rather than Hibernate because Product uses IDENTITY ids, which make
+ * Hibernate insert row by row. With {@code rewriteBatchedStatements=true} Connector/J sends each
+ * batch as multi-row INSERTs and still returns the generated ids.
+ */
+@Service
+public class ProductBulkImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductBulkImportService.class);
+
+    static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_SQL = "INSERT INTO product "
+            + "(name, description, wholesale_price, retail_price, quantity, category, brand) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "UPDATE product SET name = ?, description = ?, "
+            + "wholesale_price = ?, retail_price = ?, quantity = ?, category = ?, brand = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityCountService entityCountService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.products.bulk-chunk-size:500}")
+    private int chunkSize;
+
+    public ProductBulkImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            CacheManager cacheManager,
+            ApplicationEventPublisher eventPublisher, EntityCountService entityCountService,
+            ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
+        this.entityCountService = entityCountService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param contentType text/csv or application/x-ndjson
+     */
+    public BulkUpsertResponse upsert(String contentType, InputStream body) throws IOException {
+        BulkUpsertResponse result = BulkUpsertResponse.builder().build();
+        try (ProductRowReader reader = ProductRowReader.open(contentType, body, objectMapper)) {
+            List<ProductRow> chunk = new ArrayList<>(chunkSize);
+            ProductRow row;
+            while ((row = reader.next()) != null) {
+                result.setReceived(result.getReceived() + 1);
+                if (!row.isValid()) {
+                    addError(result, row.getLine(), row.getError());
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(chunk, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, result);
+            }
+        } finally {
+            // Also runs when the upload is cut off halfway, since earlier chunks are committed
+            if (result.getInserted() + result.getUpdated() > 0) {
+                evictCaches();
+            }
+        }
+        log.info("Bulk upsert: {} rows received, {} inserted, {} updated, {} failed", result.getReceived(),
+                result.getInserted(), result.getUpdated(), result.getFailed());
+        return result;
+    }
+
+    private void writeChunk(List<ProductRow> chunk, BulkUpsertResponse result) {
+        ChunkOutcome outcome;
+        try {
+            outcome = transactionTemplate.execute(status -> writeChunkInTransaction(chunk));
+        } catch (RuntimeException e) {
+            log.warn("Bulk upsert chunk of {} rows rolled back: {}", chunk.size(), e.getMessage());
+            for (ProductRow row : chunk) {
+                addError(result, row.getLine(), "Not saved, batch failed: " + e.getMessage());
+            }
+            return;
+        }
+
+        result.setInserted(result.getInserted() + outcome.inserted);
+        result.setUpdated(result.getUpdated() + outcome.updated);
+        outcome.errors.forEach((line, message) -> addError(result, line, message));
+    }
+
+    private ChunkOutcome writeChunkInTransaction(List<ProductRow> chunk) {
+        ChunkOutcome outcome = new ChunkOutcome();
+        List<ProductRow> inserts = new ArrayList<>();
+        List<ProductRow> updates = new ArrayList<>();
+        for (ProductRow row : chunk) {
+            (row.getId() == null ? inserts : updates).add(row);
+        }
+        List<Integer> changedIds = new ArrayList<>();
+
+        if (!updates.isEmpty()) {
+            // One lookup tells which ids exist
+            Set<Integer> existing = new HashSet<>();
+            namedJdbcTemplate.query("SELECT id FROM product WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids",
+                            updates.stream().map(ProductRow::getId).collect(Collectors.toSet())),
+                    (RowCallbackHandler) rs -> existing.add(rs.getInt(1)));
+
+            List<ProductRow> found = new ArrayList<>();
+            for (ProductRow row : updates) {
+                if (existing.contains(row.getId())) {
+                    found.add(row);
+                } else {
+                    outcome.errors.put(row.getLine(), "Product not found: " + row.getId());
+                }
+            }
+            jdbcTemplate.batchUpdate(UPDATE_SQL, found, found.size(), (ps, row) -> {
+                bindFields(ps, row);
+                ps.setInt(8, row.getId());
+            });
+            for (ProductRow row : found) {
+                changedIds.add(row.getId());
+            }
+            outcome.updated = found.size();
+        }
+
+        if (!inserts.isEmpty()) {
+            List<Integer> ids = jdbcTemplate.execute((ConnectionCallback<List<Integer>>) connection -> {
+                try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    for (ProductRow row : inserts) {
+                        bindFields(ps, row);
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    List<Integer> generated = new ArrayList<>(inserts.size());
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            generated.add(keys.getInt(1));
+                        }
+                    }
+                    return generated;
+                }
+            });
+            if (ids == null || ids.size() != inserts.size()) {
+                throw new IllegalStateException("Driver returned " + (ids == null ? 0 : ids.size())
+                        + " generated ids for " + inserts.size() + " inserts");
+            }
+            changedIds.addAll(ids);
+            outcome.inserted = inserts.size();
+            // Plain JDBC inserts are invisible to the Hibernate listener that maintains the counter
+            entityCountService.recordDelta(Product.class, inserts.size());
+        }
+
+        if (!changedIds.isEmpty()) {
+            eventPublisher.publishEvent(ProductChangedEvent.of(changedIds));
+        }
+        return outcome;
+    }
+
+    private static void bindFields(PreparedStatement ps, ProductRow row) throws SQLException {
+        ps.setString(1, row.getName());
+        setNullableString(ps, 2, row.getDescription());
+        ps.setBigDecimal(3, row.getWholesalePrice());
+        ps.setBigDecimal(4, row.getRetailPrice());
+        ps.setInt(5, row.getQuantity());
+        setNullableString(ps, 6, row.getCategory());
+        setNullableString(ps, 7, row.getBrand());
+    }
+
+    private static void setNullableString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value != null) {
+            ps.setString(index, value);
+        } else {
+            ps.setNull(index, Types.VARCHAR);
+        }
+    }
+
+    private void evictCaches() {
+        // product_search is refreshed by HotSearchQueries once the change is indexed
+        for (String name : List.of("product_list", "product")) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private static void addError(BulkUpsertResponse result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new BulkUpsertResponse.RowError(line, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private static class ChunkOutcome {
+        private final Map<Long, String> errors = new LinkedHashMap<>();
+        private int inserted;
+        private int updated;
+    }
+}
@@ -0,0 +1,89 @@
+package com.superdupermart.shopping.service.bulk;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * One parsed row of a bulk upload. Rows with an id update that product, rows without one
+ * are inserted. A row that fails validation carries the reason in {@link #getError()}.
+ */
+@Getter
+public class ProductRow {
+
+    private final long line;
+    private Integer id;
+    private String name;
+    private String description;
+    private BigDecimal wholesalePrice;
+    private BigDecimal retailPrice;
+    private Integer quantity;
+    private String category;
+    private String brand;
+    private String error;
+
+    private ProductRow(long line) {
+        this.line = line;
+    }
+
+    static ProductRow invalid(long line, String error) {
+        ProductRow row = new ProductRow(line);
+        row.error = error;
+        return row;
+    }
+
+    /**
+     * @param fields values keyed by normalized column name (see {@link #normalize})
+     */
+    static ProductRow fromFields(long line, Map<String, String> fields) {
+        ProductRow row = new ProductRow(line);
+        try {
+            row.id = parseInteger(fields.get("id"));
+            row.name = blankToNull(fields.get("name"));
+            row.description = blankToNull(fields.get("description"));
+            row.wholesalePrice = parseDecimal(fields.get("wholesaleprice"));
+            row.retailPrice = parseDecimal(fields.get("retailprice"));
+            row.quantity = parseInteger(fields.get("quantity"));
+            row.category = blankToNull(fields.get("category"));
+            row.brand = blankToNull(fields.get("brand"));
+        } catch (NumberFormatException e) {
+            row.error = "Invalid number: " + e.getMessage();
+            return row;
+        }
+
+        if (row.name == null) {
+            row.error = "name is required";
+        } else if (row.wholesalePrice == null || row.wholesalePrice.signum() < 0) {
+            row.error = "wholesalePrice must be a non-negative number";
+        } else if (row.retailPrice == null || row.retailPrice.signum() < 0) {
+            row.error = "retailPrice must be a non-negative number";
+        } else if (row.quantity == null || row.quantity < 0) {
+            row.error = "quantity must be a non-negative integer";
+        }
+        return row;
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    // "Retail_Price", "retailPrice" and "retail price" all map to "retailprice"
+    static String normalize(String column) {
+        return column.replaceAll("[\\s_-]", "").toLowerCase();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static Integer parseInteger(String value) {
+        String v = blankToNull(value);
+        return v == null ? null : Integer.valueOf(v);
+    }
+
+    private static BigDecimal parseDecimal(String value) {
+        String v = blankToNull(value);
+        return v == null ? null : new BigDecimal(v);
+    }
+}
@@ -0,0 +1,35 @@
+package com.superdupermart.shopping.service.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads product rows one at a time from an upload body, so the whole feed is never in memory.
+ */
+public interface ProductRowReader extends Closeable {
+
+    String CSV = "text/csv";
+    String NDJSON = "application/x-ndjson";
+
+    /**
+     * @return the next row (possibly invalid), or null at end of input
+     */
+    ProductRow next() throws IOException;
+
+    static ProductRowReader open(String contentType, InputStream body, ObjectMapper objectMapper) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        if (contentType != null && contentType.startsWith(NDJSON)) {
+            return new NdjsonProductRowReader(reader, objectMapper);
+        }
+        if (contentType != null && contentType.startsWith(CSV)) {
+            return new CsvProductRowReader(reader);
+        }
+        throw new IllegalArgumentException("Unsupported content type for bulk upload: " + contentType);
+    }
+}
@@ -0,0 +1,39 @@
+package com.superdupermart.shopping.service.cache;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Applies invalidations published by other nodes to the local L1 tier.
+ */
+public class CacheInvalidationListener implements MessageListener {
+
+    private final TwoTierCacheManager cacheManager;
+    private final String nodeId;
+
+    public CacheInvalidationListener(TwoTierCacheManager cacheManager, String nodeId) {
+        this.cacheManager = cacheManager;
+        this.nodeId = nodeId;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 4);
+        if (parts.length < 4 || nodeId.equals(parts[0])) {
+            return;
+        }
+
+        TwoTierCache cache = cacheManager.getTwoTierCache(parts[1]);
+        if (cache == null) {
+            return;
+        }
+
+        if (CacheInvalidationPublisher.OP_CLEAR.equals(parts[2])) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[3]);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.superdupermart.shopping.service.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Broadcasts L1 invalidations over Redis pub/sub.
+ * Message format: {@code nodeId \n cacheName \n op \n key} where op is E (evict) or C (clear).
+ */
+public class CacheInvalidationPublisher {
+
+    static final String OP_EVICT = "E";
+    static final String OP_CLEAR = "C";
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationPublisher.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String nodeId;
+
+    public CacheInvalidationPublisher(StringRedisTemplate redisTemplate, String channel, String nodeId) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.nodeId = nodeId;
+    }
+
+    public void publishEvict(String cacheName, String key) {
+        publish(cacheName, OP_EVICT, key);
+    }
+
+    public void publishClear(String cacheName) {
+        publish(cacheName, OP_CLEAR, "");
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private void publish(String cacheName, String op, String key) {
+        try {
+            redisTemplate.convertAndSend(channel, nodeId + "\n" + cacheName + "\n" + op + "\n" + key);
+        } catch (Exception e) {
+            // Peers fall back to their short L1 TTL if a message is lost
+            log.warn("Failed to publish cache invalidation for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+}
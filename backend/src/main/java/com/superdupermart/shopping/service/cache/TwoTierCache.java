@@ -0,0 +1,104 @@
+package com.superdupermart.shopping.service.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache with a bounded in-process L1 (Caffeine) in front of a shared L2 (Redis).
+ * Reads are served from L1 when possible, writes go to both tiers and other
+ * nodes are told to drop their L1 copy through {@link CacheInvalidationPublisher}.
+ */
+public class TwoTierCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final CacheInvalidationPublisher publisher;
+
+    public TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local, Cache remote,
+            CacheInvalidationPublisher publisher) {
+        super(true);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.publisher = publisher;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = toLocalKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            return value;
+        }
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object storeValue = toStoreValue(wrapper.get());
+        local.put(localKey, storeValue);
+        return storeValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) {
+            return (T) fromStoreValue(value);
+        }
+        T loaded = remote.get(key, valueLoader);
+        local.put(toLocalKey(key), toStoreValue(loaded));
+        return loaded;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = toLocalKey(key);
+        remote.put(key, value);
+        local.put(localKey, toStoreValue(value));
+        publisher.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = toLocalKey(key);
+        remote.evict(key);
+        local.invalidate(localKey);
+        publisher.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        publisher.publishClear(name);
+    }
+
+    // Called for invalidations received from other nodes; L2 is already up to date
+    void evictLocal(String localKey) {
+        local.invalidate(localKey);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    // Keys are broadcast as strings, so L1 is keyed the same way on every node
+    static String toLocalKey(Object key) {
+        return String.valueOf(key);
+    }
+}
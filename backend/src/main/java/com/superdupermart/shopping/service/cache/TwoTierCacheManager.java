@@ -0,0 +1,61 @@
+package com.superdupermart.shopping.service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.superdupermart.shopping.config.CacheProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.cache.RedisCacheManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds a {@link TwoTierCache} per cache name using the per-name settings from
+ * {@link CacheProperties}. Caches are wrapped so puts and evictions issued inside a
+ * transaction are applied after commit, which keeps a concurrent reader from
+ * re-caching the pre-commit row.
+ */
+public class TwoTierCacheManager implements CacheManager {
+
+    private final RedisCacheManager redisCacheManager;
+    private final CacheInvalidationPublisher publisher;
+    private final CacheProperties properties;
+
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, Cache> decorated = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(RedisCacheManager redisCacheManager, CacheInvalidationPublisher publisher,
+            CacheProperties properties) {
+        this.redisCacheManager = redisCacheManager;
+        this.publisher = publisher;
+        this.properties = properties;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return decorated.computeIfAbsent(name, n -> new TransactionAwareCacheDecorator(getOrCreate(n)));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    public TwoTierCache getTwoTierCache(String name) {
+        return caches.get(name);
+    }
+
+    private TwoTierCache getOrCreate(String name) {
+        return caches.computeIfAbsent(name, n -> {
+            CacheProperties.Spec spec = properties.specFor(n);
+            com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                    .maximumSize(spec.getLocalMaxSize())
+                    .expireAfterWrite(spec.getLocalTtl())
+                    .build();
+            return new TwoTierCache(n, local, redisCacheManager.getCache(n), publisher);
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package com.superdupermart.shopping.service.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Forwards committed {@link ProductChangedEvent}s to the other nodes over Redis pub/sub and
+ * republishes theirs locally, so in-process product structures stay in step across the cluster.
+ * Message format: {@code nodeId \n id,id,...}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.catalog.events.redis-relay", havingValue = "true", matchIfMissing = true)
+public class CatalogChangeRelay implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogChangeRelay.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String channel;
+
+    public CatalogChangeRelay(StringRedisTemplate redisTemplate, ApplicationEventPublisher eventPublisher,
+            @Value("${app.catalog.events.channel:catalog:changes}") String channel) {
+        this.redisTemplate = redisTemplate;
+        this.eventPublisher = eventPublisher;
+        this.channel = channel;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        String ids = event.getProductIds().stream().map(String::valueOf).collect(Collectors.joining(","));
+        try {
+            redisTemplate.convertAndSend(channel, nodeId + "\n" + ids);
+        } catch (Exception e) {
+            // Peers catch up on their next full rebuild
+            log.warn("Failed to relay product changes {}: {}", ids, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 2);
+        if (parts.length < 2 || nodeId.equals(parts[0]) || parts[1].isEmpty()) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (String id : parts[1].split(",")) {
+            try {
+                ids.add(Integer.valueOf(id));
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed product id {} in catalog change", id);
+            }
+        }
+        if (!ids.isEmpty()) {
+            eventPublisher.publishEvent(new ProductChangedEvent(ids, true));
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.superdupermart.shopping.service.catalog;
+
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import com.superdupermart.shopping.dto.SearchFacets;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Facet counts for browse queries (no text, no price filter) without asking Elasticsearch.
+ * <p>
+ * Every product gets a slot number; each category, brand and price bucket keeps a {@link BitSet}
+ * of the slots that carry it, so a count is an AND plus a popcount over a few KB. Unlike
+ * {@link CatalogSnapshot} this structure is updated in place: a change clears the product's old
+ * bits and sets the new ones under a write lock, and freed slots are reused.
+ */
+public final class CatalogFacets {
+
+    private static final BitSet EMPTY = new BitSet();
+
+    private final BigDecimal priceInterval;
+    private final int maxValues;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, Slot> slots = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final BitSet present = new BitSet();
+    private final Map<String, BitSet> categories = new HashMap<>();
+    private final Map<String, BitSet> brands = new HashMap<>();
+    private final TreeMap<Long, BitSet> priceBuckets = new TreeMap<>();
+    private int nextSlot;
+
+    /**
+     * @param priceInterval width of a price histogram bucket
+     * @param maxValues     most categories / brands reported per facet
+     */
+    public CatalogFacets(BigDecimal priceInterval, int maxValues) {
+        this.priceInterval = priceInterval;
+        this.maxValues = maxValues;
+    }
+
+    public static CatalogFacets of(List<ProductSummaryResponse> rows, BigDecimal priceInterval, int maxValues) {
+        CatalogFacets facets = new CatalogFacets(priceInterval, maxValues);
+        rows.forEach(facets::put);
+        return facets;
+    }
+
+    /**
+     * {@code changes} maps product id to its current summary, or to null when it no longer exists.
+     */
+    public void apply(Map<Integer, ProductSummaryResponse> changes) {
+        lock.writeLock().lock();
+        try {
+            changes.forEach((id, row) -> {
+                if (row == null) {
+                    remove(id);
+                } else {
+                    put(row);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts over the products matching both filters; a null filter matches everything.
+     */
+    public SearchFacets count(String category, String brand) {
+        lock.readLock().lock();
+        try {
+            BitSet matching = (BitSet) present.clone();
+            if (category != null) {
+                matching.and(categories.getOrDefault(category, EMPTY));
+            }
+            if (brand != null) {
+                matching.and(brands.getOrDefault(brand, EMPTY));
+            }
+
+            List<SearchFacets.PriceBucket> prices = new ArrayList<>();
+            priceBuckets.forEach((bucket, bits) -> {
+                long count = intersectionSize(bits, matching);
+                if (count > 0) {
+                    BigDecimal from = priceInterval.multiply(BigDecimal.valueOf(bucket));
+                    prices.add(new SearchFacets.PriceBucket(from, from.add(priceInterval), count));
+                }
+            });
+            return SearchFacets.builder()
+                    .categories(counts(categories, matching))
+                    .brands(counts(brands, matching))
+                    .prices(prices)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<SearchFacets.FacetCount> counts(Map<String, BitSet> values, BitSet matching) {
+        List<SearchFacets.FacetCount> result = new ArrayList<>();
+        values.forEach((value, bits) -> {
+            long count = intersectionSize(bits, matching);
+            if (count > 0) {
+                result.add(new SearchFacets.FacetCount(value, count));
+            }
+        });
+        result.sort(Comparator.comparingLong(SearchFacets.FacetCount::getCount).reversed()
+                .thenComparing(SearchFacets.FacetCount::getValue));
+        return result.size() > maxValues ? new ArrayList<>(result.subList(0, maxValues)) : result;
+    }
+
+    private static long intersectionSize(BitSet bits, BitSet matching) {
+        BitSet intersection = (BitSet) bits.clone();
+        intersection.and(matching);
+        return intersection.cardinality();
+    }
+
+    // Callers hold the write lock, except during construction
+    private void put(ProductSummaryResponse row) {
+        remove(row.getId());
+        Integer free = freeSlots.poll();
+        int index = free != null ? free : nextSlot++;
+        Slot slot = new Slot(index, row.getCategory(), row.getBrand(), bucketOf(row.getRetailPrice()));
+        slots.put(row.getId(), slot);
+
+        present.set(index);
+        if (slot.category != null) {
+            categories.computeIfAbsent(slot.category, k -> new BitSet()).set(index);
+        }
+        if (slot.brand != null) {
+            brands.computeIfAbsent(slot.brand, k -> new BitSet()).set(index);
+        }
+        if (slot.priceBucket != null) {
+            priceBuckets.computeIfAbsent(slot.priceBucket, k -> new BitSet()).set(index);
+        }
+    }
+
+    private void remove(int id) {
+        Slot slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        present.clear(slot.index);
+        clear(categories, slot.category, slot.index);
+        clear(brands, slot.brand, slot.index);
+        clear(priceBuckets, slot.priceBucket, slot.index);
+        freeSlots.push(slot.index);
+    }
+
+    private static <K> void clear(Map<K, BitSet> values, K key, int index) {
+        if (key == null) {
+            return;
+        }
+        BitSet bits = values.get(key);
+        if (bits != null) {
+            bits.clear(index);
+            if (bits.isEmpty()) {
+                values.remove(key);
+            }
+        }
+    }
+
+    private Long bucketOf(BigDecimal price) {
+        return price == null ? null : price.divide(priceInterval, 0, RoundingMode.FLOOR).longValue();
+    }
+
+    private static final class Slot {
+        private final int index;
+        private final String category;
+        private final String brand;
+        private final Long priceBucket;
+
+        private Slot(int index, String category, String brand, Long priceBucket) {
+            this.index = index;
+            this.category = category;
+            this.brand = brand;
+            this.priceBucket = priceBucket;
+        }
+    }
+}
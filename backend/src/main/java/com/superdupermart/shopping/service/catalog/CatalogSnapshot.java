@@ -0,0 +1,173 @@
+package com.superdupermart.shopping.service.catalog;
+
+import com.superdupermart.shopping.dto.ProductResponse;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable storefront view of the catalog: non-admin product fields in parallel arrays sorted
+ * by id, looked up by binary search. Changes never modify a snapshot; {@link #withChanges}
+ * builds a new one that the owner swaps in, so readers need no locking.
+ * <p>
+ * The contained DTOs are shared between requests and must not be modified.
+ */
+public final class CatalogSnapshot {
+
+    private final int[] ids;
+    private final ProductSummaryResponse[] products;
+    private final boolean[] inStock;
+    private final List<ProductSummaryResponse> inStockProducts;
+    private final long estimatedBytes;
+
+    private CatalogSnapshot(int[] ids, ProductSummaryResponse[] products, boolean[] inStock) {
+        this.ids = ids;
+        this.products = products;
+        this.inStock = inStock;
+
+        List<ProductSummaryResponse> available = new ArrayList<>();
+        long bytes = 0;
+        for (int i = 0; i < products.length; i++) {
+            if (inStock[i]) {
+                available.add(products[i]);
+            }
+            bytes += estimateBytes(products[i]);
+        }
+        this.inStockProducts = Collections.unmodifiableList(available);
+        // id + reference + flag per slot, plus the in-stock list's references
+        this.estimatedBytes = bytes + products.length * 13L + available.size() * 4L;
+    }
+
+    /**
+     * @param rows admin summaries (quantity is needed to derive stock, then dropped), any order
+     */
+    public static CatalogSnapshot of(List<ProductSummaryResponse> rows) {
+        ProductSummaryResponse[] sorted = rows.toArray(new ProductSummaryResponse[0]);
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.getId(), b.getId()));
+
+        int[] ids = new int[sorted.length];
+        ProductSummaryResponse[] products = new ProductSummaryResponse[sorted.length];
+        boolean[] inStock = new boolean[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            ids[i] = sorted[i].getId();
+            inStock[i] = isInStock(sorted[i]);
+            products[i] = sorted[i].withoutAdminFields();
+        }
+        return new CatalogSnapshot(ids, products, inStock);
+    }
+
+    /**
+     * Copy-on-write merge. {@code changes} maps product id to its current admin summary, or to
+     * null when the product no longer exists.
+     */
+    public CatalogSnapshot withChanges(Map<Integer, ProductSummaryResponse> changes) {
+        int[] changedIds = changes.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int capacity = ids.length + changedIds.length;
+        int[] newIds = new int[capacity];
+        ProductSummaryResponse[] newProducts = new ProductSummaryResponse[capacity];
+        boolean[] newInStock = new boolean[capacity];
+
+        // Merge of two sorted id sequences; a changed id replaces, inserts or removes its slot
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < ids.length || j < changedIds.length) {
+            if (j == changedIds.length || (i < ids.length && ids[i] < changedIds[j])) {
+                newIds[n] = ids[i];
+                newProducts[n] = products[i];
+                newInStock[n] = inStock[i];
+                n++;
+                i++;
+                continue;
+            }
+            int id = changedIds[j++];
+            if (i < ids.length && ids[i] == id) {
+                i++;
+            }
+            ProductSummaryResponse row = changes.get(id);
+            if (row != null) {
+                newIds[n] = id;
+                newProducts[n] = row.withoutAdminFields();
+                newInStock[n] = isInStock(row);
+                n++;
+            }
+        }
+        return new CatalogSnapshot(Arrays.copyOf(newIds, n), Arrays.copyOf(newProducts, n),
+                Arrays.copyOf(newInStock, n));
+    }
+
+    /**
+     * @return the product if it exists and is in stock, otherwise null
+     */
+    public ProductResponse findAvailable(int id) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index < 0 || !inStock[index]) {
+            return null;
+        }
+        ProductSummaryResponse p = products[index];
+        return ProductResponse.builder()
+                .id(p.getId())
+                .name(p.getName())
+                .description(p.getDescription())
+                .retailPrice(p.getRetailPrice())
+                .imageContentType(p.getImageContentType())
+                .imageVersion(p.getImageVersion())
+                .category(p.getCategory())
+                .brand(p.getBrand())
+                .build();
+    }
+
+    public List<ProductSummaryResponse> getInStockProducts() {
+        return inStockProducts;
+    }
+
+    /**
+     * Zero-based page over all products (in stock or not) in id order.
+     */
+    public List<ProductResponse> page(int page, int size) {
+        int from = (int) Math.min((long) page * size, products.length);
+        int to = Math.min(from + size, products.length);
+        List<ProductResponse> content = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            ProductSummaryResponse p = products[i];
+            content.add(ProductResponse.builder()
+                    .id(p.getId())
+                    .name(p.getName())
+                    .description(p.getDescription())
+                    .retailPrice(p.getRetailPrice())
+                    .imageContentType(p.getImageContentType())
+                    .imageVersion(p.getImageVersion())
+                    .category(p.getCategory())
+                    .brand(p.getBrand())
+                    .build());
+        }
+        return content;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    private static boolean isInStock(ProductSummaryResponse row) {
+        return row.getQuantity() != null && row.getQuantity() > 0;
+    }
+
+    // Rough retained size of one DTO: object and field headers plus string payloads (Latin-1 compact strings)
+    private static long estimateBytes(ProductSummaryResponse p) {
+        return 56 + 16 + stringBytes(p.getName()) + stringBytes(p.getDescription())
+                + (p.getRetailPrice() != null ? 40 : 0) + stringBytes(p.getImageContentType())
+                + stringBytes(p.getImageVersion()) + stringBytes(p.getImageUrl());
+    }
+
+    private static long stringBytes(String s) {
+        return s == null ? 0 : 40 + s.length();
+    }
+}
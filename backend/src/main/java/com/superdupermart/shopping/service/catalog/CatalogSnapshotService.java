@@ -0,0 +1,211 @@
+package com.superdupermart.shopping.service.catalog;
+
+import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Owns the current {@link CatalogSnapshot} used to answer anonymous storefront reads without a
+ * Redis or MySQL round trip, and the {@link CatalogFacets} that count browse facets.
+ * <p>
+ * Committed product changes only mark ids dirty; a scheduled task reloads all dirty ids in one
+ * query and swaps in a merged snapshot, so a burst of writes costs one rebuild. A periodic full
+ * rebuild repairs anything missed (e.g. a lost pub/sub message). Catalogs larger than
+ * {@code app.catalog.snapshot.max-products} are not held in memory and every read takes the
+ * normal cached path.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+    private static final int RELOAD_CHUNK = 1000;
+
+    private final ProductDao productDao;
+    private final TransactionTemplate readOnlyTx;
+    private final Set<Integer> dirtyIds = ConcurrentHashMap.newKeySet();
+
+    private volatile CatalogSnapshot snapshot;
+    private volatile CatalogFacets facets;
+
+    @Value("${app.catalog.snapshot.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.catalog.snapshot.max-products:200000}")
+    private int maxProducts;
+
+    @Value("${app.products.export-fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${app.search.facets.price-interval:50}")
+    private BigDecimal priceInterval;
+
+    @Value("${app.search.facets.size:20}")
+    private int facetSize;
+
+    public CatalogSnapshotService(ProductDao productDao, PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry) {
+        this.productDao = productDao;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+
+        Gauge.builder("catalog.snapshot.products", this, s -> s.snapshot != null ? s.snapshot.size() : 0)
+                .description("Products held in the in-memory catalog snapshot")
+                .register(meterRegistry);
+        Gauge.builder("catalog.snapshot.memory", this,
+                s -> s.snapshot != null ? s.snapshot.getEstimatedBytes() : 0)
+                .description("Estimated heap retained by the catalog snapshot")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("catalog.snapshot.pending", dirtyIds, Set::size)
+                .description("Changed products not yet applied to the snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the current snapshot, or null when disabled, not yet built, or over the size limit
+     */
+    public CatalogSnapshot current() {
+        return snapshot;
+    }
+
+    /**
+     * @return facet bitsets over the same products as {@link #current()}, or null when not serving
+     */
+    public CatalogFacets facets() {
+        return facets;
+    }
+
+    public boolean isServing() {
+        return snapshot != null;
+    }
+
+    // Storefront browse: no text query and no filters
+    public boolean canServeBrowse(String query, Double minPrice, Double maxPrice, String category, String brand) {
+        return snapshot != null && (query == null || query.isBlank()) && minPrice == null && maxPrice == null
+                && category == null && brand == null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (enabled) {
+            dirtyIds.addAll(event.getProductIds());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.snapshot.full-rebuild-ms:600000}",
+            initialDelayString = "${app.catalog.snapshot.full-rebuild-ms:600000}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.snapshot.refresh-delay-ms:200}")
+    public synchronized void applyPendingChanges() {
+        CatalogSnapshot current = snapshot;
+        if (current == null || dirtyIds.isEmpty()) {
+            return;
+        }
+
+        List<Integer> ids = new ArrayList<>(dirtyIds.size());
+        for (Iterator<Integer> it = dirtyIds.iterator(); it.hasNext();) {
+            ids.add(it.next());
+            it.remove();
+        }
+
+        Map<Integer, ProductSummaryResponse> changes = new HashMap<>();
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                for (int from = 0; from < ids.size(); from += RELOAD_CHUNK) {
+                    List<Integer> chunk = ids.subList(from, Math.min(from + RELOAD_CHUNK, ids.size()));
+                    chunk.forEach(id -> changes.put(id, null));
+                    productDao.getProductSummariesByIds(chunk).forEach(p -> changes.put(p.getId(), p));
+                }
+            });
+        } catch (RuntimeException e) {
+            // Retry on the next tick
+            dirtyIds.addAll(ids);
+            log.warn("Failed to refresh catalog snapshot: {}", e.getMessage());
+            return;
+        }
+
+        CatalogSnapshot next = current.withChanges(changes);
+        if (next.size() > maxProducts) {
+            disable(next.size());
+            return;
+        }
+        snapshot = next;
+        CatalogFacets currentFacets = facets;
+        if (currentFacets != null) {
+            currentFacets.apply(changes);
+        }
+    }
+
+    public synchronized void rebuild() {
+        List<ProductSummaryResponse> rows = new ArrayList<>();
+        boolean oversized;
+        try {
+            oversized = Boolean.TRUE.equals(readOnlyTx.execute(status -> {
+                try (Stream<ProductSummaryResponse> products = productDao.streamProductSummaries(false, fetchSize)) {
+                    Iterator<ProductSummaryResponse> it = products.iterator();
+                    while (it.hasNext()) {
+                        rows.add(it.next());
+                        if (rows.size() > maxProducts) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }));
+        } catch (RuntimeException e) {
+            log.warn("Failed to build catalog snapshot, keeping the previous one: {}", e.getMessage());
+            return;
+        }
+
+        if (oversized) {
+            disable(rows.size());
+            return;
+        }
+        snapshot = CatalogSnapshot.of(rows);
+        facets = CatalogFacets.of(rows, priceInterval, facetSize);
+        log.info("Catalog snapshot built: {} products, ~{} KB", snapshot.size(),
+                snapshot.getEstimatedBytes() / 1024);
+    }
+
+    private void disable(int size) {
+        log.warn("Catalog has more than {} products ({}+), serving storefront reads from the cache instead",
+                maxProducts, size);
+        snapshot = null;
+        facets = null;
+        // Bounded by catalog size; the next full rebuild decides whether to resume
+        dirtyIds.clear();
+    }
+}
@@ -0,0 +1,38 @@
+package com.superdupermart.shopping.service.catalog;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Published (as a Spring application event) whenever product rows are inserted, updated or
+ * deleted, including stock changes that move a product in or out of stock. Listeners should use
+ * {@code @TransactionalEventListener(fallbackExecution = true)} so they only see committed data
+ * and still receive events relayed from other nodes, which arrive outside any transaction.
+ */
+public class ProductChangedEvent {
+
+    private final Set<Integer> productIds;
+    // True when relayed from another node, so it is not relayed again
+    private final boolean remote;
+
+    public ProductChangedEvent(Collection<Integer> productIds, boolean remote) {
+        this.productIds = Set.copyOf(productIds);
+        this.remote = remote;
+    }
+
+    public static ProductChangedEvent of(Integer productId) {
+        return new ProductChangedEvent(Set.of(productId), false);
+    }
+
+    public static ProductChangedEvent of(Collection<Integer> productIds) {
+        return new ProductChangedEvent(productIds, false);
+    }
+
+    public Set<Integer> getProductIds() {
+        return productIds;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+}
@@ -0,0 +1,12 @@
+package com.superdupermart.shopping.service.count;
+
+public enum CountMode {
+    // Row count kept current by the write-through counter (falls back to COUNT(*))
+    EXACT,
+    // Storage engine estimate from information_schema; free but can be off by a few percent
+    ESTIMATED;
+
+    public static CountMode fromParam(String value) {
+        return "estimated".equalsIgnoreCase(value) ? ESTIMATED : EXACT;
+    }
+}
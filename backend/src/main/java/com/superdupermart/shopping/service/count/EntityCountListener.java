@@ -0,0 +1,61 @@
+package com.superdupermart.shopping.service.count;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds entity inserts and deletes into {@link EntityCountService}. Registered with Hibernate
+ * directly so every write path is covered, not just the ones that remember to call it.
+ * JPQL bulk deletes bypass these events; the counter TTL corrects for those.
+ */
+@Component
+public class EntityCountListener implements PostInsertEventListener, PostDeleteEventListener {
+
+    private final EntityCountService entityCountService;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public EntityCountListener(EntityCountService entityCountService, EntityManagerFactory entityManagerFactory) {
+        this.entityCountService = entityCountService;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        Class<?> entityClass = event.getEntity().getClass();
+        if (entityCountService.isTracked(entityClass)) {
+            entityCountService.recordDelta(entityClass, 1);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Class<?> entityClass = event.getEntity().getClass();
+        if (entityCountService.isTracked(entityClass)) {
+            entityCountService.recordDelta(entityClass, -1);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        // Deltas are already deferred to commit by EntityCountService
+        return false;
+    }
+}
@@ -0,0 +1,197 @@
+package com.superdupermart.shopping.service.count;
+
+import com.superdupermart.shopping.entity.Order;
+import com.superdupermart.shopping.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Row counts for paginated endpoints without a COUNT(*) per page view.
+ * <p>
+ * Exact counts live in Redis ({@code count:{<table>}}) and are adjusted by
+ * {@link EntityCountListener} as rows are inserted and deleted. Deltas are collected per
+ * transaction and applied once after commit, so rolled-back writes never count. A missing
+ * key is seeded with a real COUNT and expires after {@code app.counts.ttl}, which bounds
+ * any drift from writes that bypass Hibernate. Every delta also bumps a per-table version,
+ * and a seed is only stored if the version did not move while the COUNT ran; otherwise a
+ * write skipped for the missing key would be lost from the seeded value.
+ * <p>
+ * Estimated counts read InnoDB's TABLE_ROWS statistic, for admin screens that only
+ * need an order of magnitude.
+ */
+@Service
+public class EntityCountService {
+
+    private static final Logger log = LoggerFactory.getLogger(EntityCountService.class);
+
+    // Only adjust a counter that has been seeded; a partial counter would be wrong until it expires
+    private static final RedisScript<Long> INCR_IF_EXISTS = new DefaultRedisScript<>(
+            "redis.call('incr', KEYS[2]) "
+                    + "if redis.call('exists', KEYS[1]) == 1 then return redis.call('incrby', KEYS[1], ARGV[1]) end "
+                    + "return nil",
+            Long.class);
+
+    // Seed only if no write was applied since ARGV[1] was read
+    private static final RedisScript<Long> SEED_IF_UNCHANGED = new DefaultRedisScript<>(
+            "if (redis.call('get', KEYS[2]) or '0') ~= ARGV[1] then return 0 end "
+                    + "if redis.call('set', KEYS[1], ARGV[2], 'NX', 'PX', ARGV[3]) then return 1 end "
+                    + "return 0",
+            Long.class);
+
+    private static final Map<Class<?>, String> TABLES = Map.of(
+            Product.class, "product",
+            Order.class, "orders");
+
+    private static final Map<Class<?>, String> COUNT_QUERIES = Map.of(
+            Product.class, "SELECT COUNT(p) FROM Product p",
+            Order.class, "SELECT COUNT(o) FROM Order o");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.counts.ttl:1h}")
+    private Duration ttl;
+
+    public EntityCountService(StringRedisTemplate redisTemplate, JdbcTemplate jdbcTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isTracked(Class<?> entityClass) {
+        return TABLES.containsKey(entityClass);
+    }
+
+    public RowCount count(Class<?> entityClass, CountMode mode) {
+        if (mode == CountMode.ESTIMATED) {
+            Long estimate = estimate(entityClass);
+            if (estimate != null) {
+                return RowCount.estimated(estimate);
+            }
+        }
+        return RowCount.exact(exactCount(entityClass));
+    }
+
+    /**
+     * Records row inserts (positive) or deletes (negative). Applied to the shared counter after
+     * the surrounding transaction commits. Called by {@link EntityCountListener}; plain JDBC
+     * writers must call it themselves.
+     */
+    public void recordDelta(Class<?> entityClass, long delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyDeltas(Map.of(entityClass, delta));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<Class<?>, Long> pending = (Map<Class<?>, Long>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Class<?>, Long> deltas = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, deltas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyDeltas(deltas);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EntityCountService.this);
+                }
+            });
+            pending = deltas;
+        }
+        pending.merge(entityClass, delta, Long::sum);
+    }
+
+    private void applyDeltas(Map<Class<?>, Long> deltas) {
+        deltas.forEach((entityClass, delta) -> {
+            if (delta == 0) {
+                return;
+            }
+            try {
+                redisTemplate.execute(INCR_IF_EXISTS, List.of(key(entityClass), versionKey(entityClass)),
+                        String.valueOf(delta));
+            } catch (Exception e) {
+                // Drop the counter so the next read re-seeds it from the database
+                log.warn("Failed to update row counter for {}: {}", entityClass.getSimpleName(), e.getMessage());
+                evict(entityClass);
+            }
+        });
+    }
+
+    private long exactCount(Class<?> entityClass) {
+        String key = key(entityClass);
+        String version;
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(List.of(key, versionKey(entityClass)));
+            if (values.get(0) != null) {
+                return Long.parseLong(values.get(0));
+            }
+            version = values.get(1) != null ? values.get(1) : "0";
+        } catch (Exception e) {
+            log.warn("Row counter unavailable for {}: {}", entityClass.getSimpleName(), e.getMessage());
+            return countFromDatabase(entityClass);
+        }
+
+        long count = countFromDatabase(entityClass);
+        try {
+            // Not stored if a write landed meanwhile; the next read tries again
+            redisTemplate.execute(SEED_IF_UNCHANGED, List.of(key, versionKey(entityClass)), version,
+                    String.valueOf(count), String.valueOf(ttl.toMillis()));
+        } catch (Exception e) {
+            log.warn("Failed to seed row counter for {}: {}", entityClass.getSimpleName(), e.getMessage());
+        }
+        return count;
+    }
+
+    private Long estimate(Class<?> entityClass) {
+        try {
+            return jdbcTemplate.queryForObject(
+                    "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+                    Long.class, TABLES.get(entityClass));
+        } catch (DataAccessException e) {
+            // Not MySQL (e.g. H2 in tests) or no statistics yet
+            return null;
+        }
+    }
+
+    private long countFromDatabase(Class<?> entityClass) {
+        return entityManager.createQuery(COUNT_QUERIES.get(entityClass), Long.class).getSingleResult();
+    }
+
+    private void evict(Class<?> entityClass) {
+        try {
+            redisTemplate.delete(key(entityClass));
+        } catch (Exception e) {
+            log.debug("Failed to evict row counter for {}", entityClass.getSimpleName());
+        }
+    }
+
+    // Hash tag keeps a table's counter and version in one cluster slot
+    private static String key(Class<?> entityClass) {
+        return "count:{" + TABLES.get(entityClass) + "}";
+    }
+
+    private static String versionKey(Class<?> entityClass) {
+        return key(entityClass) + ":version";
+    }
+}
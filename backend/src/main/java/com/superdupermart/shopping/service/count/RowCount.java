@@ -0,0 +1,33 @@
+package com.superdupermart.shopping.service.count;
+
+/**
+ * Result of {@link EntityCountService#count}. {@code exact} says how the number was actually
+ * produced, which is not always the mode that was asked for: an estimate falls back to an
+ * exact count when the database has no statistics.
+ */
+public class RowCount {
+
+    private final long value;
+    private final boolean exact;
+
+    private RowCount(long value, boolean exact) {
+        this.value = value;
+        this.exact = exact;
+    }
+
+    public static RowCount exact(long value) {
+        return new RowCount(value, true);
+    }
+
+    public static RowCount estimated(long value) {
+        return new RowCount(value, false);
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public boolean isExact() {
+        return exact;
+    }
+}
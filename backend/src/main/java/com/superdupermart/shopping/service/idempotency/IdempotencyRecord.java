@@ -0,0 +1,22 @@
+package com.superdupermart.shopping.service.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What Redis holds for one idempotency key: the attempt in progress, or the finished response.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    // IN_PROGRESS or DONE
+    private String status;
+    // Hash of the request body, so a key cannot be reused for a different request
+    private String fingerprint;
+    // Identifies the attempt holding an IN_PROGRESS record
+    private String owner;
+    // Serialized response of a DONE record
+    private String response;
+}
@@ -0,0 +1,229 @@
+package com.superdupermart.shopping.service.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.superdupermart.shopping.exception.IdempotencyConflictException;
+import com.superdupermart.shopping.exception.InvalidIdempotencyKeyException;
+import com.superdupermart.shopping.service.lock.RedisLocks;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per client-supplied idempotency key.
+ * <p>
+ * The first attempt claims the key in Redis with SET NX and a lease. Once the action succeeds,
+ * the response replaces the claim and is kept for the TTL, and every retry with that key gets it
+ * back from a single GET. A duplicate that arrives while the first attempt is still running polls
+ * until the response is there. It never runs the action itself unless the first attempt failed
+ * (a failure frees the key so the client can retry) or its lease expired. The lease is renewed
+ * while the action runs, so it only expires when the node running it is gone. An action must
+ * therefore only throw when it left nothing behind: once its effect is committed it has to
+ * return normally, or a retry would run it a second time.
+ * <p>
+ * When Redis cannot be reached the action runs unprotected rather than failing the request.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long MAX_POLL_MS = 200;
+    private static final AtomicInteger HEARTBEAT_THREADS = new AtomicInteger();
+
+    static final String IN_PROGRESS = "IN_PROGRESS";
+    static final String DONE = "DONE";
+
+    // Stores the response only while the key still holds our claim
+    static final RedisScript<Long> COMPLETE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then "
+                    + "redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3]) return 1 end "
+                    + "return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    // Replaced in tests so waiting and lease renewal take no real time
+    LongSupplier clock = System::currentTimeMillis;
+    Sleeper sleeper = Thread::sleep;
+    ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Idempotency-heartbeat-" + HEARTBEAT_THREADS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${app.idempotency.ttl-ms:86400000}")
+    private long ttlMs;
+
+    @Value("${app.idempotency.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${app.idempotency.wait-ms:15000}")
+    private long waitMs;
+
+    public IdempotencyService(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param scope   namespace the key is unique in, e.g. the endpoint and user
+     * @param request request body; the same key with a different body is rejected
+     * @throws InvalidIdempotencyKeyException if the key is malformed or was used for another request
+     * @throws IdempotencyConflictException   if the first attempt is still running after wait-ms
+     */
+    public <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(
+                    "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String redisKey = KEY_PREFIX + scope + ":" + key;
+        String fingerprint = fingerprint(request);
+        IdempotencyRecord claim = new IdempotencyRecord(IN_PROGRESS, fingerprint, UUID.randomUUID().toString(),
+                null);
+        String claimJson = write(claim);
+        ValueOperations<String, String> ops = redisTemplate.opsForValue();
+
+        long deadline = clock.getAsLong() + waitMs;
+        long pause = 10;
+        while (true) {
+            String existing;
+            try {
+                if (Boolean.TRUE.equals(ops.setIfAbsent(redisKey, claimJson, Duration.ofMillis(leaseMs)))) {
+                    return runClaimed(redisKey, claimJson, fingerprint, action);
+                }
+                existing = ops.get(redisKey);
+            } catch (DataAccessException e) {
+                log.warn("Idempotency store unavailable, running request without it: {}", e.getMessage());
+                return action.get();
+            }
+            if (existing == null) {
+                // Freed between the two calls; try to claim it again
+                continue;
+            }
+
+            IdempotencyRecord record = read(existing, IdempotencyRecord.class);
+            if (!fingerprint.equals(record.getFingerprint())) {
+                throw new InvalidIdempotencyKeyException("Idempotency-Key was already used for a different request");
+            }
+            if (DONE.equals(record.getStatus())) {
+                return read(record.getResponse(), responseType);
+            }
+            if (clock.getAsLong() >= deadline) {
+                throw new IdempotencyConflictException("A request with this Idempotency-Key is still in progress");
+            }
+            try {
+                sleeper.sleep(pause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyConflictException("A request with this Idempotency-Key is still in progress");
+            }
+            pause = Math.min(pause * 2, MAX_POLL_MS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+    }
+
+    private <T> T runClaimed(String redisKey, String claimJson, String fingerprint, Supplier<T> action) {
+        // A slow action (e.g. a payment that stays pending) must not let a retry claim the key
+        ScheduledFuture<?> lease = heartbeat.scheduleAtFixedRate(() -> extend(redisKey, claimJson),
+                leaseMs / 3, leaseMs / 3, TimeUnit.MILLISECONDS);
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            lease.cancel(false);
+            release(redisKey, claimJson);
+            throw e;
+        }
+        lease.cancel(false);
+        try {
+            Long stored = redisTemplate.execute(COMPLETE, List.of(redisKey), claimJson,
+                    write(new IdempotencyRecord(DONE, fingerprint, null, write(result))), String.valueOf(ttlMs));
+            if (stored == null || stored != 1) {
+                log.warn("Idempotency claim on {} was lost before the response was stored", redisKey);
+            }
+        } catch (DataAccessException e) {
+            // The claim expires with its lease; a retry after that runs again
+            log.warn("Failed to store idempotent response for {}: {}", redisKey, e.getMessage());
+        }
+        return result;
+    }
+
+    private void extend(String redisKey, String claimJson) {
+        try {
+            if (!RedisLocks.extend(redisTemplate, redisKey, claimJson, Duration.ofMillis(leaseMs))) {
+                log.warn("Idempotency claim on {} was lost while the request was running", redisKey);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to extend idempotency claim on {}: {}", redisKey, e.getMessage());
+        }
+    }
+
+    // Only our own claim: after an expired lease the key may belong to another attempt
+    private void release(String redisKey, String claimJson) {
+        try {
+            RedisLocks.release(redisTemplate, redisKey, claimJson);
+        } catch (DataAccessException e) {
+            log.warn("Failed to release idempotency key {}: {}", redisKey, e.getMessage());
+        }
+    }
+
+    String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(write(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotency record", e);
+        }
+    }
+
+    private <T> T read(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read idempotency record", e);
+        }
+    }
+
+    interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+}
@@ -0,0 +1,164 @@
+package com.superdupermart.shopping.service.image;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Stores images on local disk under {@code <root>/ab/cd/<sha256>}, with renditions
+ * alongside as {@code <sha256>.<variant>}. Uploads are written to a temp file while
+ * being hashed, then moved into place atomically, so a reader never sees a
+ * partially written image.
+ */
+@Component
+public class FileSystemImageStore implements ImageStore {
+
+    private static final Logger log = LoggerFactory.getLogger(FileSystemImageStore.class);
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern VARIANT = Pattern.compile("[a-z0-9]+");
+
+    private final Path root;
+    private final Path tmp;
+
+    public FileSystemImageStore(@Value("${app.images.root:data/images}") String root) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tmp = this.root.resolve("tmp");
+        Files.createDirectories(tmp);
+    }
+
+    @Override
+    public StoredImage store(InputStream content) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = createTempFile();
+        try {
+            try (DigestInputStream in = new DigestInputStream(content, digest);
+                    OutputStream out = Files.newOutputStream(temp)) {
+                in.transferTo(out);
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = pathFor(hash);
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // Same content already stored, the temp file is dropped below
+            }
+            return toStoredImage(hash, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Optional<StoredImage> find(String hash) {
+        if (!isValidHash(hash)) {
+            return Optional.empty();
+        }
+        return read(hash, pathFor(hash));
+    }
+
+    @Override
+    public StoredImage storeVariant(String hash, String variant, InputStream content) throws IOException {
+        if (!isValidHash(hash) || !VARIANT.matcher(variant).matches()) {
+            throw new IllegalArgumentException("Invalid image variant " + hash + "." + variant);
+        }
+        Path target = variantPathFor(hash, variant);
+        Path temp = createTempFile();
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                content.transferTo(out);
+            }
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return toStoredImage(hash, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public Optional<StoredImage> findVariant(String hash, String variant) {
+        if (!isValidHash(hash) || !VARIANT.matcher(variant).matches()) {
+            return Optional.empty();
+        }
+        return read(hash, variantPathFor(hash, variant));
+    }
+
+    @Override
+    public void delete(String hash) {
+        if (!isValidHash(hash)) {
+            return;
+        }
+        Path original = pathFor(hash);
+        try (DirectoryStream<Path> variants = Files.newDirectoryStream(original.getParent(), hash + ".*")) {
+            for (Path variant : variants) {
+                Files.deleteIfExists(variant);
+            }
+            Files.deleteIfExists(original);
+        } catch (NoSuchFileException e) {
+            // Already gone
+        } catch (IOException e) {
+            log.warn("Failed to delete image {}: {}", hash, e.getMessage());
+        }
+    }
+
+    Path pathFor(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    // Variants sit next to the original: <hash>.<variant>
+    Path variantPathFor(String hash, String variant) {
+        return pathFor(hash).resolveSibling(hash + "." + variant);
+    }
+
+    private Optional<StoredImage> read(String hash, Path path) {
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(toStoredImage(hash, path));
+        } catch (IOException e) {
+            log.warn("Failed to read image {}: {}", path.getFileName(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Path createTempFile() throws IOException {
+        return Files.createTempFile(tmp, "upload-", ".part");
+    }
+
+    private StoredImage toStoredImage(String hash, Path path) throws IOException {
+        return new StoredImage(hash, path, Files.size(path), Files.getLastModifiedTime(path).toMillis());
+    }
+
+    private static boolean isValidHash(String hash) {
+        return hash != null && HASH.matcher(hash).matches();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
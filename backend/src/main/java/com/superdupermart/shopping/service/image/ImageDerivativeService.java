@@ -0,0 +1,191 @@
+package com.superdupermart.shopping.service.image;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Generates downscaled JPEG renditions of stored images with plain javax.imageio.
+ * New uploads are rendered in the background; images uploaded before this existed
+ * are rendered after their first request, which gets the original meanwhile. All
+ * rendering runs on the bounded imageExecutor and concurrent requests for the same
+ * rendition share one job. A rendition that could not be produced is not retried
+ * for failure-ttl-ms, so an undecodable image doesn't take an executor slot per request.
+ */
+@Service
+public class ImageDerivativeService {
+
+    public static final String CONTENT_TYPE = "image/jpeg";
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private final ImageStore imageStore;
+    private final Executor imageExecutor;
+    private final Map<String, CompletableFuture<Optional<StoredImage>>> inFlight = new ConcurrentHashMap<>();
+    // Rendition key -> time until which it is not attempted again
+    private final Map<String, Long> failedUntil = new ConcurrentHashMap<>();
+
+    @Value("${app.images.derivative-failure-ttl-ms:600000}")
+    private long failureTtlMs;
+
+    public ImageDerivativeService(ImageStore imageStore, @Qualifier("imageExecutor") Executor imageExecutor) {
+        this.imageStore = imageStore;
+        this.imageExecutor = imageExecutor;
+    }
+
+    public void generateAllAsync(String hash) {
+        for (ImageSize size : ImageSize.values()) {
+            if (!size.isDerivative()) {
+                continue;
+            }
+            try {
+                submit(hash, size);
+            } catch (RejectedExecutionException e) {
+                // Will be generated lazily on first request instead
+                log.debug("Image executor full, deferring {} of {}", size, hash);
+            }
+        }
+    }
+
+    /**
+     * Never waits for rendering: a missing rendition is queued and the caller serves the original
+     * until it exists.
+     *
+     * @return the rendition, or empty if it does not exist yet or cannot be produced
+     */
+    public Optional<StoredImage> getOrCreate(String hash, ImageSize size) {
+        Optional<StoredImage> existing = imageStore.findVariant(hash, size.getVariant());
+        if (existing.isPresent()) {
+            return existing;
+        }
+        String key = key(hash, size);
+        Long until = failedUntil.get(key);
+        if (until != null) {
+            if (System.currentTimeMillis() < until) {
+                return Optional.empty();
+            }
+            failedUntil.remove(key, until);
+        }
+        try {
+            submit(hash, size);
+        } catch (RejectedExecutionException e) {
+            // Not a failure of the image; the next request queues it again
+            log.debug("Image executor full, deferring {} of {}", size, hash);
+        }
+        return Optional.empty();
+    }
+
+    private CompletableFuture<Optional<StoredImage>> submit(String hash, ImageSize size) {
+        String key = key(hash, size);
+        CompletableFuture<Optional<StoredImage>> job = inFlight.computeIfAbsent(key,
+                k -> CompletableFuture.supplyAsync(() -> render(hash, size), imageExecutor));
+        job.whenComplete((result, error) -> {
+            inFlight.remove(key, job);
+            if (error != null || result.isEmpty()) {
+                if (error != null) {
+                    log.warn("Could not render {} of image {}: {}", size, hash, error.toString());
+                }
+                failedUntil.put(key, System.currentTimeMillis() + failureTtlMs);
+            }
+        });
+        return job;
+    }
+
+    private static String key(String hash, ImageSize size) {
+        return hash + "." + size.getVariant();
+    }
+
+    private Optional<StoredImage> render(String hash, ImageSize size) {
+        Optional<StoredImage> existing = imageStore.findVariant(hash, size.getVariant());
+        if (existing.isPresent()) {
+            return existing;
+        }
+        Optional<StoredImage> original = imageStore.find(hash);
+        if (original.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            BufferedImage source = ImageIO.read(original.get().getPath().toFile());
+            if (source == null) {
+                // Not a format ImageIO can decode (e.g. WebP, SVG)
+                return Optional.empty();
+            }
+            BufferedImage scaled = scale(source, size.getMaxDimension());
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(scaled, "jpg", out);
+            return Optional.of(imageStore.storeVariant(hash, size.getVariant(),
+                    new ByteArrayInputStream(out.toByteArray())));
+        } catch (IOException e) {
+            log.warn("Failed to render {} of image {}: {}", size, hash, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Downscales in halving steps so large sources don't alias with a single bilinear pass,
+     * and flattens transparency onto white since the output is JPEG.
+     */
+    static BufferedImage scale(BufferedImage source, int maxDimension) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double ratio = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        BufferedImage current = flatten(source);
+        while (width / 2 >= targetWidth && height / 2 >= targetHeight) {
+            width /= 2;
+            height /= 2;
+            current = resize(current, width, height);
+        }
+        if (width != targetWidth || height != targetHeight) {
+            current = resize(current, targetWidth, targetHeight);
+        }
+        return current;
+    }
+
+    private static BufferedImage flatten(BufferedImage source) {
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            g.drawImage(source, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+}
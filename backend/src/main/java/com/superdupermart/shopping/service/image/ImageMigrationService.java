@@ -0,0 +1,114 @@
+package com.superdupermart.shopping.service.image;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Moves legacy image blobs from the {@code product.image} LONGBLOB column into the
+ * {@link ImageStore}. Rows are handled one at a time so only a single image is held
+ * in memory, and each row is committed on its own, so the job can be stopped and
+ * re-run safely. A row that fails is logged and skipped, and is picked up again by the
+ * next run. Once every row is migrated the column can be dropped by hand.
+ */
+@Service
+public class ImageMigrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageMigrationService.class);
+
+    private static final int BATCH_SIZE = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageStore imageStore;
+
+    @Value("${app.images.migrate-on-startup:false}")
+    private boolean migrateOnStartup;
+
+    public ImageMigrationService(JdbcTemplate jdbcTemplate, ImageStore imageStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.imageStore = imageStore;
+    }
+
+    // Off the startup thread: an exception from a ready listener would stop the application
+    @Async("taskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (migrateOnStartup) {
+            migrateLegacyBlobs();
+        }
+    }
+
+    /**
+     * @return number of product images moved out of the database
+     */
+    public int migrateLegacyBlobs() {
+        int migrated = 0;
+        int failed = 0;
+        int lastId = 0;
+        List<Integer> ids;
+        do {
+            try {
+                // Keyset paging so rows that failed are not selected again in the same run
+                ids = jdbcTemplate.queryForList("SELECT id FROM product WHERE id > ? AND image IS NOT NULL "
+                        + "AND image_hash IS NULL ORDER BY id LIMIT " + BATCH_SIZE, Integer.class, lastId);
+            } catch (DataAccessException e) {
+                if (isMissingColumn(e)) {
+                    // Fresh schemas never had the blob column, nothing to migrate
+                    log.info("Skipping image migration: {}", e.getMostSpecificCause().getMessage());
+                } else {
+                    log.warn("Image migration stopped: {}", e.getMostSpecificCause().getMessage());
+                }
+                break;
+            }
+            for (Integer id : ids) {
+                lastId = id;
+                try {
+                    migrateRow(id);
+                    migrated++;
+                } catch (RuntimeException e) {
+                    failed++;
+                    log.warn("Failed to migrate image of product {}, left for the next run: {}", id, e.getMessage());
+                }
+            }
+        } while (ids.size() == BATCH_SIZE);
+        log.info("Migrated {} product images out of MySQL, {} failed", migrated, failed);
+        return migrated;
+    }
+
+    private void migrateRow(Integer id) {
+        String hash = jdbcTemplate.query("SELECT image FROM product WHERE id = ?", rs -> {
+            if (!rs.next()) {
+                return null;
+            }
+            try (InputStream in = rs.getBinaryStream(1)) {
+                return in == null ? null : imageStore.store(in).getHash();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to migrate image of product " + id, e);
+            }
+        }, id);
+
+        // Clearing the blob releases the space on the next OPTIMIZE TABLE
+        jdbcTemplate.update("UPDATE product SET image_hash = ?, image = NULL WHERE id = ?", hash, id);
+    }
+
+    // Unknown column: 42S22 on MySQL, 42122 on H2
+    private static boolean isMissingColumn(DataAccessException e) {
+        if (!(e instanceof BadSqlGrammarException grammar)) {
+            return false;
+        }
+        String state = grammar.getSQLException().getSQLState();
+        return "42S22".equals(state) || "42122".equals(state);
+    }
+}
@@ -0,0 +1,41 @@
+package com.superdupermart.shopping.service.image;
+
+/**
+ * Renditions served by /products/{id}/image?size=. Derivatives are JPEGs whose
+ * longest side is at most {@code maxDimension}; ORIGINAL is the uploaded file.
+ */
+public enum ImageSize {
+    ORIGINAL(0),
+    THUMB(200),
+    MEDIUM(640);
+
+    private final int maxDimension;
+
+    ImageSize(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public String getVariant() {
+        return name().toLowerCase();
+    }
+
+    public boolean isDerivative() {
+        return this != ORIGINAL;
+    }
+
+    /**
+     * @return the matching size, or null if the value is not a known size
+     */
+    public static ImageSize fromParam(String value) {
+        for (ImageSize size : values()) {
+            if (size.getVariant().equalsIgnoreCase(value)) {
+                return size;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.superdupermart.shopping.service.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Content-addressed storage for binary images. Images are identified by the
+ * SHA-256 hash of their bytes, so identical uploads are stored once and a hash
+ * never changes meaning (safe to use as a strong ETag).
+ */
+public interface ImageStore {
+
+    /**
+     * Streams the content into the store without buffering it in memory.
+     *
+     * @return the stored image, identified by its content hash
+     */
+    StoredImage store(InputStream content) throws IOException;
+
+    Optional<StoredImage> find(String hash);
+
+    /**
+     * Stores a rendition (e.g. a thumbnail) next to the original identified by {@code hash}.
+     * The returned image carries the original's hash.
+     */
+    StoredImage storeVariant(String hash, String variant, InputStream content) throws IOException;
+
+    Optional<StoredImage> findVariant(String hash, String variant);
+
+    /**
+     * Deletes the original and all of its variants.
+     */
+    void delete(String hash);
+}
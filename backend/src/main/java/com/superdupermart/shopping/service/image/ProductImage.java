@@ -0,0 +1,17 @@
+package com.superdupermart.shopping.service.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ProductImage {
+    private final StoredImage file;
+    private final String contentType;
+    private final ImageSize size;
+
+    // Distinct per rendition, stable for as long as the content is
+    public String getEtag() {
+        return size.isDerivative() ? file.getHash() + "-" + size.getVariant() : file.getHash();
+    }
+}
@@ -0,0 +1,15 @@
+package com.superdupermart.shopping.service.image;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+@Getter
+@AllArgsConstructor
+public class StoredImage {
+    private final String hash;
+    private final Path path;
+    private final long size;
+    private final long lastModified;
+}
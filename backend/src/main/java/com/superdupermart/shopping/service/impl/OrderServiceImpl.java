@@ -1,5 +1,6 @@
 package com.superdupermart.shopping.service.impl;
 
+import com.superdupermart.shopping.config.jdbc.StatementCounter;
 import com.superdupermart.shopping.dao.AddressDao;
 import com.superdupermart.shopping.dao.OrderDao;
 import com.superdupermart.shopping.dao.PaymentMethodDao;
@@ -9,6 +10,7 @@ import com.superdupermart.shopping.dto.OrderItemRequest;
 import com.superdupermart.shopping.dto.OrderItemResponse;
 import com.superdupermart.shopping.dto.OrderRequest;
 import com.superdupermart.shopping.dto.OrderResponse;
+import com.superdupermart.shopping.dto.OrderSummaryResponse;
 import com.superdupermart.shopping.dto.PageResponse; // Import
 import com.superdupermart.shopping.entity.Address;
 import com.superdupermart.shopping.entity.Order;
@@ -16,14 +18,36 @@ import com.superdupermart.shopping.entity.OrderItem;
 import com.superdupermart.shopping.entity.PaymentMethod;
 import com.superdupermart.shopping.entity.Product;
 import com.superdupermart.shopping.entity.User;
+import com.superdupermart.shopping.exception.InvalidCursorException;
 import com.superdupermart.shopping.exception.NotEnoughInventoryException;
 import com.superdupermart.shopping.service.OrderService;
+import com.superdupermart.shopping.service.catalog.ProductChangedEvent;
+import com.superdupermart.shopping.service.count.CountMode;
+import com.superdupermart.shopping.service.count.EntityCountService;
+import com.superdupermart.shopping.service.count.RowCount;
+import com.superdupermart.shopping.service.inventory.FlashSaleReservation;
+import com.superdupermart.shopping.service.inventory.FlashSaleService;
+import com.superdupermart.shopping.service.pagination.KeysetCursor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import org.springframework.kafka.core.KafkaTemplate;
@@ -34,6 +58,7 @@ import com.superdupermart.shopping.service.PaymentService;
 public class OrderServiceImpl implements OrderService {
 
         private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(OrderServiceImpl.class);
+        private static final int PENDING_SWEEP_BATCH = 100;
 
         private final OrderDao orderDao;
         private final ProductDao productDao;
@@ -43,11 +68,26 @@ public class OrderServiceImpl implements OrderService {
         private final PaymentService paymentService;
         private final AddressDao addressDao;
         private final PaymentMethodDao paymentMethodDao;
+        private final EntityCountService entityCountService;
+        private final ApplicationEventPublisher eventPublisher;
+        private final FlashSaleService flashSaleService;
+        private final TransactionTemplate tx;
+        private final DistributionSummary checkoutStatements;
+
+        @Value("${app.orders.pending-timeout-ms:120000}")
+        private long pendingTimeoutMs;
+
+        // Without the counting data source every checkout would record 0
+        @Value("${app.db.count-statements:false}")
+        private boolean countStatements;
 
         @Autowired
         public OrderServiceImpl(OrderDao orderDao, ProductDao productDao, UserDao userDao,
                         KafkaTemplate<String, String> kafkaTemplate, EmailService emailService,
-                        PaymentService paymentService, AddressDao addressDao, PaymentMethodDao paymentMethodDao) {
+                        PaymentService paymentService, AddressDao addressDao, PaymentMethodDao paymentMethodDao,
+                        EntityCountService entityCountService, ApplicationEventPublisher eventPublisher,
+                        FlashSaleService flashSaleService, PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry) {
                 this.orderDao = orderDao;
                 this.productDao = productDao;
                 this.userDao = userDao;
@@ -56,18 +96,95 @@ public class OrderServiceImpl implements OrderService {
                 this.paymentService = paymentService;
                 this.addressDao = addressDao;
                 this.paymentMethodDao = paymentMethodDao;
+                this.entityCountService = entityCountService;
+                this.eventPublisher = eventPublisher;
+                this.flashSaleService = flashSaleService;
+                this.tx = new TransactionTemplate(transactionManager);
+                this.checkoutStatements = DistributionSummary.builder("checkout.db.statements")
+                                .description("Database round trips per checkout, both saga transactions")
+                                .register(meterRegistry);
         }
 
+        /**
+         * Checkout as a saga of two short transactions around the payment call, so no connection
+         * or row lock is held while the payment provider answers. The first takes the stock and
+         * stores the order as Pending; the second moves it to Processing. A failed payment or
+         * confirmation is compensated (order Failed, stock given back), and orders a crashed node
+         * left Pending are compensated by {@link #failStalePendingOrders()}.
+         * <p>
+         * Each step costs a fixed number of round trips whatever the cart size (one query loads all
+         * products, stock and items are written as batches); the total per checkout is recorded as
+         * {@code checkout.db.statements} when {@code app.db.count-statements} is on.
+         */
         @Override
-        @Transactional
         public OrderResponse placeOrder(Integer userId, OrderRequest request) {
-                User user = userDao.findById(userId)
-                                .orElseThrow(() -> new RuntimeException("User not found"));
+                if (!countStatements) {
+                        return checkout(userId, request);
+                }
+                StatementCounter.start();
+                try {
+                        return checkout(userId, request);
+                } finally {
+                        int statements = StatementCounter.stop();
+                        checkoutStatements.record(statements);
+                        log.debug("Checkout for user {} took {} database statements", userId, statements);
+                }
+        }
+
+        private OrderResponse checkout(Integer userId, OrderRequest request) {
+                Order order = tx.execute(status -> reserve(userId, request));
+
+                try {
+                        paymentService.authorizeTransaction(totalAmount(order));
+                        tx.executeWithoutResult(status -> confirm(order, userId));
+                } catch (RuntimeException e) {
+                        try {
+                                tx.executeWithoutResult(status -> compensate(order));
+                        } catch (RuntimeException compensationError) {
+                                // Still Pending, so the sweeper retries
+                                log.warn("Failed to compensate order {}: {}", order.getId(),
+                                                compensationError.getMessage());
+                        }
+                        throw e;
+                }
+                order.setOrderStatus("Processing");
+                notifyPlaced(order);
+                return mapToResponse(order);
+        }
+
+        // The order is committed by now; a failed notification must not fail the request, or a retry
+        // would place the order again
+        private void notifyPlaced(Order order) {
+                User user = order.getUser();
+
+                // Publish event to Kafka
+                String message = "Order placed successfully. Order ID: " + order.getId() + ", User: "
+                                + user.getUsername();
+                try {
+                        kafkaTemplate.send("orders", message);
+                        log.info("Published event to Kafka: {}", message);
+                } catch (RuntimeException e) {
+                        log.error("Failed to publish order {} to Kafka: {}", order.getId(), e.getMessage());
+                }
+
+                // Send async confirmation email
+                try {
+                        emailService.sendOrderConfirmation(user.getEmail(), order.getId());
+                } catch (RuntimeException e) {
+                        log.error("Failed to send confirmation email for order {}: {}", order.getId(),
+                                        e.getMessage());
+                }
+        }
+
+        // First saga step: validates the request, takes the stock and stores the order as Pending
+        private Order reserve(Integer userId, OrderRequest request) {
+                // Only needed as the foreign key here; confirm() loads it
+                User user = userDao.getReference(userId);
 
                 Order order = Order.builder()
                                 .user(user)
                                 .datePlaced(LocalDateTime.now())
-                                .orderStatus("Processing")
+                                .orderStatus("Pending")
                                 .items(new ArrayList<>())
                                 .isPickup(request.getIsPickup() != null ? request.getIsPickup() : false)
                                 .build();
@@ -103,20 +220,28 @@ public class OrderServiceImpl implements OrderService {
                         // logic for standard checkout
                 }
 
-                double totalAmount = 0.0;
-
+                // Units per product, ascending by id so concurrent checkouts lock rows in the same order
+                Map<Integer, Integer> requested = new TreeMap<>();
                 for (OrderItemRequest itemRequest : request.getOrder()) {
-                        Product product = productDao.findById(itemRequest.getProductId())
-                                        .orElseThrow(() -> new RuntimeException(
-                                                        "Product not found: " + itemRequest.getProductId()));
-
-                        if (product.getQuantity() < itemRequest.getQuantity()) {
-                                throw new NotEnoughInventoryException(
-                                                "Not enough inventory for product: " + product.getName());
+                        if (itemRequest.getProductId() == null || itemRequest.getQuantity() == null
+                                        || itemRequest.getQuantity() <= 0) {
+                                throw new RuntimeException(
+                                                "Invalid quantity for product: " + itemRequest.getProductId());
                         }
+                        requested.merge(itemRequest.getProductId(), itemRequest.getQuantity(), Integer::sum);
+                }
 
-                        product.setQuantity(product.getQuantity() - itemRequest.getQuantity());
-                        productDao.update(product);
+                // All products in one query, however many lines the cart has
+                Map<Integer, Product> products = new HashMap<>();
+                for (Product product : productDao.findAllByIds(requested.keySet())) {
+                        products.put(product.getId(), product);
+                }
+
+                for (OrderItemRequest itemRequest : request.getOrder()) {
+                        Product product = products.get(itemRequest.getProductId());
+                        if (product == null) {
+                                throw new RuntimeException("Product not found: " + itemRequest.getProductId());
+                        }
 
                         OrderItem orderItem = OrderItem.builder()
                                         .order(order)
@@ -126,26 +251,128 @@ public class OrderServiceImpl implements OrderService {
                                         .build();
 
                         order.getItems().add(orderItem);
-                        totalAmount += product.getRetailPrice()
-                                        .multiply(java.math.BigDecimal.valueOf(itemRequest.getQuantity()))
-                                        .doubleValue();
                 }
 
-                // Simulate payment authorization
-                paymentService.authorizeTransaction(totalAmount);
+                // Flash-sale products are reserved in Redis instead of queuing on their row locks
+                Map<Integer, Integer> flashItems = new TreeMap<>();
+                for (Integer productId : flashSaleService.flashProductIds(requested.keySet())) {
+                        flashItems.put(productId, requested.remove(productId));
+                }
+                if (!flashItems.isEmpty()) {
+                        FlashSaleReservation reservation = flashSaleService.reserve(flashItems);
+                        if (!reservation.isReserved()) {
+                                throw new NotEnoughInventoryException("Not enough inventory for product: "
+                                                + products.get(reservation.getInsufficientProductId()).getName());
+                        }
+                        order.setFlashReservationId(reservation.getId());
+                        String reservationId = reservation.getId();
+                        unlessCommitted("release flash sale reservation " + reservationId,
+                                        () -> flashSaleService.release(reservationId));
+                        for (OrderItem item : order.getItems()) {
+                                item.setFlashSale(flashItems.containsKey(item.getProduct().getId()));
+                        }
+                }
 
-                orderDao.save(order);
+                // The stock check and the decrement are one statement per product, so two checkouts can
+                // never both take the last unit; anything already decremented is rolled back with the order
+                List<Integer> insufficient = productDao.decrementStock(requested);
+                if (!insufficient.isEmpty()) {
+                        throw new NotEnoughInventoryException("Not enough inventory for product: "
+                                        + products.get(insufficient.get(0)).getName());
+                }
+                // Products that sold out with this order, so storefront views can drop them
+                List<Integer> soldOut = productDao.getSoldOutIds(requested.keySet());
 
-                // Publish event to Kafka
-                String message = "Order placed successfully. Order ID: " + order.getId() + ", User: "
-                                + user.getUsername();
-                kafkaTemplate.send("orders", message);
-                log.info("Published event to Kafka: {}", message);
+                orderDao.insertWithItems(order);
+                if (!soldOut.isEmpty()) {
+                        eventPublisher.publishEvent(ProductChangedEvent.of(soldOut));
+                }
+                return order;
+        }
 
-                // Send async confirmation email
-                emailService.sendOrderConfirmation(user.getEmail(), order.getId());
+        // Second saga step. Fails if the sweeper has already given up on the order, or if the flash
+        // sale reservation expired and its units went back on sale
+        private void confirm(Order order, Integer userId) {
+                if (!orderDao.updateStatus(order.getId(), "Pending", "Processing")) {
+                        throw new RuntimeException("Checkout timed out, please try again");
+                }
+                String reservationId = order.getFlashReservationId();
+                if (reservationId != null) {
+                        if (!flashSaleService.confirm(reservationId)) {
+                                throw new RuntimeException("Flash sale reservation expired, please try again");
+                        }
+                        // Otherwise a failed commit would leave the units sold in Redis, and reconcile
+                        // would take them off product.quantity for an order that does not exist
+                        unlessCommitted("undo flash sale confirmation " + reservationId,
+                                        () -> flashSaleService.unconfirm(reservationId));
+                }
+                order.setUser(userDao.findById(userId)
+                                .orElseThrow(() -> new RuntimeException("User not found")));
+        }
 
-                return mapToResponse(order);
+        // Undoes the first saga step once; false when the order had already left Pending
+        private boolean compensate(Order order) {
+                if (!orderDao.updateStatus(order.getId(), "Pending", "Failed")) {
+                        return false;
+                }
+                Map<Integer, Integer> quantities = new TreeMap<>();
+                for (OrderItem item : order.getItems()) {
+                        if (!Boolean.TRUE.equals(item.getFlashSale())) {
+                                quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+                        }
+                }
+                List<Integer> restocked = productDao.getSoldOutIds(quantities.keySet());
+                productDao.adjustStock(quantities);
+                if (!restocked.isEmpty()) {
+                        eventPublisher.publishEvent(ProductChangedEvent.of(restocked));
+                }
+                if (order.getFlashReservationId() != null) {
+                        // Idempotent; an already expired reservation is a no-op
+                        flashSaleService.release(order.getFlashReservationId());
+                }
+                return true;
+        }
+
+        /**
+         * Fails orders left Pending longer than the checkout timeout, e.g. by a node that died
+         * between the saga steps, and gives their stock back.
+         */
+        @Scheduled(fixedDelayString = "${app.orders.pending-sweep-ms:30000}")
+        public void failStalePendingOrders() {
+                LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(pendingTimeoutMs));
+                List<Integer> stale;
+                try {
+                        stale = orderDao.getOrderIdsByStatusBefore("Pending", before, PENDING_SWEEP_BATCH);
+                } catch (RuntimeException e) {
+                        log.warn("Failed to look up stale pending orders: {}", e.getMessage());
+                        return;
+                }
+                int failed = 0;
+                for (Integer orderId : stale) {
+                        try {
+                                Boolean compensated = tx.execute(status -> orderDao.findById(orderId)
+                                                .map(this::compensate)
+                                                .orElse(false));
+                                if (Boolean.TRUE.equals(compensated)) {
+                                        failed++;
+                                }
+                        } catch (RuntimeException e) {
+                                log.warn("Failed to compensate order {}: {}", orderId, e.getMessage());
+                        }
+                }
+                if (failed > 0) {
+                        log.warn("Failed {} orders left pending for over {} ms", failed, pendingTimeoutMs);
+                }
+        }
+
+        private static double totalAmount(Order order) {
+                double total = 0.0;
+                for (OrderItem item : order.getItems()) {
+                        total += item.getPurchasedPrice()
+                                        .multiply(java.math.BigDecimal.valueOf(item.getQuantity()))
+                                        .doubleValue();
+                }
+                return total;
         }
 
         @Override
@@ -162,14 +389,21 @@ public class OrderServiceImpl implements OrderService {
                         throw new RuntimeException("Only 'Processing' orders can be canceled");
                 }
 
-                for (OrderItem item : order.getItems()) {
-                        Product product = item.getProduct();
-                        product.setQuantity(product.getQuantity() + item.getQuantity());
-                        productDao.update(product);
+                // Conditional, so two concurrent cancellations cannot both restock
+                if (!orderDao.updateStatus(orderId, "Processing", "Canceled")) {
+                        throw new RuntimeException("Only 'Processing' orders can be canceled");
                 }
 
-                order.setOrderStatus("Canceled");
-                orderDao.update(order);
+                Map<Integer, Integer> quantities = new TreeMap<>();
+                for (OrderItem item : order.getItems()) {
+                        quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+                }
+                List<Integer> restocked = productDao.getSoldOutIds(quantities.keySet());
+                // Flash-sale units come back through product.quantity and are sellable once the sale ends
+                productDao.adjustStock(quantities);
+                if (!restocked.isEmpty()) {
+                        eventPublisher.publishEvent(ProductChangedEvent.of(restocked));
+                }
         }
 
         @Override
@@ -182,38 +416,122 @@ public class OrderServiceImpl implements OrderService {
                         throw new RuntimeException("Only 'Processing' orders can be completed");
                 }
 
-                order.setOrderStatus("Completed");
-                orderDao.update(order);
+                if (!orderDao.updateStatus(orderId, "Processing", "Completed")) {
+                        throw new RuntimeException("Only 'Processing' orders can be completed");
+                }
         }
 
         @Override
-        public List<OrderResponse> getOrdersByUser(Integer userId) {
-                User user = userDao.findById(userId)
-                                .orElseThrow(() -> new RuntimeException("User not found"));
-                return orderDao.getOrdersByUser(user).stream()
-                                .map(this::mapToResponse)
-                                .collect(Collectors.toList());
+        public PageResponse<OrderSummaryResponse> getOrderHistory(Integer userId, String cursor, int size,
+                        String status) {
+                KeysetCursor.checkPageSize(size);
+                OrderCursor after = OrderCursor.decode(cursor);
+                // One extra row tells us whether there is a next page without counting
+                List<OrderSummaryResponse> rows = orderDao.getUserOrderSummaries(userId, status,
+                                after == null ? null : after.datePlaced, after == null ? null : after.id, size + 1);
+                boolean hasMore = rows.size() > size;
+                List<OrderSummaryResponse> orders = hasMore ? rows.subList(0, size) : rows;
+
+                String nextCursor = null;
+                if (hasMore) {
+                        OrderSummaryResponse last = orders.get(orders.size() - 1);
+                        nextCursor = KeysetCursor.encode(last.getDatePlaced(), last.getOrderId());
+                }
+
+                return PageResponse.<OrderSummaryResponse>builder()
+                                .content(new ArrayList<>(orders))
+                                .size(size)
+                                .nextCursor(nextCursor)
+                                .build();
         }
 
         @Override
-        public PageResponse<OrderResponse> getOrdersPage(int page, int size) {
-                List<Order> orders = orderDao.getPaginatedOrders(page, size);
-                long totalElements = orderDao.countOrders();
-                int totalPages = (int) Math.ceil((double) totalElements / size);
+        public List<OrderItemResponse> getOrderItems(Integer orderId, Integer userId, boolean isAdmin) {
+                Order order = orderDao.findById(orderId)
+                                .orElseThrow(() -> new RuntimeException("Order not found"));
 
-                List<OrderResponse> content = orders.stream()
-                                .map(this::mapToResponse)
-                                .collect(Collectors.toList());
+                if (!isAdmin && !order.getUser().getId().equals(userId)) {
+                        throw new RuntimeException("Unauthorized to view this order");
+                }
+
+                return orderDao.getItemSummaries(List.of(orderId)).getOrDefault(orderId, new ArrayList<>());
+        }
+
+        @Override
+        public PageResponse<OrderResponse> getOrdersPage(int page, int size, CountMode countMode) {
+                List<OrderResponse> content = loadForListing(orderDao.getPaginatedOrderIds(page, size));
+                RowCount count = entityCountService.count(Order.class, countMode);
+                int totalPages = (int) Math.ceil((double) count.getValue() / size);
 
                 return PageResponse.<OrderResponse>builder()
                                 .content(content)
-                                .totalElements(totalElements)
+                                .totalElements(count.getValue())
                                 .totalPages(totalPages)
                                 .size(size)
                                 .number(page)
+                                .totalExact(count.isExact())
+                                .build();
+        }
+
+        @Override
+        public PageResponse<OrderResponse> getOrdersByCursor(String cursor, int size) {
+                KeysetCursor.checkPageSize(size);
+                OrderCursor after = OrderCursor.decode(cursor);
+                // One extra row tells us whether there is a next page without counting
+                List<Integer> ids = orderDao.getOrderIdsAfter(after == null ? null : after.datePlaced,
+                                after == null ? null : after.id, size + 1);
+                boolean hasMore = ids.size() > size;
+                List<OrderResponse> orders = loadForListing(hasMore ? ids.subList(0, size) : ids);
+
+                String nextCursor = null;
+                if (hasMore && !orders.isEmpty()) {
+                        OrderResponse last = orders.get(orders.size() - 1);
+                        nextCursor = KeysetCursor.encode(last.getDatePlaced(), last.getOrderId());
+                }
+
+                return PageResponse.<OrderResponse>builder()
+                                .content(orders)
+                                .size(size)
+                                .nextCursor(nextCursor)
                                 .build();
         }
 
+        // Undoes a Redis step when the surrounding transaction does not commit. Without a
+        // transaction (unit tests) nothing is registered.
+        private void unlessCommitted(String description, Runnable undo) {
+                if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                        return;
+                }
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                                if (status == STATUS_COMMITTED) {
+                                        return;
+                                }
+                                try {
+                                        undo.run();
+                                } catch (RuntimeException e) {
+                                        log.warn("Failed to {}: {}", description, e.getMessage());
+                                }
+                        }
+                });
+        }
+
+        /**
+         * Second phase of a listing page: the orders with their user, address and payment method
+         * in one query and the item summaries in another, however many orders the page holds.
+         */
+        private List<OrderResponse> loadForListing(List<Integer> orderIds) {
+                if (orderIds.isEmpty()) {
+                        return new ArrayList<>();
+                }
+                Map<Integer, List<OrderItemResponse>> items = orderDao.getItemSummaries(orderIds);
+                return orderDao.findAllForListing(orderIds).stream()
+                                .map(order -> mapToResponse(order,
+                                                items.getOrDefault(order.getId(), new ArrayList<>())))
+                                .collect(Collectors.toList());
+        }
+
         private OrderResponse mapToResponse(Order order) {
                 List<OrderItemResponse> itemResponses = order.getItems().stream()
                                 .map(item -> OrderItemResponse.builder()
@@ -223,7 +541,10 @@ public class OrderServiceImpl implements OrderService {
                                                 .purchasedPrice(item.getPurchasedPrice())
                                                 .build())
                                 .collect(Collectors.toList());
+                return mapToResponse(order, itemResponses);
+        }
 
+        private OrderResponse mapToResponse(Order order, List<OrderItemResponse> itemResponses) {
                 OrderResponse.AddressInfo addressInfo = null;
                 if (Boolean.TRUE.equals(order.getIsPickup()) == false && order.getShippingAddress() != null) {
                         Address addr = order.getShippingAddress();
@@ -259,4 +580,28 @@ public class OrderServiceImpl implements OrderService {
                                 .paymentMethod(paymentInfo)
                                 .build();
         }
+
+        // The (datePlaced, id) of the last order on a page
+        private static final class OrderCursor {
+                private final LocalDateTime datePlaced;
+                private final Integer id;
+
+                private OrderCursor(LocalDateTime datePlaced, Integer id) {
+                        this.datePlaced = datePlaced;
+                        this.id = id;
+                }
+
+                // Null for the first page
+                static OrderCursor decode(String cursor) {
+                        String[] keys = KeysetCursor.decode(cursor, 2);
+                        if (keys == null) {
+                                return null;
+                        }
+                        try {
+                                return new OrderCursor(LocalDateTime.parse(keys[0]), Integer.valueOf(keys[1]));
+                        } catch (DateTimeParseException | NumberFormatException e) {
+                                throw new InvalidCursorException("Malformed pagination cursor");
+                        }
+                }
+        }
 }
@@ -5,63 +5,161 @@ import com.superdupermart.shopping.document.ProductDocument;
 import com.superdupermart.shopping.dto.PageResponse;
 import com.superdupermart.shopping.dto.ProductRequest;
 import com.superdupermart.shopping.dto.ProductResponse;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import com.superdupermart.shopping.dto.ReindexStatusResponse;
 import com.superdupermart.shopping.entity.Product;
-import com.superdupermart.shopping.repository.ProductSearchRepository;
 import com.superdupermart.shopping.service.ProductService;
+import com.superdupermart.shopping.service.catalog.CatalogFacets;
+import com.superdupermart.shopping.service.catalog.CatalogSnapshot;
+import com.superdupermart.shopping.service.catalog.CatalogSnapshotService;
+import com.superdupermart.shopping.service.catalog.ProductChangedEvent;
+import com.superdupermart.shopping.service.count.CountMode;
+import com.superdupermart.shopping.service.count.EntityCountService;
+import com.superdupermart.shopping.service.count.RowCount;
+import com.superdupermart.shopping.service.image.ImageDerivativeService;
+import com.superdupermart.shopping.service.image.ImageSize;
+import com.superdupermart.shopping.service.image.ImageStore;
+import com.superdupermart.shopping.service.image.ProductImage;
+import com.superdupermart.shopping.service.image.StoredImage;
+import com.superdupermart.shopping.service.pagination.KeysetCursor;
+import com.superdupermart.shopping.service.search.FallbackSearchService;
+import com.superdupermart.shopping.service.search.ProductReindexService;
+import com.superdupermart.shopping.service.search.ProductSearchCriteria;
+import com.superdupermart.shopping.service.search.ProductSearchResult;
+import com.superdupermart.shopping.service.search.ProductSearchService;
+import com.superdupermart.shopping.service.search.SearchCircuitBreaker;
+import com.superdupermart.shopping.service.search.SearchQueryNormalizer;
+import com.superdupermart.shopping.service.search.SpellingCorrectionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.cache.annotation.Caching;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
+    private static final Logger log = LoggerFactory.getLogger(ProductServiceImpl.class);
+
     private final ProductDao productDao;
-    private final ProductSearchRepository productSearchRepository;
+    private final ProductSearchService productSearchService;
+    private final ImageStore imageStore;
+    private final ImageDerivativeService imageDerivativeService;
+    private final EntityCountService entityCountService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductReindexService productReindexService;
+    private final SearchCircuitBreaker searchCircuitBreaker;
+    private final FallbackSearchService fallbackSearchService;
+    private final SpellingCorrectionService spellingCorrectionService;
+
+    @Value("${app.products.export-fetch-size:500}")
+    private int exportFetchSize;
 
     @Autowired
-    public ProductServiceImpl(ProductDao productDao, ProductSearchRepository productSearchRepository) {
+    public ProductServiceImpl(ProductDao productDao, ProductSearchService productSearchService,
+            ImageStore imageStore, ImageDerivativeService imageDerivativeService,
+            EntityCountService entityCountService, CatalogSnapshotService catalogSnapshotService,
+            ApplicationEventPublisher eventPublisher, ProductReindexService productReindexService,
+            SearchCircuitBreaker searchCircuitBreaker, FallbackSearchService fallbackSearchService,
+            SpellingCorrectionService spellingCorrectionService) {
         this.productDao = productDao;
-        this.productSearchRepository = productSearchRepository;
+        this.productSearchService = productSearchService;
+        this.imageStore = imageStore;
+        this.imageDerivativeService = imageDerivativeService;
+        this.entityCountService = entityCountService;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.eventPublisher = eventPublisher;
+        this.productReindexService = productReindexService;
+        this.searchCircuitBreaker = searchCircuitBreaker;
+        this.fallbackSearchService = fallbackSearchService;
+        this.spellingCorrectionService = spellingCorrectionService;
     }
 
     @Override
-    @Cacheable(value = "products", key = "#isAdmin")
-    public List<ProductResponse> getAllProducts(boolean isAdmin) {
-        List<Product> products = isAdmin ? productDao.getAllProducts() : productDao.getInStockProducts();
+    @Cacheable(value = "product_list", key = "#isAdmin", condition = "#isAdmin or !@catalogSnapshotService.isServing()")
+    public List<ProductSummaryResponse> getAllProducts(boolean isAdmin) {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (!isAdmin && snapshot != null) {
+            return snapshot.getInStockProducts();
+        }
+        List<ProductSummaryResponse> products = productDao.getProductSummaries(!isAdmin);
+        if (isAdmin) {
+            return products;
+        }
         return products.stream()
-                .map(product -> mapToResponse(product, isAdmin))
+                .map(ProductSummaryResponse::withoutAdminFields)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public PageResponse<ProductResponse> getProductsPage(int page, int size) {
-        List<Product> products = productDao.getPaginatedProducts(page, size);
-        long totalElements = productDao.countProducts();
-        int totalPages = (int) Math.ceil((double) totalElements / size);
+    @Transactional(readOnly = true)
+    public void streamAllProducts(boolean isAdmin, Consumer<ProductSummaryResponse> sink) {
+        try (Stream<ProductSummaryResponse> products = productDao.streamProductSummaries(!isAdmin, exportFetchSize)) {
+            products.map(p -> isAdmin ? p : p.withoutAdminFields()).forEach(sink);
+        }
+    }
 
-        List<ProductResponse> content = products.stream()
-                .map(product -> mapToResponse(product, true)) // Admin view
-                .collect(Collectors.toList());
+    @Override
+    public PageResponse<ProductSummaryResponse> getProductsPage(int page, int size, CountMode countMode) {
+        List<ProductSummaryResponse> content = productDao.getPaginatedProductSummaries(page, size); // Admin view
+        RowCount count = entityCountService.count(Product.class, countMode);
+        int totalPages = (int) Math.ceil((double) count.getValue() / size);
 
-        return PageResponse.<ProductResponse>builder()
+        return PageResponse.<ProductSummaryResponse>builder()
                 .content(content)
-                .totalElements(totalElements)
+                .totalElements(count.getValue())
                 .totalPages(totalPages)
                 .size(size)
                 .number(page)
+                .totalExact(count.isExact())
                 .build();
     }
 
     @Override
-    @Cacheable(value = "product", key = "#id")
+    public PageResponse<ProductSummaryResponse> getProductsByCursor(String cursor, int size) {
+        KeysetCursor.checkPageSize(size);
+        Integer afterId = KeysetCursor.decodeId(cursor);
+        // One extra row tells us whether there is a next page without counting
+        List<ProductSummaryResponse> rows = productDao.getProductSummariesAfter(afterId, size + 1);
+        boolean hasMore = rows.size() > size;
+        List<ProductSummaryResponse> content = new ArrayList<>(hasMore ? rows.subList(0, size) : rows);
+
+        return PageResponse.<ProductSummaryResponse>builder()
+                .content(content)
+                .size(size)
+                .nextCursor(hasMore ? KeysetCursor.encode(content.get(content.size() - 1).getId()) : null)
+                .build();
+    }
+
+    @Override
+    @Cacheable(value = "product", key = "{#id, #isAdmin}", condition = "#isAdmin or !@catalogSnapshotService.isServing()")
     public ProductResponse getProductById(Integer id, boolean isAdmin) {
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        if (!isAdmin && snapshot != null) {
+            ProductResponse available = snapshot.findAvailable(id);
+            if (available != null) {
+                return available;
+            }
+            // Missing or out of stock: the database path below produces the right error
+        }
+
         Product product = productDao.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
@@ -72,9 +170,24 @@ public class ProductServiceImpl implements ProductService {
         return mapToResponse(product, isAdmin);
     }
 
+    @Override
+    public PageResponse<ProductResponse> searchProductsByCursor(String query, Double minPrice, Double maxPrice,
+            String category, String brand, String cursor, int size) {
+        // Not cached: every cursor belongs to one point in time
+        ProductSearchResult result = productSearchService.searchAfter(criteria(query, minPrice, maxPrice,
+                category, brand), cursor, size);
+        return PageResponse.<ProductResponse>builder()
+                .content(result.getDocuments().stream()
+                        .map(this::mapDocumentToResponse)
+                        .collect(Collectors.toList()))
+                .size(size)
+                .nextCursor(result.getNextCursor())
+                .build();
+    }
+
     @Override
     @Transactional
-    @CacheEvict(value = { "products", "product", "product_search" }, allEntries = true)
+    @CacheEvict(value = "product_list", allEntries = true)
     public ProductResponse addProduct(ProductRequest request) {
         Product product = Product.builder()
                 .name(request.getName())
@@ -82,18 +195,22 @@ public class ProductServiceImpl implements ProductService {
                 .wholesalePrice(request.getWholesalePrice())
                 .retailPrice(request.getRetailPrice())
                 .quantity(request.getQuantity())
+                .category(trimToNull(request.getCategory()))
+                .brand(trimToNull(request.getBrand()))
                 .build();
         productDao.save(product);
 
-        // Sync to Elasticsearch
-        saveToElasticsearch(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(product.getId()));
 
         return mapToResponse(product, true);
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = { "products", "product", "product_search" }, allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(value = "product_list", allEntries = true),
+            @CacheEvict(value = "product", key = "{#id, true}"),
+            @CacheEvict(value = "product", key = "{#id, false}") })
     public ProductResponse updateProduct(Integer id, ProductRequest request) {
         Product product = productDao.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
@@ -103,94 +220,225 @@ public class ProductServiceImpl implements ProductService {
         product.setWholesalePrice(request.getWholesalePrice());
         product.setRetailPrice(request.getRetailPrice());
         product.setQuantity(request.getQuantity());
+        product.setCategory(trimToNull(request.getCategory()));
+        product.setBrand(trimToNull(request.getBrand()));
 
         productDao.update(product);
 
-        // Sync to Elasticsearch
-        saveToElasticsearch(product);
+        eventPublisher.publishEvent(ProductChangedEvent.of(id));
 
         return mapToResponse(product, true);
     }
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "product_search", key = "{#query, #minPrice, #maxPrice, #page, #size}")
-    public PageResponse<ProductResponse> searchProducts(String query, Double minPrice, Double maxPrice, int page,
-            int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        org.springframework.data.domain.Page<ProductDocument> docsPage;
-
-        if (minPrice != null && maxPrice != null) {
-            docsPage = productSearchRepository.findByNameAndPriceBetween(query,
-                    java.math.BigDecimal.valueOf(minPrice), java.math.BigDecimal.valueOf(maxPrice), pageable);
-        } else if (query != null && !query.trim().isEmpty()) {
-            docsPage = productSearchRepository.findByNameOrDescription(query, query, pageable);
-        } else {
-            docsPage = productSearchRepository.findAll(pageable);
-        }
-
-        List<ProductResponse> content = docsPage.getContent().stream()
+    @Cacheable(value = "product_search",
+            key = "T(com.superdupermart.shopping.service.search.SearchQueryNormalizer).cacheKey(#query, #minPrice, #maxPrice, #category, #brand, #page, #size)",
+            condition = "!@catalogSnapshotService.canServeBrowse(#query, #minPrice, #maxPrice, #category, #brand)",
+            unless = "#result.degraded != null")
+    public PageResponse<ProductResponse> searchProducts(String query, Double minPrice, Double maxPrice,
+            String category, String brand, int page, int size) {
+        return searchProductsUncached(query, minPrice, maxPrice, category, brand, page, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PageResponse<ProductResponse> searchProductsUncached(String query, Double minPrice, Double maxPrice,
+            String category, String brand, int page, int size) {
+        ProductSearchCriteria criteria = criteria(query, minPrice, maxPrice, category, brand);
+
+        CatalogSnapshot snapshot = catalogSnapshotService.current();
+        CatalogFacets browseFacets = criteria.hasText() || criteria.hasPriceFilter()
+                ? null
+                : catalogSnapshotService.facets();
+        if (snapshot != null && browseFacets != null
+                && catalogSnapshotService.canServeBrowse(query, minPrice, maxPrice, criteria.getCategory(),
+                        criteria.getBrand())) {
+            return PageResponse.<ProductResponse>builder()
+                    .content(snapshot.page(page, size))
+                    .totalElements(snapshot.size())
+                    .totalPages((int) Math.ceil((double) snapshot.size() / size))
+                    .size(size)
+                    .number(page)
+                    .facets(browseFacets.count(null, null))
+                    .build();
+        }
+
+        // Browse facets come from the in-memory bitsets, so Elasticsearch only has to return hits
+        ProductSearchResult result = runSearch(criteria, page, size, browseFacets == null);
+        String correctedQuery = null;
+        String suggestedQuery = null;
+        if (criteria.hasText() && spellingCorrectionService.tooFewHits(result.getTotalHits())) {
+            // Corrected in the shopper's word order, since it is shown back to them
+            String correction = spellingCorrectionService.correct(SearchQueryNormalizer.clean(query));
+            if (correction != null && result.getTotalHits() == 0) {
+                // Nothing to show anyway: answer the corrected query if that finds something
+                ProductSearchResult corrected = runSearch(
+                        criteria.withQuery(SearchQueryNormalizer.normalize(correction)), page, size,
+                        browseFacets == null);
+                if (corrected.getTotalHits() > 0) {
+                    result = corrected;
+                    correctedQuery = correction;
+                }
+            } else {
+                suggestedQuery = correction;
+            }
+        } else if (criteria.hasText() && !result.isDegraded()) {
+            spellingCorrectionService.recordSuccessfulQuery(criteria.getQuery());
+        }
+        List<ProductResponse> content = result.getDocuments().stream()
                 .map(this::mapDocumentToResponse)
                 .collect(Collectors.toList());
 
-        System.out.println("DEBUG: Search query '" + query + "' returned " + content.size() + " products out of "
-                + docsPage.getTotalElements() + " total items.");
-
         return PageResponse.<ProductResponse>builder()
                 .content(content)
-                .totalElements(docsPage.getTotalElements())
-                .totalPages(docsPage.getTotalPages())
+                .totalElements(result.getTotalHits())
+                .totalPages((int) Math.ceil((double) result.getTotalHits() / size))
                 .size(size)
                 .number(page)
+                .facets(browseFacets != null
+                        ? browseFacets.count(criteria.getCategory(), criteria.getBrand())
+                        : result.getFacets())
+                .degraded(result.isDegraded() ? Boolean.TRUE : null)
+                .correctedQuery(correctedQuery)
+                .suggestedQuery(suggestedQuery)
                 .build();
     }
 
+    private ProductSearchResult runSearch(ProductSearchCriteria criteria, int page, int size, boolean withFacets) {
+        ProductSearchResult result = searchElasticsearch(criteria, page, size, withFacets);
+        if (result == null) {
+            result = fallbackSearchService.search(criteria, page, size);
+            if (result == null) {
+                throw new RuntimeException("Product search is temporarily unavailable");
+            }
+            result.setDegraded(true);
+        }
+        return result;
+    }
+
+    // Null when the breaker is open or the call failed; the caller falls back to the in-memory index
+    private ProductSearchResult searchElasticsearch(ProductSearchCriteria criteria, int page, int size,
+            boolean withFacets) {
+        if (!fallbackSearchService.isReady()) {
+            // Nothing to fall back to, so Elasticsearch errors reach the client as before
+            return productSearchService.search(criteria, page, size, withFacets);
+        }
+        if (!searchCircuitBreaker.tryAcquire()) {
+            return null;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            ProductSearchResult result = productSearchService.search(criteria, page, size, withFacets);
+            searchCircuitBreaker.onSuccess(System.currentTimeMillis() - start);
+            return result;
+        } catch (RuntimeException e) {
+            searchCircuitBreaker.onFailure();
+            log.warn("Elasticsearch search failed, answering from the fallback index: {}", e.getMessage());
+            return null;
+        }
+    }
+
     @Override
     @Transactional
-    @CacheEvict(value = { "products", "product", "product_search" }, allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(value = "product_list", allEntries = true),
+            @CacheEvict(value = "product", key = "{#id, true}"),
+            @CacheEvict(value = "product", key = "{#id, false}") })
     public void uploadProductImage(Integer id, org.springframework.web.multipart.MultipartFile file) {
         Product product = productDao.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
-        try {
-            product.setImage(file.getBytes());
-            product.setImageContentType(file.getContentType());
-            productDao.update(product);
+        String previousHash = product.getImageHash();
 
-            // Sync image metadata to Elasticsearch
-            saveToElasticsearch(product);
-        } catch (java.io.IOException e) {
+        StoredImage stored;
+        try (InputStream in = file.getInputStream()) {
+            stored = imageStore.store(in);
+        } catch (IOException e) {
             throw new RuntimeException("Failed to upload product image", e);
         }
+
+        product.setImageHash(stored.getHash());
+        product.setImageContentType(file.getContentType());
+        productDao.update(product);
+
+        eventPublisher.publishEvent(ProductChangedEvent.of(id));
+
+        afterCommit(() -> imageDerivativeService.generateAllAsync(stored.getHash()));
+        if (previousHash != null && !previousHash.equals(stored.getHash())) {
+            afterCommit(() -> deleteImageIfUnreferenced(previousHash));
+        }
     }
 
     @Override
-    public Product getProductEntity(Integer id) {
-        return productDao.findById(id)
+    public Optional<ProductImage> getProductImage(Integer id, ImageSize size) {
+        Product product = productDao.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
+        if (product.getImageHash() == null) {
+            return Optional.empty();
+        }
+        Optional<ProductImage> original = imageStore.find(product.getImageHash())
+                .map(file -> new ProductImage(file, product.getImageContentType(), ImageSize.ORIGINAL));
+        if (original.isEmpty() || !size.isDerivative()) {
+            return original;
+        }
+
+        // Fall back to the original if the rendition can't be produced (undecodable format, busy executor)
+        return Optional.of(imageDerivativeService.getOrCreate(product.getImageHash(), size)
+                .map(file -> new ProductImage(file, ImageDerivativeService.CONTENT_TYPE, size))
+                .orElse(original.get()));
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = { "products", "product", "product_search" }, allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(value = "product_list", allEntries = true),
+            @CacheEvict(value = "product", key = "{#id, true}"),
+            @CacheEvict(value = "product", key = "{#id, false}") })
     public void deleteProduct(Integer id) {
         Product product = productDao.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
         productDao.delete(id);
-        productSearchRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.of(id));
+
+        String imageHash = product.getImageHash();
+        if (imageHash != null) {
+            afterCommit(() -> deleteImageIfUnreferenced(imageHash));
+        }
     }
 
-    // Helper to sync
-    private void saveToElasticsearch(Product product) {
-        System.out
-                .println("DEBUG: Syncing product " + product.getId() + " (" + product.getName() + ") to Elasticsearch");
-        ProductDocument doc = ProductDocument.builder()
-                .id(product.getId())
-                .name(product.getName())
-                .description(product.getDescription())
-                .price(product.getRetailPrice())
-                .imageContentType(product.getImageContentType())
+    // Images are content-addressed, so another product may still point at the same file
+    private void deleteImageIfUnreferenced(String imageHash) {
+        if (productDao.countByImageHash(imageHash) == 0) {
+            imageStore.delete(imageHash);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static ProductSearchCriteria criteria(String query, Double minPrice, Double maxPrice, String category,
+            String brand) {
+        return ProductSearchCriteria.builder()
+                .query(SearchQueryNormalizer.normalize(query))
+                .minPrice(minPrice)
+                .maxPrice(maxPrice)
+                .category(trimToNull(category))
+                .brand(trimToNull(brand))
                 .build();
-        productSearchRepository.save(doc);
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
     }
 
     private ProductResponse mapToResponse(Product product, boolean isAdmin) {
@@ -199,8 +447,10 @@ public class ProductServiceImpl implements ProductService {
                 .name(product.getName())
                 .description(product.getDescription())
                 .retailPrice(product.getRetailPrice())
-                .image(product.getImage())
-                .imageContentType(product.getImageContentType());
+                .imageContentType(product.getImageContentType())
+                .imageVersion(product.getImageHash())
+                .category(product.getCategory())
+                .brand(product.getBrand());
 
         if (isAdmin) {
             builder.wholesalePrice(product.getWholesalePrice())
@@ -216,21 +466,21 @@ public class ProductServiceImpl implements ProductService {
                 .name(doc.getName())
                 .description(doc.getDescription())
                 .retailPrice(doc.getPrice())
-                // Image data is not in ES, so it will be null in search results list
-                // (which is fine for list view, faster). Detail view fetches from DB.
+                // Image bytes are served separately from /products/{id}/image
                 .imageContentType(doc.getImageContentType())
+                .imageVersion(doc.getImageVersion())
+                .category(doc.getCategory())
+                .brand(doc.getBrand())
                 .build();
     }
 
     @Override
-    @Transactional
-    public void syncAllProducts() {
-        List<Product> products = productDao.getAllProducts();
-        int count = 0;
-        for (Product product : products) {
-            saveToElasticsearch(product);
-            count++;
-        }
-        System.out.println("DEBUG: Manually synced " + count + " products to Elasticsearch.");
+    public ReindexStatusResponse syncAllProducts() {
+        return productReindexService.start();
+    }
+
+    @Override
+    public ReindexStatusResponse getSyncStatus() {
+        return productReindexService.getStatus();
     }
 }
@@ -0,0 +1,36 @@
+package com.superdupermart.shopping.service.inventory;
+
+/**
+ * Outcome of {@link FlashSaleService#reserve}: either the id of a reservation holding every
+ * requested unit, or the first product that did not have enough stock (nothing was taken).
+ */
+public class FlashSaleReservation {
+
+    private final String id;
+    private final Integer insufficientProductId;
+
+    private FlashSaleReservation(String id, Integer insufficientProductId) {
+        this.id = id;
+        this.insufficientProductId = insufficientProductId;
+    }
+
+    public static FlashSaleReservation reserved(String id) {
+        return new FlashSaleReservation(id, null);
+    }
+
+    public static FlashSaleReservation insufficient(Integer productId) {
+        return new FlashSaleReservation(null, productId);
+    }
+
+    public boolean isReserved() {
+        return id != null;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Integer getInsufficientProductId() {
+        return insufficientProductId;
+    }
+}
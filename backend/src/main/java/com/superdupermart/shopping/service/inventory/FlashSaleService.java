@@ -0,0 +1,383 @@
+package com.superdupermart.shopping.service.inventory;
+
+import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.dto.FlashSaleStatusResponse;
+import com.superdupermart.shopping.entity.Product;
+import com.superdupermart.shopping.service.catalog.ProductChangedEvent;
+import com.superdupermart.shopping.service.lock.RedisLocks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Sells hot products out of Redis during a flash sale, so checkouts for them never queue on a
+ * product row lock.
+ * <p>
+ * Each product on sale has a stock counter in Redis. A checkout reserves its units with one Lua
+ * script (all items or none, only if enough is left), confirms the reservation once payment has
+ * gone through, and releases it when the order fails. Reservations not settled within the
+ * reservation TTL are released by a sweeper. Confirmed units are added to a sold hash that a
+ * single node at a time writes to {@code product.quantity} as one batched update, so database
+ * writes stay at one batch per reconcile interval however many shoppers are buying.
+ * <p>
+ * The counter is loaded from {@code product.quantity} only after activation-delay, once every
+ * node has stopped taking the product's stock from the database; until then the product cannot
+ * be bought. Stopping a sale deletes the counter, and the product goes back to database checkout
+ * once its open reservations are settled and its sales reconciled. Restocking a product on sale
+ * means stopping and restarting its sale.
+ * <p>
+ * Every script is handed all the keys it touches in {@code KEYS}, and all keys share the
+ * {@code {flash}} hash tag, so the scripts also run on Redis Cluster.
+ */
+@Service
+public class FlashSaleService {
+
+    private static final Logger log = LoggerFactory.getLogger(FlashSaleService.class);
+
+    // product id -> PENDING_PREFIX + activation millis, ACTIVE or DRAINING
+    static final String PRODUCTS_KEY = "{flash}:products";
+    static final String STOCK_PREFIX = "{flash}:stock:";
+    // product id -> units in open reservations
+    static final String HELD_KEY = "{flash}:held";
+    // product id -> confirmed units not yet written to the database
+    static final String SOLD_KEY = "{flash}:sold";
+    static final String RECONCILING_KEY = "{flash}:reconciling";
+    // reservation id scored by expiry millis
+    static final String EXPIRY_KEY = "{flash}:expiry";
+    static final String RESERVATION_PREFIX = "{flash}:reservation:";
+    // Items of a confirmed reservation, kept until its order has surely committed
+    static final String CONFIRMED_PREFIX = "{flash}:confirmed:";
+    static final String RECONCILE_LOCK_KEY = "{flash}:reconcile:lock";
+    private static final Duration RECONCILE_LOCK_TTL = Duration.ofSeconds(30);
+    private static final int SWEEP_BATCH = 500;
+
+    static final String PENDING_PREFIX = "pending:";
+    static final String ACTIVE = "active";
+    static final String DRAINING = "draining";
+
+    static final RedisScript<Long> RESERVE = script("reserve", Long.class);
+    static final RedisScript<Long> CONFIRM = script("confirm", Long.class);
+    static final RedisScript<Long> UNCONFIRM = script("unconfirm", Long.class);
+    static final RedisScript<Long> RELEASE = script("release", Long.class);
+    static final RedisScript<Long> ACTIVATE = script("activate", Long.class);
+    static final RedisScript<Long> STOP = script("stop", Long.class);
+    static final RedisScript<Long> FINISH = script("finish", Long.class);
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> TAKE_SOLD = script("take-sold", List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ProductDao productDao;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate tx;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Last known sale state per product; checkouts route on this without asking Redis
+    private volatile Map<Integer, String> states = Map.of();
+
+    @Value("${app.inventory.flash-sale.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.inventory.flash-sale.reservation-ttl-ms:300000}")
+    private long reservationTtlMs;
+
+    @Value("${app.inventory.flash-sale.activation-delay-ms:5000}")
+    private long activationDelayMs;
+
+    public FlashSaleService(StringRedisTemplate redisTemplate, ProductDao productDao,
+            ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
+        this.redisTemplate = redisTemplate;
+        this.productDao = productDao;
+        this.eventPublisher = eventPublisher;
+        this.tx = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * The given products whose stock is currently handled here rather than in the database.
+     */
+    public Set<Integer> flashProductIds(Collection<Integer> productIds) {
+        Map<Integer, String> current = states;
+        if (current.isEmpty()) {
+            return Set.of();
+        }
+        Set<Integer> result = new HashSet<>();
+        for (Integer id : productIds) {
+            if (current.containsKey(id)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Takes the units of every product or of none.
+     *
+     * @param quantities units per flash-sale product
+     */
+    public FlashSaleReservation reserve(Map<Integer, Integer> quantities) {
+        String id = UUID.randomUUID().toString();
+        List<Integer> productIds = new ArrayList<>(quantities.keySet());
+        List<String> keys = new ArrayList<>(List.of(RESERVATION_PREFIX + id, EXPIRY_KEY, HELD_KEY));
+        List<String> args = new ArrayList<>(List.of(id, String.valueOf(System.currentTimeMillis() + reservationTtlMs)));
+        for (Integer productId : productIds) {
+            keys.add(STOCK_PREFIX + productId);
+            args.add(String.valueOf(productId));
+            args.add(String.valueOf(quantities.get(productId)));
+        }
+        Long result = redisTemplate.execute(RESERVE, keys, args.toArray());
+        if (result == null) {
+            throw new RuntimeException("Flash sale reservation failed");
+        }
+        return result == 0 ? FlashSaleReservation.reserved(id)
+                : FlashSaleReservation.insufficient(productIds.get(result.intValue() - 1));
+    }
+
+    /**
+     * Counts the reserved units as sold. Call {@link #unconfirm(String)} if the order then fails to
+     * commit; the confirmation can be undone for reservation-ttl after this call.
+     *
+     * @return false when the reservation expired or was released, so its units may be sold again
+     */
+    public boolean confirm(String reservationId) {
+        Long result = redisTemplate.execute(CONFIRM,
+                List.of(RESERVATION_PREFIX + reservationId, EXPIRY_KEY, HELD_KEY, SOLD_KEY,
+                        CONFIRMED_PREFIX + reservationId),
+                reservationId, String.valueOf(System.currentTimeMillis()), String.valueOf(reservationTtlMs));
+        return result != null && result == 1;
+    }
+
+    /**
+     * Undoes a confirmation whose order rolled back, so its units are neither written off in the
+     * database nor lost to the sale. Does nothing when there is no such confirmation.
+     */
+    public void unconfirm(String reservationId) {
+        String confirmedKey = CONFIRMED_PREFIX + reservationId;
+        List<String> productIds = itemIds(confirmedKey);
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(List.of(confirmedKey, SOLD_KEY));
+        productIds.forEach(productId -> keys.add(STOCK_PREFIX + productId));
+        redisTemplate.execute(UNCONFIRM, keys, productIds.toArray());
+    }
+
+    /**
+     * Gives the units back; does nothing once the reservation is confirmed or already released.
+     */
+    public void release(String reservationId) {
+        String reservationKey = RESERVATION_PREFIX + reservationId;
+        List<String> productIds = itemIds(reservationKey);
+        List<String> keys = new ArrayList<>(List.of(reservationKey, EXPIRY_KEY, HELD_KEY));
+        productIds.forEach(productId -> keys.add(STOCK_PREFIX + productId));
+        List<Object> args = new ArrayList<>();
+        args.add(reservationId);
+        args.addAll(productIds);
+        redisTemplate.execute(RELEASE, keys, args.toArray());
+    }
+
+    // Reservations and confirmations never change their items, so reading them ahead of the
+    // script that settles them is safe
+    private List<String> itemIds(String key) {
+        List<String> productIds = new ArrayList<>();
+        redisTemplate.opsForHash().keys(key).forEach(productId -> productIds.add((String) productId));
+        return productIds;
+    }
+
+    public FlashSaleStatusResponse start(Integer productId) {
+        if (!enabled) {
+            throw new RuntimeException("Flash sales are disabled");
+        }
+        productDao.findById(productId).orElseThrow(() -> new RuntimeException("Product not found"));
+        long activatesAt = System.currentTimeMillis() + activationDelayMs;
+        Boolean added = redisTemplate.opsForHash().putIfAbsent(PRODUCTS_KEY, String.valueOf(productId),
+                PENDING_PREFIX + activatesAt);
+        if (!Boolean.TRUE.equals(added)) {
+            throw new RuntimeException("Product already has a flash sale");
+        }
+        refresh();
+        return getStatus(productId);
+    }
+
+    public FlashSaleStatusResponse stop(Integer productId) {
+        Long result = redisTemplate.execute(STOP, List.of(PRODUCTS_KEY, STOCK_PREFIX + productId),
+                String.valueOf(productId));
+        if (result == null || result == 0) {
+            throw new RuntimeException("Product has no flash sale");
+        }
+        return getStatus(productId);
+    }
+
+    public FlashSaleStatusResponse getStatus(Integer productId) {
+        String field = String.valueOf(productId);
+        String state = (String) redisTemplate.opsForHash().get(PRODUCTS_KEY, field);
+        FlashSaleStatusResponse.FlashSaleStatusResponseBuilder status = FlashSaleStatusResponse.builder()
+                .productId(productId);
+        if (state == null) {
+            return status.state("NONE").build();
+        }
+        if (state.startsWith(PENDING_PREFIX)) {
+            status.state("PENDING").activatesAt(Long.parseLong(state.substring(PENDING_PREFIX.length())));
+        } else {
+            status.state(state.toUpperCase());
+        }
+        String stock = redisTemplate.opsForValue().get(STOCK_PREFIX + productId);
+        return status
+                .stock(stock != null ? Long.parseLong(stock) : null)
+                .held(toLong(redisTemplate.opsForHash().get(HELD_KEY, field)))
+                .unreconciled(toLong(redisTemplate.opsForHash().get(SOLD_KEY, field))
+                        + toLong(redisTemplate.opsForHash().get(RECONCILING_KEY, field)))
+                .build();
+    }
+
+    /**
+     * Reloads the sale states, loads the stock of sales that are due and hands finished sales back
+     * to database checkout. Any node may do this; the scripts only act on the expected state.
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.flash-sale.refresh-ms:1000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        Map<Integer, String> loaded = new HashMap<>();
+        try {
+            redisTemplate.opsForHash().entries(PRODUCTS_KEY)
+                    .forEach((k, v) -> loaded.put(Integer.valueOf((String) k), (String) v));
+        } catch (RuntimeException e) {
+            // Keep routing on the last known states
+            log.warn("Failed to load flash sale states: {}", e.getMessage());
+            return;
+        }
+        states = Map.copyOf(loaded);
+
+        long now = System.currentTimeMillis();
+        loaded.forEach((productId, state) -> {
+            try {
+                if (state.startsWith(PENDING_PREFIX)
+                        && Long.parseLong(state.substring(PENDING_PREFIX.length())) <= now) {
+                    activate(productId, state);
+                } else if (DRAINING.equals(state)) {
+                    redisTemplate.execute(FINISH, List.of(PRODUCTS_KEY, HELD_KEY, SOLD_KEY, RECONCILING_KEY),
+                            String.valueOf(productId));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to advance the flash sale of product {}: {}", productId, e.getMessage());
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.flash-sale.sweep-ms:1000}")
+    public void releaseExpired() {
+        if (!enabled || states.isEmpty()) {
+            return;
+        }
+        try {
+            Set<String> expired = redisTemplate.opsForZSet().rangeByScore(EXPIRY_KEY, 0,
+                    System.currentTimeMillis(), 0, SWEEP_BATCH);
+            if (expired != null) {
+                expired.forEach(this::release);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to release expired flash sale reservations: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes confirmed sales to {@code product.quantity}. The batch stays in Redis until the
+     * database commit, so a failed run is retried; a node dying between the commit and clearing the
+     * batch applies it twice, which can only understate stock, never oversell.
+     */
+    @Scheduled(fixedDelayString = "${app.inventory.flash-sale.reconcile-ms:1000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(RECONCILE_LOCK_KEY, nodeId,
+                    RECONCILE_LOCK_TTL))) {
+                return;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to reconcile flash sale stock: {}", e.getMessage());
+            return;
+        }
+        try {
+            List<?> batch = redisTemplate.execute(TAKE_SOLD, List.of(SOLD_KEY, RECONCILING_KEY));
+            if (batch == null || batch.isEmpty()) {
+                return;
+            }
+            // Ascending ids, the same lock order as checkout
+            Map<Integer, Integer> deltas = new TreeMap<>();
+            for (int i = 0; i < batch.size(); i += 2) {
+                int units = Integer.parseInt((String) batch.get(i + 1));
+                if (units != 0) {
+                    deltas.put(Integer.valueOf((String) batch.get(i)), -units);
+                }
+            }
+            tx.executeWithoutResult(status -> {
+                productDao.adjustStock(deltas);
+                List<Integer> soldOut = productDao.getSoldOutIds(deltas.keySet());
+                if (!soldOut.isEmpty()) {
+                    eventPublisher.publishEvent(ProductChangedEvent.of(soldOut));
+                }
+            });
+            redisTemplate.delete(RECONCILING_KEY);
+            log.debug("Reconciled flash sale stock of {} products", deltas.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to reconcile flash sale stock: {}", e.getMessage());
+        } finally {
+            releaseReconcileLock();
+        }
+    }
+
+    // The row lock makes a checkout that took stock from the database before the switch commit first
+    private void activate(Integer productId, String pendingState) {
+        tx.executeWithoutResult(status -> {
+            Integer quantity = productDao.findByIdForUpdate(productId).map(Product::getQuantity).orElse(null);
+            int units = quantity != null ? Math.max(quantity, 0) : 0;
+            Long result = redisTemplate.execute(ACTIVATE, List.of(PRODUCTS_KEY, STOCK_PREFIX + productId),
+                    String.valueOf(productId), String.valueOf(units), pendingState);
+            if (result != null && result == 1) {
+                log.info("Flash sale of product {} started with {} units", productId, units);
+            }
+        });
+    }
+
+    private void releaseReconcileLock() {
+        try {
+            RedisLocks.release(redisTemplate, RECONCILE_LOCK_KEY, nodeId);
+        } catch (RuntimeException e) {
+            // Expires on its own
+            log.warn("Failed to release flash sale reconcile lock: {}", e.getMessage());
+        }
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? Long.parseLong((String) value) : 0;
+    }
+
+    private static <T> RedisScript<T> script(String name, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("redis/flash-sale/" + name + ".lua"));
+        script.setResultType(resultType);
+        return script;
+    }
+}
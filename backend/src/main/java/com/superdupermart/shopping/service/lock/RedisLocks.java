@@ -0,0 +1,45 @@
+package com.superdupermart.shopping.service.lock;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Owner-checked operations on locks taken with {@code SET key owner NX PX ttl}. Each one is a
+ * single script, so a lock that expired and was taken by another node is never touched.
+ */
+public final class RedisLocks {
+
+    private static final RedisScript<Long> RELEASE = script("release");
+    private static final RedisScript<Long> EXTEND = script("extend");
+
+    private RedisLocks() {
+    }
+
+    /**
+     * @return false when the lock was no longer ours
+     */
+    public static boolean release(StringRedisTemplate redisTemplate, String key, String owner) {
+        Long result = redisTemplate.execute(RELEASE, List.of(key), owner);
+        return result != null && result == 1;
+    }
+
+    /**
+     * @return false when the lock was no longer ours
+     */
+    public static boolean extend(StringRedisTemplate redisTemplate, String key, String owner, Duration ttl) {
+        Long result = redisTemplate.execute(EXTEND, List.of(key), owner, String.valueOf(ttl.toMillis()));
+        return result != null && result == 1;
+    }
+
+    private static RedisScript<Long> script(String name) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("redis/lock/" + name + ".lua"));
+        script.setResultType(Long.class);
+        return script;
+    }
+}
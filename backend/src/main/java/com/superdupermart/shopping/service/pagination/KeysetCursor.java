@@ -0,0 +1,73 @@
+package com.superdupermart.shopping.service.pagination;
+
+import com.superdupermart.shopping.exception.InvalidCursorException;
+import com.superdupermart.shopping.exception.InvalidPageRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.StringJoiner;
+
+/**
+ * Opaque continuation token for keyset (seek) pagination. Encodes the sort key of the
+ * last row on a page, e.g. (datePlaced, id), so the next page can start with
+ * {@code WHERE (key) < (:last)} instead of skipping rows with OFFSET.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Rejects a page size a keyset page cannot be built from: the next cursor is taken from the
+     * last row of the page, so the page needs at least one.
+     */
+    public static void checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new InvalidPageRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    public static String encode(Object... keys) {
+        StringJoiner joiner = new StringJoiner(SEPARATOR);
+        for (Object key : keys) {
+            joiner.add(String.valueOf(key));
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(joiner.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the encoded keys, or null for an empty cursor (first page)
+     */
+    public static String[] decode(String cursor, int expectedKeys) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] keys;
+        try {
+            keys = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                    .split("\\" + SEPARATOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed pagination cursor");
+        }
+        if (keys.length != expectedKeys) {
+            throw new InvalidCursorException("Malformed pagination cursor");
+        }
+        return keys;
+    }
+
+    public static Integer decodeId(String cursor) {
+        String[] keys = decode(cursor, 1);
+        if (keys == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(keys[0]);
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Malformed pagination cursor");
+        }
+    }
+}
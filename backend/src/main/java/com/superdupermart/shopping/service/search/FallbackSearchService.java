@@ -0,0 +1,150 @@
+package com.superdupermart.shopping.service.search;
+
+import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import com.superdupermart.shopping.service.catalog.ProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps a {@link TrigramIndex} of the whole catalog on every node so product search can still
+ * answer while Elasticsearch is unavailable. Loaded at startup, then kept current from
+ * product change events the same way as the typeahead index. While there is no index (the load
+ * failed, or the catalog outgrew max-products) a full load is retried every retry-ms.
+ */
+@Service
+public class FallbackSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(FallbackSearchService.class);
+    private static final int RELOAD_CHUNK = 1000;
+
+    private final ProductDao productDao;
+    private final TransactionTemplate readOnlyTx;
+    private final Set<Integer> dirtyIds = ConcurrentHashMap.newKeySet();
+    private volatile TrigramIndex index;
+
+    @Value("${app.search.fallback.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.search.fallback.max-products:100000}")
+    private int maxProducts;
+
+    @Value("${app.products.export-fetch-size:500}")
+    private int fetchSize;
+
+    public FallbackSearchService(ProductDao productDao, PlatformTransactionManager transactionManager) {
+        this.productDao = productDao;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * @return null when the index is disabled or not loaded
+     */
+    public ProductSearchResult search(ProductSearchCriteria criteria, int page, int size) {
+        TrigramIndex current = index;
+        return current == null ? null : current.search(criteria, page, size);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Remote events included: every node holds its own index
+        if (enabled) {
+            dirtyIds.addAll(event.getProductIds());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.fallback.retry-ms:300000}",
+            initialDelayString = "${app.search.fallback.retry-ms:300000}")
+    public void retryLoad() {
+        if (enabled && index == null) {
+            reload();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.fallback.refresh-delay-ms:1000}")
+    public synchronized void applyPendingChanges() {
+        TrigramIndex current = index;
+        if (current == null || dirtyIds.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>(dirtyIds.size());
+        for (Iterator<Integer> it = dirtyIds.iterator(); it.hasNext();) {
+            ids.add(it.next());
+            it.remove();
+        }
+
+        List<ProductSummaryResponse> changed = new ArrayList<>();
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                for (int from = 0; from < ids.size(); from += RELOAD_CHUNK) {
+                    changed.addAll(productDao.getProductSummariesByIds(
+                            ids.subList(from, Math.min(from + RELOAD_CHUNK, ids.size()))));
+                }
+            });
+        } catch (RuntimeException e) {
+            dirtyIds.addAll(ids);
+            log.warn("Failed to refresh the fallback search index: {}", e.getMessage());
+            return;
+        }
+
+        ids.forEach(current::remove);
+        changed.forEach(current::put);
+        if (current.size() > maxProducts) {
+            log.warn("More than {} products, fallback search is disabled", maxProducts);
+            index = null;
+        }
+    }
+
+    public synchronized void reload() {
+        // The load reads every product, so changes recorded so far are covered by it
+        dirtyIds.clear();
+        TrigramIndex loaded = new TrigramIndex();
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<ProductSummaryResponse> products = productDao.streamProductSummaries(false, fetchSize)) {
+                    Iterator<ProductSummaryResponse> it = products.iterator();
+                    while (it.hasNext() && loaded.size() <= maxProducts) {
+                        loaded.put(it.next());
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to load the fallback search index: {}", e.getMessage());
+            return;
+        }
+        if (loaded.size() > maxProducts) {
+            log.warn("More than {} products, fallback search is disabled", maxProducts);
+            index = null;
+            return;
+        }
+        index = loaded;
+        log.info("Fallback search index loaded with {} products", loaded.size());
+    }
+}
@@ -0,0 +1,141 @@
+package com.superdupermart.shopping.service.search;
+
+import com.superdupermart.shopping.dto.PageResponse;
+import com.superdupermart.shopping.dto.ProductResponse;
+import com.superdupermart.shopping.service.ProductService;
+import com.superdupermart.shopping.service.catalog.ProductChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Owns the staleness of {@code product_search} and keeps the most frequent searches cached across
+ * catalog changes.
+ * <p>
+ * The controller records every page-mode search here under its normalized key. Product writes do
+ * not touch {@code product_search}; once the change has reached Elasticsearch (indexer queue empty
+ * and a refresh interval elapsed), the top queries of the window are re-run against the new index
+ * first, then the cache is cleared and their fresh results are put straight back. A hot query can
+ * only miss in the moment between the clear and the puts; everything else is dropped, since the
+ * shared cache cannot be listed to evict only the rest. Every change bumps a generation; a
+ * re-warm only marks the generation it started from as done, so a change that lands while it runs
+ * triggers another. With hot queries disabled the cache is still cleared after each change.
+ */
+@Service
+public class HotSearchQueries {
+
+    private static final Logger log = LoggerFactory.getLogger(HotSearchQueries.class);
+
+    private final ProductService productService;
+    private final ProductIndexer productIndexer;
+    private final CacheManager cacheManager;
+    private final SlidingWindowCounter<Key> counter;
+
+    private final AtomicLong generation = new AtomicLong();
+    // Last generation re-warmed; only touched by rewarm()
+    private long warmedGeneration;
+    private volatile long changedAt;
+
+    @Value("${app.search.hot-queries.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.search.hot-queries.top-n:50}")
+    private int topN;
+
+    @Value("${app.search.hot-queries.min-count:3}")
+    private long minCount;
+
+    @Value("${app.search.hot-queries.settle-ms:2000}")
+    private long settleMs;
+
+    public HotSearchQueries(ProductService productService, ProductIndexer productIndexer,
+            CacheManager cacheManager,
+            @Value("${app.search.hot-queries.window-buckets:10}") int windowBuckets,
+            @Value("${app.search.hot-queries.bucket-ms:60000}") long bucketMs,
+            @Value("${app.search.hot-queries.max-keys-per-bucket:10000}") int maxKeysPerBucket) {
+        this.productService = productService;
+        this.productIndexer = productIndexer;
+        this.cacheManager = cacheManager;
+        this.counter = new SlidingWindowCounter<>(windowBuckets, bucketMs, maxKeysPerBucket);
+    }
+
+    public void record(String query, Double minPrice, Double maxPrice, String category, String brand, int page,
+            int size) {
+        if (enabled) {
+            counter.record(new Key(SearchQueryNormalizer.normalize(query), minPrice, maxPrice, category, brand,
+                    page, size));
+        }
+    }
+
+    public List<Key> top() {
+        return counter.top(topN, minCount);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // product_search is shared through Redis, so only the node that made the change re-warms it
+        if (!event.isRemote()) {
+            changedAt = System.currentTimeMillis();
+            generation.incrementAndGet();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.hot-queries.check-delay-ms:500}")
+    public synchronized void rewarm() {
+        long current = generation.get();
+        if (current == warmedGeneration || !productIndexer.isIdle()
+                || System.currentTimeMillis() - changedAt < settleMs) {
+            return;
+        }
+        // Search first so the cache is only empty for as long as the puts take
+        List<Key> hot = enabled ? top() : List.of();
+        Map<List<Object>, PageResponse<ProductResponse>> fresh = new LinkedHashMap<>();
+        for (Key key : hot) {
+            try {
+                PageResponse<ProductResponse> result = productService.searchProductsUncached(key.getQuery(),
+                        key.getMinPrice(), key.getMaxPrice(), key.getCategory(), key.getBrand(), key.getPage(),
+                        key.getSize());
+                // Degraded answers are never cached, same as searchProducts
+                if (result != null && result.getDegraded() == null) {
+                    fresh.put(SearchQueryNormalizer.cacheKey(key.getQuery(), key.getMinPrice(), key.getMaxPrice(),
+                            key.getCategory(), key.getBrand(), key.getPage(), key.getSize()), result);
+                }
+            } catch (RuntimeException e) {
+                log.debug("Failed to re-run hot search {}: {}", key, e.getMessage());
+            }
+        }
+
+        Cache cache = cacheManager.getCache("product_search");
+        if (cache != null) {
+            cache.clear();
+            fresh.forEach(cache::put);
+        }
+        log.debug("Re-warmed {} of {} hot searches after a catalog change", fresh.size(), hot.size());
+        // Changes made since the start are not covered by this run
+        warmedGeneration = current;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Key {
+        private final String query;
+        private final Double minPrice;
+        private final Double maxPrice;
+        private final String category;
+        private final String brand;
+        private final int page;
+        private final int size;
+    }
+}
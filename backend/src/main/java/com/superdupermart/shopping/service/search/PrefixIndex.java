@@ -0,0 +1,164 @@
+package com.superdupermart.shopping.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable radix (path-compressed) trie over normalized keys. Each key points at a target
+ * (an index into the caller's suggestion table) and every node stores the best {@code topK}
+ * distinct targets of its subtree, so a lookup is one walk down the trie with no scoring.
+ * Several keys may point at the same target; it is reported once.
+ */
+final class PrefixIndex {
+
+    private static final int[] NONE = new int[0];
+
+    private final Node root;
+    private final int nodeCount;
+
+    private PrefixIndex(Node root, int nodeCount) {
+        this.root = root;
+        this.nodeCount = nodeCount;
+    }
+
+    /**
+     * @param keys    normalized keys, any order, duplicates allowed
+     * @param targets target of each key
+     * @param weights weight of each target; higher ranks first, ties by lower target
+     */
+    static PrefixIndex build(List<String> keys, int[] targets, long[] weights, int topK) {
+        if (keys.isEmpty()) {
+            return new PrefixIndex(new Node("", new char[0], new Node[0], NONE), 1);
+        }
+        Integer[] order = new Integer[keys.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(keys::get));
+        String[] sortedKeys = new String[order.length];
+        int[] sortedTargets = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedKeys[i] = keys.get(order[i]);
+            sortedTargets[i] = targets[order[i]];
+        }
+
+        Builder builder = new Builder(sortedKeys, sortedTargets, weights, topK);
+        Node root = builder.node(0, sortedKeys.length, 0);
+        return new PrefixIndex(root, builder.nodes);
+    }
+
+    /**
+     * @return up to topK targets whose keys start with {@code prefix}, best first
+     */
+    int[] lookup(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (true) {
+            String label = node.label;
+            int remaining = prefix.length() - i;
+            if (remaining <= label.length()) {
+                return prefix.regionMatches(i, label, 0, remaining) ? node.top : NONE;
+            }
+            if (!prefix.regionMatches(i, label, 0, label.length())) {
+                return NONE;
+            }
+            i += label.length();
+            int child = Arrays.binarySearch(node.childChars, prefix.charAt(i));
+            if (child < 0) {
+                return NONE;
+            }
+            node = node.children[child];
+        }
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    private static final class Node {
+        // Characters on the edge into this node (the root's is usually empty)
+        final String label;
+        final char[] childChars;
+        final Node[] children;
+        final int[] top;
+
+        Node(String label, char[] childChars, Node[] children, int[] top) {
+            this.label = label;
+            this.childChars = childChars;
+            this.children = children;
+            this.top = top;
+        }
+    }
+
+    private static final class Builder {
+        private final String[] keys;
+        private final int[] targets;
+        private final int topK;
+        private final Comparator<Integer> ranking;
+        private int nodes;
+
+        Builder(String[] keys, int[] targets, long[] weights, int topK) {
+            this.keys = keys;
+            this.targets = targets;
+            this.topK = topK;
+            this.ranking = Comparator.<Integer>comparingLong(t -> -weights[t]).thenComparingInt(t -> t);
+        }
+
+        // Keys [lo, hi) are sorted and share their first `depth` characters
+        Node node(int lo, int hi, int depth) {
+            nodes++;
+            String first = keys[lo];
+            String last = keys[hi - 1];
+            // In a sorted range the common prefix of the first and last key is common to all
+            int end = depth;
+            while (end < first.length() && end < last.length() && first.charAt(end) == last.charAt(end)) {
+                end++;
+            }
+
+            List<Integer> candidates = new ArrayList<>();
+            int i = lo;
+            // Keys ending here sort before their extensions
+            while (i < hi && keys[i].length() == end) {
+                candidates.add(targets[i++]);
+            }
+
+            List<Character> childChars = new ArrayList<>();
+            List<Node> children = new ArrayList<>();
+            while (i < hi) {
+                char c = keys[i].charAt(end);
+                int j = i;
+                while (j < hi && keys[j].charAt(end) == c) {
+                    j++;
+                }
+                Node child = node(i, j, end);
+                childChars.add(c);
+                children.add(child);
+                for (int target : child.top) {
+                    candidates.add(target);
+                }
+                i = j;
+            }
+
+            char[] chars = new char[childChars.size()];
+            for (int k = 0; k < chars.length; k++) {
+                chars[k] = childChars.get(k);
+            }
+            return new Node(first.substring(depth, end), chars, children.toArray(new Node[0]), top(candidates));
+        }
+
+        private int[] top(List<Integer> candidates) {
+            candidates.sort(ranking);
+            Set<Integer> distinct = new LinkedHashSet<>();
+            for (Integer target : candidates) {
+                if (distinct.add(target) && distinct.size() == topK) {
+                    break;
+                }
+            }
+            return distinct.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.superdupermart.shopping.service.search;
+
+import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.document.ProductDocument;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import com.superdupermart.shopping.repository.ProductSearchRepository;
+import com.superdupermart.shopping.service.catalog.ProductChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the search index in step with committed product changes, off the request path.
+ * <p>
+ * {@link ProductChangedEvent}s are delivered after commit, so rolled-back writes are never
+ * indexed. Changed ids are only recorded; repeated edits to a product before the next flush
+ * collapse into one entry. Each flush re-reads the current rows and sends them as {@code _bulk}
+ * requests, so whatever was committed last wins. When Elasticsearch is unavailable the ids stay
+ * queued and flushes back off exponentially.
+ */
+@Service
+public class ProductIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductIndexer.class);
+
+    private final ProductDao productDao;
+    private final ProductSearchRepository productSearchRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final Counter failures;
+
+    // Product id -> System.nanoTime() of the oldest unindexed change
+    private final Map<Integer, Long> pending = new ConcurrentHashMap<>();
+
+    private volatile int consecutiveFailures;
+    private volatile long retryAt;
+
+    @Value("${app.search.indexer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.search.indexer.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+
+    @Value("${app.search.indexer.max-backoff-ms:60000}")
+    private long maxBackoffMs;
+
+    public ProductIndexer(ProductDao productDao, ProductSearchRepository productSearchRepository,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.productDao = productDao;
+        this.productSearchRepository = productSearchRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+
+        Gauge.builder("search.indexer.queue.depth", pending, Map::size)
+                .description("Changed products waiting to be indexed")
+                .register(meterRegistry);
+        Gauge.builder("search.indexer.lag", this, ProductIndexer::lagSeconds)
+                .description("Age of the oldest change not yet indexed")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.failures = Counter.builder("search.indexer.failures")
+                .description("Bulk index requests that failed and were queued for retry")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // The node that made the change indexes it; the index is shared
+        if (event.isRemote()) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (Integer id : event.getProductIds()) {
+            pending.putIfAbsent(id, now);
+        }
+    }
+
+    /**
+     * Runs on a fixed delay, which is also the coalescing window for repeated edits.
+     */
+    @Scheduled(fixedDelayString = "${app.search.indexer.flush-delay-ms:500}")
+    public synchronized void flush() {
+        if (pending.isEmpty() || System.currentTimeMillis() < retryAt) {
+            return;
+        }
+        while (!pending.isEmpty()) {
+            Map<Integer, Long> batch = drain();
+            try {
+                index(batch.keySet());
+            } catch (RuntimeException e) {
+                // Requeue with the original timestamps so the lag metric keeps growing
+                batch.forEach((id, queuedAt) -> pending.merge(id, queuedAt, Math::min));
+                failures.increment();
+                long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(consecutiveFailures, 16));
+                consecutiveFailures++;
+                retryAt = System.currentTimeMillis() + backoff;
+                log.warn("Failed to index {} products, retrying in {} ms: {}", batch.size(), backoff,
+                        e.getMessage());
+                return;
+            }
+            consecutiveFailures = 0;
+            retryAt = 0;
+        }
+    }
+
+    /**
+     * True when every committed change has been sent to Elasticsearch.
+     */
+    public boolean isIdle() {
+        return pending.isEmpty();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        retryAt = 0;
+        flush();
+        if (!pending.isEmpty()) {
+            // The periodic full reindex or the next edit picks these up
+            log.warn("Shutting down with {} products not indexed", pending.size());
+        }
+    }
+
+    private Map<Integer, Long> drain() {
+        Map<Integer, Long> batch = new HashMap<>();
+        for (Iterator<Map.Entry<Integer, Long>> it = pending.entrySet().iterator(); it.hasNext()
+                && batch.size() < batchSize;) {
+            Map.Entry<Integer, Long> entry = it.next();
+            batch.put(entry.getKey(), entry.getValue());
+            it.remove();
+        }
+        return batch;
+    }
+
+    private void index(Set<Integer> ids) {
+        List<ProductSummaryResponse> rows = readOnlyTx.execute(status -> productDao.getProductSummariesByIds(ids));
+        Set<Integer> deleted = new HashSet<>(ids);
+        List<ProductDocument> documents = new ArrayList<>();
+        if (rows != null) {
+            for (ProductSummaryResponse row : rows) {
+                documents.add(ProductReindexService.toDocument(row));
+                deleted.remove(row.getId());
+            }
+        }
+        if (!documents.isEmpty()) {
+            productSearchRepository.saveAll(documents);
+        }
+        if (!deleted.isEmpty()) {
+            productSearchRepository.deleteAllById(deleted);
+        }
+        log.debug("Indexed {} products, removed {}", documents.size(), deleted.size());
+    }
+
+    private double lagSeconds() {
+        long oldest = Long.MAX_VALUE;
+        for (Long queuedAt : pending.values()) {
+            oldest = Math.min(oldest, queuedAt);
+        }
+        return oldest == Long.MAX_VALUE ? 0 : (System.nanoTime() - oldest) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,459 @@
+package com.superdupermart.shopping.service.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.document.ProductDocument;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import com.superdupermart.shopping.dto.ReindexStatusResponse;
+import com.superdupermart.shopping.exception.ReindexInProgressException;
+import com.superdupermart.shopping.service.catalog.ProductChangedEvent;
+import com.superdupermart.shopping.service.lock.RedisLocks;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds the product search index without downtime. Each run fills a new versioned index
+ * ({@code products_v<timestamp>}) while searches keep using the old one, then moves the
+ * {@code products} alias to it in a single atomic alias update.
+ * <p>
+ * The id space is split into partitions that a fixed number of workers scan with keyset queries,
+ * each worker sending one {@code _bulk} request at a time, so in-flight bulk requests never
+ * exceed the worker count. Job state, finished partitions and the ids of products edited during
+ * the run live in Redis: if the node dies, the lock expires and the next start (or the next node
+ * to boot) resumes with the same index, skipping finished partitions. The indices the alias
+ * pointed to before the swap are recorded in the job state, and only those are deleted after it.
+ */
+@Service
+public class ProductReindexService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductReindexService.class);
+
+    public static final String ALIAS = "products";
+    private static final String INDEX_PREFIX = ALIAS + "_v";
+
+    static final String STATE_KEY = "reindex:products:state";
+    private static final String DONE_KEY = "reindex:products:done";
+    private static final String DIRTY_KEY = "reindex:products:dirty";
+    static final String LOCK_KEY = "reindex:products:lock";
+    static final Duration LOCK_TTL = Duration.ofSeconds(30);
+    private static final Duration STATE_TTL = Duration.ofDays(7);
+    private static final DateTimeFormatter VERSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    static final String RUNNING = "RUNNING";
+    static final String DONE = "DONE";
+    static final String FAILED = "FAILED";
+
+    private final ProductDao productDao;
+    private final ElasticsearchOperations operations;
+    private final ElasticsearchClient client;
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionTemplate readOnlyTx;
+    final String nodeId = UUID.randomUUID().toString();
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(named("Reindex-coordinator"));
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(
+            named("Reindex-heartbeat"));
+
+    @Value("${app.search.reindex.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.search.reindex.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.search.reindex.partitions-per-worker:8}")
+    private int partitionsPerWorker;
+
+    @Value("${app.search.reindex.refresh-interval:1s}")
+    private String refreshInterval;
+
+    @Value("${app.search.reindex.replicas:1}")
+    private int replicas;
+
+    @Value("${app.search.reindex.resume-on-startup:false}")
+    private boolean resumeOnStartup;
+
+    public ProductReindexService(ProductDao productDao, ElasticsearchOperations operations,
+            ElasticsearchClient client, StringRedisTemplate redisTemplate,
+            PlatformTransactionManager transactionManager) {
+        this.productDao = productDao;
+        this.operations = operations;
+        this.client = client;
+        this.redisTemplate = redisTemplate;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * Starts a reindex in the background, or resumes one that was interrupted.
+     *
+     * @throws ReindexInProgressException if a reindex is already running on any node
+     */
+    public ReindexStatusResponse start() {
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, nodeId, LOCK_TTL);
+        if (!Boolean.TRUE.equals(locked)) {
+            throw new ReindexInProgressException("A product reindex is already running");
+        }
+        try {
+            Map<Object, Object> state = redisTemplate.opsForHash().entries(STATE_KEY);
+            String status = (String) state.get("status");
+            String index = (String) state.get("index");
+            if ((RUNNING.equals(status) || FAILED.equals(status)) && indexExists(index)) {
+                log.info("Resuming reindex into {}", index);
+                redisTemplate.opsForHash().put(STATE_KEY, "status", RUNNING);
+                redisTemplate.opsForHash().delete(STATE_KEY, "error", "finishedAt");
+            } else {
+                index = createJob();
+            }
+
+            String jobIndex = index;
+            ScheduledFuture<?> lease = heartbeat.scheduleAtFixedRate(this::extendLock,
+                    LOCK_TTL.getSeconds() / 3, LOCK_TTL.getSeconds() / 3, TimeUnit.SECONDS);
+            coordinator.submit(() -> run(jobIndex, lease));
+        } catch (RuntimeException e) {
+            releaseLock();
+            throw e;
+        }
+        return getStatus();
+    }
+
+    public ReindexStatusResponse getStatus() {
+        Map<Object, Object> state = redisTemplate.opsForHash().entries(STATE_KEY);
+        if (state.isEmpty()) {
+            return ReindexStatusResponse.builder().status("IDLE").build();
+        }
+
+        LocalDateTime startedAt = LocalDateTime.parse((String) state.get("startedAt"));
+        Object finishedAt = state.get("finishedAt");
+        LocalDateTime end = finishedAt != null ? LocalDateTime.parse((String) finishedAt) : LocalDateTime.now();
+        long elapsed = Math.max(1, Duration.between(startedAt, end).getSeconds());
+        long indexed = Long.parseLong((String) state.getOrDefault("indexed", "0"));
+        Long done = redisTemplate.opsForSet().size(DONE_KEY);
+
+        return ReindexStatusResponse.builder()
+                .status((String) state.get("status"))
+                .index((String) state.get("index"))
+                .totalProducts(Long.parseLong((String) state.getOrDefault("total", "0")))
+                .indexed(indexed)
+                .partitionsTotal(decodePartitions((String) state.get("partitions")).size())
+                .partitionsDone(done != null ? done.intValue() : 0)
+                .startedAt(startedAt.toString())
+                .elapsedSeconds(elapsed)
+                .docsPerSecond((double) indexed / elapsed)
+                .error((String) state.get("error"))
+                .build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // The originating node records the change; relayed copies would only repeat it
+        if (event.isRemote()) {
+            return;
+        }
+        try {
+            if (RUNNING.equals(redisTemplate.opsForHash().get(STATE_KEY, "status"))) {
+                redisTemplate.opsForSet().add(DIRTY_KEY,
+                        event.getProductIds().stream().map(String::valueOf).toArray(String[]::new));
+            }
+        } catch (Exception e) {
+            log.debug("Could not record product change for reindex: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedReindex() {
+        if (!resumeOnStartup) {
+            return;
+        }
+        try {
+            if (RUNNING.equals(redisTemplate.opsForHash().get(STATE_KEY, "status"))
+                    && !Boolean.TRUE.equals(redisTemplate.hasKey(LOCK_KEY))) {
+                start();
+            }
+        } catch (ReindexInProgressException e) {
+            // Another node got there first
+        } catch (Exception e) {
+            log.warn("Could not check for an interrupted reindex: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        heartbeat.shutdownNow();
+    }
+
+    private String createJob() {
+        String index = INDEX_PREFIX + LocalDateTime.now().format(VERSION_FORMAT);
+        int[] range = readOnlyTx.execute(status -> productDao.getProductIdRange());
+        long total = readOnlyTx.execute(status -> productDao.countProducts());
+        List<int[]> partitions = partition(range, parallelism * partitionsPerWorker);
+
+        // Bulk loading is much cheaper without refreshes and replicas; both are restored before the swap
+        IndexOperations template = operations.indexOps(ProductDocument.class);
+        Settings settings = template.createSettings();
+        settings.put("index.refresh_interval", "-1");
+        settings.put("index.number_of_replicas", "0");
+        operations.indexOps(IndexCoordinates.of(index)).create(settings, template.createMapping());
+
+        redisTemplate.delete(List.of(STATE_KEY, DONE_KEY, DIRTY_KEY));
+        Map<String, String> state = new HashMap<>();
+        state.put("index", index);
+        state.put("status", RUNNING);
+        state.put("partitions", encodePartitions(partitions));
+        state.put("total", String.valueOf(total));
+        state.put("indexed", "0");
+        state.put("startedAt", LocalDateTime.now().toString());
+        redisTemplate.opsForHash().putAll(STATE_KEY, state);
+        redisTemplate.expire(STATE_KEY, STATE_TTL);
+
+        log.info("Reindexing {} products into {} ({} partitions)", total, index, partitions.size());
+        return index;
+    }
+
+    private void run(String index, ScheduledFuture<?> lease) {
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, named("Reindex-worker"));
+        try {
+            List<int[]> partitions = decodePartitions((String) redisTemplate.opsForHash().get(STATE_KEY, "partitions"));
+            Set<String> done = redisTemplate.opsForSet().members(DONE_KEY);
+            Queue<Integer> pending = new ConcurrentLinkedQueue<>();
+            for (int i = 0; i < partitions.size(); i++) {
+                if (done == null || !done.contains(String.valueOf(i))) {
+                    pending.add(i);
+                }
+            }
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < parallelism; i++) {
+                futures.add(workers.submit(() -> {
+                    Integer partition;
+                    while ((partition = pending.poll()) != null) {
+                        indexPartition(index, partitions.get(partition));
+                        redisTemplate.opsForSet().add(DONE_KEY, String.valueOf(partition));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            catchUp(index);
+            client.indices().putSettings(p -> p.index(index)
+                    .settings(s -> s.refreshInterval(t -> t.time(refreshInterval))
+                            .numberOfReplicas(String.valueOf(replicas))));
+            operations.indexOps(IndexCoordinates.of(index)).refresh();
+            swapAlias(index);
+            // Edits that were written to the old index while the alias was moving
+            catchUp(index);
+            deleteOldIndices(index);
+
+            redisTemplate.opsForHash().put(STATE_KEY, "status", DONE);
+            log.info("Reindex into {} finished", index);
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            log.error("Reindex into {} failed, it can be resumed: {}", index, cause.toString());
+            redisTemplate.opsForHash().put(STATE_KEY, "status", FAILED);
+            redisTemplate.opsForHash().put(STATE_KEY, "error", String.valueOf(cause.getMessage()));
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            redisTemplate.opsForHash().put(STATE_KEY, "finishedAt", LocalDateTime.now().toString());
+            workers.shutdownNow();
+            lease.cancel(false);
+            releaseLock();
+        }
+    }
+
+    private void indexPartition(String index, int[] partition) {
+        IndexCoordinates coordinates = IndexCoordinates.of(index);
+        int afterId = partition[0];
+        while (true) {
+            int from = afterId;
+            List<ProductSummaryResponse> rows = readOnlyTx.execute(
+                    status -> productDao.getProductSummariesInRange(from, partition[1], batchSize));
+            if (rows == null || rows.isEmpty()) {
+                return;
+            }
+            operations.save(rows.stream().map(ProductReindexService::toDocument).collect(Collectors.toList()),
+                    coordinates);
+            redisTemplate.opsForHash().increment(STATE_KEY, "indexed", rows.size());
+            afterId = rows.get(rows.size() - 1).getId();
+            if (rows.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    // Re-reads products edited since the scan started and writes their current state to the new index
+    private void catchUp(String index) {
+        IndexCoordinates coordinates = IndexCoordinates.of(index);
+        List<String> popped;
+        while ((popped = redisTemplate.opsForSet().pop(DIRTY_KEY, batchSize)) != null && !popped.isEmpty()) {
+            Set<Integer> ids = popped.stream().map(Integer::valueOf).collect(Collectors.toCollection(HashSet::new));
+            List<ProductSummaryResponse> rows = readOnlyTx.execute(status -> productDao.getProductSummariesByIds(ids));
+            if (rows != null && !rows.isEmpty()) {
+                operations.save(rows.stream().map(ProductReindexService::toDocument).collect(Collectors.toList()),
+                        coordinates);
+                rows.forEach(row -> ids.remove(row.getId()));
+            }
+            // Whatever is left was deleted
+            for (Integer id : ids) {
+                operations.delete(String.valueOf(id), coordinates);
+            }
+        }
+    }
+
+    void swapAlias(String index) throws IOException {
+        List<String> previous = new ArrayList<>();
+        boolean legacyIndex = false;
+        if (client.indices().existsAlias(e -> e.name(ALIAS)).value()) {
+            previous.addAll(client.indices().getAlias(g -> g.name(ALIAS)).result().keySet());
+        } else if (client.indices().exists(e -> e.index(ALIAS)).value()) {
+            // Deployments that predate versioned indices have a concrete index named "products"
+            legacyIndex = true;
+        }
+        previous.remove(index);
+        // Kept from the first attempt: a resumed job that already swapped must still clean those up
+        redisTemplate.opsForHash().putIfAbsent(STATE_KEY, "previous", String.join(",", previous));
+
+        boolean dropLegacy = legacyIndex;
+        client.indices().updateAliases(u -> {
+            for (String old : previous) {
+                u.actions(a -> a.remove(r -> r.index(old).alias(ALIAS)));
+            }
+            if (dropLegacy) {
+                u.actions(a -> a.removeIndex(r -> r.index(ALIAS)));
+            }
+            return u.actions(a -> a.add(add -> add.index(index).alias(ALIAS).isWriteIndex(true)));
+        });
+        log.info("Alias {} now points to {} (was {})", ALIAS, index, legacyIndex ? "concrete index" : previous);
+    }
+
+    // Only what the alias served before the swap; other versioned indices may belong to someone else
+    void deleteOldIndices(String index) throws IOException {
+        String previous = (String) redisTemplate.opsForHash().get(STATE_KEY, "previous");
+        if (previous == null || previous.isEmpty()) {
+            return;
+        }
+        for (String old : previous.split(",")) {
+            if (!old.equals(index)) {
+                client.indices().delete(d -> d.index(old).ignoreUnavailable(true));
+            }
+        }
+    }
+
+    private boolean indexExists(String index) {
+        return index != null && operations.indexOps(IndexCoordinates.of(index)).exists();
+    }
+
+    void extendLock() {
+        try {
+            if (!RedisLocks.extend(redisTemplate, LOCK_KEY, nodeId, LOCK_TTL)) {
+                log.warn("Reindex lock was lost to another node");
+            }
+        } catch (Exception e) {
+            log.warn("Failed to extend reindex lock: {}", e.getMessage());
+        }
+    }
+
+    private void releaseLock() {
+        try {
+            RedisLocks.release(redisTemplate, LOCK_KEY, nodeId);
+        } catch (Exception e) {
+            // Expires on its own
+            log.warn("Failed to release reindex lock: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Splits [min, max] into at most {@code count} contiguous id ranges, each encoded as
+     * {afterId, toId} (exclusive, inclusive) to match the keyset scan.
+     */
+    static List<int[]> partition(int[] range, int count) {
+        List<int[]> partitions = new ArrayList<>();
+        if (range == null) {
+            return partitions;
+        }
+        long span = (long) range[1] - range[0] + 1;
+        long step = Math.max(1, (span + count - 1) / count);
+        for (long from = range[0]; from <= range[1]; from += step) {
+            partitions.add(new int[] { (int) (from - 1), (int) Math.min(range[1], from + step - 1) });
+        }
+        return partitions;
+    }
+
+    static String encodePartitions(List<int[]> partitions) {
+        return partitions.stream().map(p -> p[0] + ":" + p[1]).collect(Collectors.joining(","));
+    }
+
+    static List<int[]> decodePartitions(String encoded) {
+        List<int[]> partitions = new ArrayList<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return partitions;
+        }
+        for (String part : encoded.split(",")) {
+            String[] bounds = part.split(":");
+            partitions.add(new int[] { Integer.parseInt(bounds[0]), Integer.parseInt(bounds[1]) });
+        }
+        return partitions;
+    }
+
+    static ProductDocument toDocument(ProductSummaryResponse row) {
+        return ProductDocument.builder()
+                .id(row.getId())
+                .name(row.getName())
+                .description(row.getDescription())
+                .price(row.getRetailPrice())
+                .imageContentType(row.getImageContentType())
+                .imageVersion(row.getImageVersion())
+                .category(row.getCategory())
+                .brand(row.getBrand())
+                .build();
+    }
+
+    private static java.util.concurrent.ThreadFactory named(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
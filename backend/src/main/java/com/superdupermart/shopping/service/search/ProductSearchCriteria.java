@@ -0,0 +1,33 @@
+package com.superdupermart.shopping.service.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What the storefront search box and facet sidebar ask for; every field is optional.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchCriteria {
+    private String query;
+    private Double minPrice;
+    private Double maxPrice;
+    private String category;
+    private String brand;
+
+    public ProductSearchCriteria withQuery(String query) {
+        return new ProductSearchCriteria(query, minPrice, maxPrice, category, brand);
+    }
+
+    public boolean hasText() {
+        return query != null && !query.isBlank();
+    }
+
+    public boolean hasPriceFilter() {
+        return minPrice != null || maxPrice != null;
+    }
+}
@@ -0,0 +1,31 @@
+package com.superdupermart.shopping.service.search;
+
+import com.superdupermart.shopping.document.ProductDocument;
+import com.superdupermart.shopping.dto.SearchFacets;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ProductSearchResult {
+    private List<ProductDocument> documents;
+    private long totalHits;
+    // Null unless facets were requested
+    private SearchFacets facets;
+    // Cursor mode only: token for the next page, null on the last one
+    private String nextCursor;
+    // Answered by the in-memory fallback index instead of Elasticsearch
+    private boolean degraded;
+
+    public ProductSearchResult(List<ProductDocument> documents, long totalHits, SearchFacets facets) {
+        this(documents, totalHits, facets, null);
+    }
+
+    public ProductSearchResult(List<ProductDocument> documents, long totalHits, SearchFacets facets,
+            String nextCursor) {
+        this.documents = documents;
+        this.totalHits = totalHits;
+        this.facets = facets;
+        this.nextCursor = nextCursor;
+    }
+}
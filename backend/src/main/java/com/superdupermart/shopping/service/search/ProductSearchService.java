@@ -0,0 +1,258 @@
+package com.superdupermart.shopping.service.search;
+
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.json.JsonData;
+import com.superdupermart.shopping.document.ProductDocument;
+import com.superdupermart.shopping.dto.SearchFacets;
+import com.superdupermart.shopping.exception.InvalidCursorException;
+import com.superdupermart.shopping.service.pagination.KeysetCursor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.UncategorizedElasticsearchException;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Product search against Elasticsearch. Text goes in the scoring part of a bool query; category,
+ * brand and price go in filter context, which skips scoring and lets Elasticsearch cache the
+ * filter bitsets. Facet counts come from aggregations over the same filtered hits.
+ * <p>
+ * Cursor mode pages with {@code search_after} inside a point in time (PIT): every page costs the
+ * same however deep it is, and the client sees one consistent view of the index even while
+ * products are reindexed. The cursor carries the PIT id and the sort values of the last hit.
+ * Every PIT holds search contexts open on the cluster until it is closed or its keep-alive runs
+ * out, so this node opens at most {@code max-pits-per-keep-alive} per keep-alive period; past
+ * that, cursors page with plain {@code search_after} and lose only the consistent view.
+ */
+@Service
+public class ProductSearchService {
+
+    private static final String CATEGORIES = "categories";
+    private static final String BRANDS = "brands";
+    private static final String PRICES = "prices";
+
+    private final ElasticsearchOperations operations;
+
+    @Value("${app.search.cursor.keep-alive:2m}")
+    private Duration keepAlive;
+
+    @Value("${app.search.cursor.max-pits-per-keep-alive:500}")
+    private int maxPitsPerKeepAlive;
+
+    // PITs opened in the current keep-alive period
+    private long pitWindowStart;
+    private int pitsInWindow;
+
+    @Value("${app.search.facets.price-interval:50}")
+    private BigDecimal priceInterval;
+
+    @Value("${app.search.facets.size:20}")
+    private int facetSize;
+
+    public ProductSearchService(@Qualifier("searchOperations") ElasticsearchOperations operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * @param page zero-based
+     */
+    public ProductSearchResult search(ProductSearchCriteria criteria, int page, int size, boolean withFacets) {
+        NativeQueryBuilder builder = NativeQuery.builder()
+                .withQuery(toQuery(criteria))
+                .withPageable(PageRequest.of(page, size));
+        if (withFacets) {
+            builder.withAggregation(CATEGORIES, Aggregation.of(a -> a.terms(t -> t.field("category").size(facetSize))))
+                    .withAggregation(BRANDS, Aggregation.of(a -> a.terms(t -> t.field("brand").size(facetSize))))
+                    .withAggregation(PRICES, Aggregation.of(a -> a.histogram(h -> h.field("price")
+                            .interval(priceInterval.doubleValue())
+                            .minDocCount(1))));
+        }
+
+        SearchHits<ProductDocument> hits = operations.search(builder.build(), ProductDocument.class);
+        List<ProductDocument> documents = hits.getSearchHits().stream()
+                .map(SearchHit::getContent)
+                .collect(Collectors.toList());
+        SearchFacets facets = withFacets ? toFacets((ElasticsearchAggregations) hits.getAggregations()) : null;
+        return new ProductSearchResult(documents, hits.getTotalHits(), facets);
+    }
+
+    /**
+     * @param cursor nextCursor of the previous page; empty for the first page
+     */
+    public ProductSearchResult searchAfter(ProductSearchCriteria criteria, String cursor, int size) {
+        // Before anything is opened on the cluster
+        KeysetCursor.checkPageSize(size);
+        // Text queries rank by score; everything else by id. id also breaks score ties.
+        int sortKeys = criteria.hasText() ? 2 : 1;
+        String[] keys = KeysetCursor.decode(cursor, sortKeys + 1);
+        // Empty when paging without a PIT
+        String pitId;
+        List<Object> searchAfter = null;
+        if (keys == null) {
+            pitId = tryAcquirePit()
+                    ? operations.openPointInTime(IndexCoordinates.of(ProductReindexService.ALIAS), keepAlive)
+                    : "";
+        } else {
+            pitId = keys[0];
+            searchAfter = parseSortValues(keys, criteria.hasText());
+        }
+        boolean openedHere = keys == null && !pitId.isEmpty();
+
+        NativeQueryBuilder builder = NativeQuery.builder()
+                .withQuery(toQuery(criteria))
+                .withPageable(PageRequest.of(0, size))
+                .withTrackTotalHits(false);
+        if (!pitId.isEmpty()) {
+            builder.withPointInTime(new org.springframework.data.elasticsearch.core.query.Query.PointInTime(pitId,
+                    keepAlive));
+        }
+        if (criteria.hasText()) {
+            builder.withSort(s -> s.score(score -> score.order(SortOrder.Desc)));
+        }
+        builder.withSort(s -> s.field(f -> f.field("id").order(SortOrder.Asc)));
+        if (searchAfter != null) {
+            builder.withSearchAfter(searchAfter);
+        }
+
+        SearchHits<ProductDocument> hits;
+        try {
+            hits = operations.search(builder.build(), ProductDocument.class);
+        } catch (RuntimeException e) {
+            // No cursor will ever carry a PIT opened for this request
+            if (openedHere) {
+                closeQuietly(pitId);
+            }
+            if (keys != null && !pitId.isEmpty() && e instanceof UncategorizedElasticsearchException
+                    && Integer.valueOf(404).equals(((UncategorizedElasticsearchException) e).getStatusCode())) {
+                throw new InvalidCursorException("Search cursor expired, start again from the first page");
+            }
+            throw e;
+        }
+
+        List<SearchHit<ProductDocument>> page = hits.getSearchHits();
+        // ES may hand back a new PIT id; the latest one must be used from here on
+        String currentPit = hits.getPointInTimeId() != null ? hits.getPointInTimeId() : pitId;
+        String nextCursor = null;
+        if (page.size() < size) {
+            // Last page: nobody will ask for this PIT again
+            if (!currentPit.isEmpty()) {
+                closeQuietly(currentPit);
+            }
+        } else {
+            List<Object> last = page.get(page.size() - 1).getSortValues();
+            Object[] cursorKeys = new Object[last.size() + 1];
+            cursorKeys[0] = currentPit;
+            for (int i = 0; i < last.size(); i++) {
+                cursorKeys[i + 1] = last.get(i);
+            }
+            nextCursor = KeysetCursor.encode(cursorKeys);
+        }
+
+        List<ProductDocument> documents = page.stream().map(SearchHit::getContent).collect(Collectors.toList());
+        return new ProductSearchResult(documents, documents.size(), null, nextCursor);
+    }
+
+    private static List<Object> parseSortValues(String[] keys, boolean byScore) {
+        try {
+            List<Object> values = new ArrayList<>();
+            int i = 1;
+            if (byScore) {
+                values.add(Double.valueOf(keys[i++]));
+            }
+            values.add(Long.valueOf(keys[i]));
+            return values;
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException("Malformed pagination cursor");
+        }
+    }
+
+    private synchronized boolean tryAcquirePit() {
+        long now = System.currentTimeMillis();
+        if (now - pitWindowStart >= keepAlive.toMillis()) {
+            pitWindowStart = now;
+            pitsInWindow = 0;
+        }
+        if (pitsInWindow >= maxPitsPerKeepAlive) {
+            return false;
+        }
+        pitsInWindow++;
+        return true;
+    }
+
+    private void closeQuietly(String pitId) {
+        try {
+            operations.closePointInTime(pitId);
+        } catch (RuntimeException e) {
+            // It expires after the keep-alive anyway
+        }
+    }
+
+    /**
+     * Only the text clause scores. Every other constraint is a filter: no scoring, and
+     * Elasticsearch caches the matching doc set per segment so repeated filters cost a lookup.
+     */
+    static Query toQuery(ProductSearchCriteria criteria) {
+        return Query.of(q -> q.bool(b -> {
+            if (criteria.hasText()) {
+                // Whole-word name hits outrank partial ones, which outrank description hits
+                b.must(m -> m.multiMatch(mm -> mm.query(criteria.getQuery())
+                        .fields("name^3", "name.prefix", "description")));
+            }
+            if (criteria.getCategory() != null) {
+                b.filter(f -> f.term(t -> t.field("category").value(criteria.getCategory())));
+            }
+            if (criteria.getBrand() != null) {
+                b.filter(f -> f.term(t -> t.field("brand").value(criteria.getBrand())));
+            }
+            if (criteria.hasPriceFilter()) {
+                b.filter(f -> f.range(r -> {
+                    r.field("price");
+                    if (criteria.getMinPrice() != null) {
+                        r.gte(JsonData.of(criteria.getMinPrice()));
+                    }
+                    if (criteria.getMaxPrice() != null) {
+                        r.lte(JsonData.of(criteria.getMaxPrice()));
+                    }
+                    return r;
+                }));
+            }
+            return b;
+        }));
+    }
+
+    private SearchFacets toFacets(ElasticsearchAggregations aggregations) {
+        SearchFacets facets = SearchFacets.builder().build();
+        if (aggregations == null) {
+            return facets;
+        }
+        aggregate(aggregations, CATEGORIES).sterms().buckets().array().forEach(bucket -> facets.getCategories()
+                .add(new SearchFacets.FacetCount(bucket.key().stringValue(), bucket.docCount())));
+        aggregate(aggregations, BRANDS).sterms().buckets().array().forEach(bucket -> facets.getBrands()
+                .add(new SearchFacets.FacetCount(bucket.key().stringValue(), bucket.docCount())));
+        aggregate(aggregations, PRICES).histogram().buckets().array().forEach(bucket -> {
+            BigDecimal from = BigDecimal.valueOf(bucket.key());
+            facets.getPrices().add(new SearchFacets.PriceBucket(from, from.add(priceInterval), bucket.docCount()));
+        });
+        return facets;
+    }
+
+    private static Aggregate aggregate(ElasticsearchAggregations aggregations, String name) {
+        return aggregations.get(name).aggregation().getAggregate();
+    }
+}
@@ -0,0 +1,274 @@
+package com.superdupermart.shopping.service.search;
+
+import com.superdupermart.shopping.dao.OrderDao;
+import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import com.superdupermart.shopping.dto.SuggestionResponse;
+import com.superdupermart.shopping.service.catalog.ProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Typeahead for the storefront search box, answered from an in-process {@link PrefixIndex}
+ * without touching Elasticsearch.
+ * <p>
+ * Every in-stock product name is indexed from each word onwards, so "iph" finds
+ * "Apple iPhone 15", and each distinct name word is also offered as a term. Products rank by
+ * units sold; terms by the combined sales of the products using them. Product change events
+ * only reload the changed rows, after which the trie is rebuilt from memory; sales weights are
+ * refreshed on a slower schedule. Until a full load succeeds (or while too many products are in
+ * stock) it is retried every retry-ms.
+ */
+@Service
+public class ProductSuggestService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSuggestService.class);
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MAX_KEY_LENGTH = 64;
+    private static final int MIN_TERM_LENGTH = 3;
+    private static final int RELOAD_CHUNK = 1000;
+
+    private final ProductDao productDao;
+    private final OrderDao orderDao;
+    private final TransactionTemplate readOnlyTx;
+
+    // In-stock products only: id -> display name
+    private final Map<Integer, String> names = new ConcurrentHashMap<>();
+    private final Set<Integer> dirtyIds = ConcurrentHashMap.newKeySet();
+    private volatile Map<Integer, Long> unitsSold = Map.of();
+    private volatile Suggestions suggestions;
+
+    @Value("${app.search.suggest.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.search.suggest.max-results:10}")
+    private int maxResults;
+
+    @Value("${app.search.suggest.max-products:200000}")
+    private int maxProducts;
+
+    @Value("${app.products.export-fetch-size:500}")
+    private int fetchSize;
+
+    public ProductSuggestService(ProductDao productDao, OrderDao orderDao,
+            PlatformTransactionManager transactionManager) {
+        this.productDao = productDao;
+        this.orderDao = orderDao;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        Suggestions current = suggestions;
+        String key = normalize(prefix);
+        if (current == null || key.isEmpty()) {
+            return List.of();
+        }
+        int[] hits = current.index.lookup(key);
+        List<SuggestionResponse> result = new ArrayList<>(Math.min(limit, hits.length));
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < hits.length && result.size() < limit; i++) {
+            SuggestionResponse suggestion = current.table[hits[i]];
+            // A one-word product name and the matching term would read the same
+            if (seen.add(suggestion.getText().toLowerCase(Locale.ROOT))) {
+                result.add(suggestion);
+            }
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Remote events included: every node holds its own index
+        if (enabled) {
+            dirtyIds.addAll(event.getProductIds());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.suggest.retry-ms:300000}",
+            initialDelayString = "${app.search.suggest.retry-ms:300000}")
+    public void retryLoad() {
+        if (enabled && suggestions == null) {
+            reload();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.suggest.refresh-delay-ms:1000}")
+    public synchronized void applyPendingChanges() {
+        if (suggestions == null || dirtyIds.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>(dirtyIds.size());
+        for (Iterator<Integer> it = dirtyIds.iterator(); it.hasNext();) {
+            ids.add(it.next());
+            it.remove();
+        }
+
+        Map<Integer, String> changed = new HashMap<>();
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                for (int from = 0; from < ids.size(); from += RELOAD_CHUNK) {
+                    List<Integer> chunk = ids.subList(from, Math.min(from + RELOAD_CHUNK, ids.size()));
+                    for (ProductSummaryResponse p : productDao.getProductSummariesByIds(chunk)) {
+                        if (isInStock(p)) {
+                            changed.put(p.getId(), p.getName());
+                        }
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            dirtyIds.addAll(ids);
+            log.warn("Failed to refresh suggestions: {}", e.getMessage());
+            return;
+        }
+
+        // Deleted or sold out products simply don't come back
+        ids.forEach(names::remove);
+        names.putAll(changed);
+        rebuildIndex();
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.suggest.weights-refresh-ms:900000}",
+            initialDelayString = "${app.search.suggest.weights-refresh-ms:900000}")
+    public synchronized void refreshWeights() {
+        if (suggestions == null) {
+            return;
+        }
+        try {
+            unitsSold = readOnlyTx.execute(status -> orderDao.getUnitsSoldByProduct());
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh suggestion weights, keeping the previous ones: {}", e.getMessage());
+            return;
+        }
+        rebuildIndex();
+    }
+
+    public synchronized void reload() {
+        // The load reads every product, so changes recorded so far are covered by it
+        dirtyIds.clear();
+        Map<Integer, String> loaded = new HashMap<>();
+        Map<Integer, Long> sold;
+        try {
+            sold = readOnlyTx.execute(status -> {
+                try (Stream<ProductSummaryResponse> products = productDao.streamProductSummaries(true, fetchSize)) {
+                    Iterator<ProductSummaryResponse> it = products.iterator();
+                    while (it.hasNext() && loaded.size() <= maxProducts) {
+                        ProductSummaryResponse p = it.next();
+                        loaded.put(p.getId(), p.getName());
+                    }
+                }
+                return orderDao.getUnitsSoldByProduct();
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to load suggestions: {}", e.getMessage());
+            return;
+        }
+        if (loaded.size() > maxProducts) {
+            log.warn("More than {} products in stock, typeahead suggestions are disabled", maxProducts);
+            names.clear();
+            suggestions = null;
+            return;
+        }
+        names.clear();
+        names.putAll(loaded);
+        unitsSold = sold;
+        rebuildIndex();
+    }
+
+    private void rebuildIndex() {
+        List<SuggestionResponse> table = new ArrayList<>();
+        List<Long> weights = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        List<Integer> targets = new ArrayList<>();
+        Map<String, Long> termWeights = new HashMap<>();
+        Map<Integer, Long> sold = unitsSold;
+
+        names.forEach((id, name) -> {
+            String[] words = words(name);
+            if (words.length == 0) {
+                return;
+            }
+            long weight = 1 + sold.getOrDefault(id, 0L);
+            int target = table.size();
+            table.add(SuggestionResponse.builder().text(name).productId(id).build());
+            weights.add(weight);
+            for (int i = 0; i < words.length; i++) {
+                keys.add(truncate(String.join(" ", Arrays.copyOfRange(words, i, words.length))));
+                targets.add(target);
+            }
+            for (String word : new LinkedHashSet<>(Arrays.asList(words))) {
+                if (word.length() >= MIN_TERM_LENGTH) {
+                    termWeights.merge(word, weight, Long::sum);
+                }
+            }
+        });
+        termWeights.forEach((term, weight) -> {
+            keys.add(truncate(term));
+            targets.add(table.size());
+            table.add(SuggestionResponse.builder().text(term).build());
+            weights.add(weight);
+        });
+
+        PrefixIndex index = PrefixIndex.build(keys, targets.stream().mapToInt(Integer::intValue).toArray(),
+                weights.stream().mapToLong(Long::longValue).toArray(), maxResults);
+        suggestions = new Suggestions(index, table.toArray(new SuggestionResponse[0]));
+        log.debug("Suggestion index rebuilt: {} entries, {} keys, {} nodes", table.size(), keys.size(),
+                index.nodeCount());
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : String.join(" ", words(text));
+    }
+
+    private static String[] words(String text) {
+        String cleaned = NON_WORD.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+        return cleaned.isEmpty() ? new String[0] : cleaned.split(" ");
+    }
+
+    private static String truncate(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    private static boolean isInStock(ProductSummaryResponse p) {
+        return p.getQuantity() != null && p.getQuantity() > 0;
+    }
+
+    private static final class Suggestions {
+        private final PrefixIndex index;
+        private final SuggestionResponse[] table;
+
+        private Suggestions(PrefixIndex index, SuggestionResponse[] table) {
+            this.index = index;
+            this.table = table;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.superdupermart.shopping.service.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether product search should call Elasticsearch at all.
+ * <p>
+ * After {@code failure-threshold} consecutive failures (errors, or calls slower than
+ * {@code slow-call-ms}) the breaker opens and searches go straight to the fallback index for
+ * {@code open-ms}. Then a single trial call is let through: success closes the breaker, failure
+ * opens it for another period. Everyone else keeps using the fallback while the trial runs.
+ */
+@Component
+public class SearchCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final Logger log = LoggerFactory.getLogger(SearchCircuitBreaker.class);
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntil;
+
+    @Value("${app.search.breaker.failure-threshold:3}")
+    private int failureThreshold;
+
+    @Value("${app.search.breaker.slow-call-ms:2000}")
+    private long slowCallMs;
+
+    @Value("${app.search.breaker.open-ms:30000}")
+    private long openMs;
+
+    public SearchCircuitBreaker(MeterRegistry meterRegistry) {
+        Gauge.builder("search.breaker.state", this, breaker -> breaker.getState().ordinal())
+                .description("Elasticsearch circuit breaker: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return true when the caller should try Elasticsearch; it must then report the outcome
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN && System.currentTimeMillis() >= openUntil) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * A call that returned; a slow one still counts against Elasticsearch.
+     */
+    public synchronized void onSuccess(long elapsedMs) {
+        if (elapsedMs > slowCallMs) {
+            onFailure();
+            return;
+        }
+        if (state != State.CLOSED) {
+            log.info("Elasticsearch search recovered, leaving fallback mode");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                log.warn("Elasticsearch search failing, using the fallback index for {} ms", openMs);
+            }
+            state = State.OPEN;
+            openUntil = System.currentTimeMillis() + openMs;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,57 @@
+package com.superdupermart.shopping.service.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Canonical form of a search box query, used both as the {@code product_search} cache key and
+ * as the query actually sent, so " Laptop", "laptop" and "LAPTOP " share one entry.
+ * <p>
+ * Queries are lower-cased with whitespace collapsed. The text query is a multi_match over
+ * analyzed fields, where word order does not affect matching or scoring, so tokens are also
+ * sorted ("gaming laptop" = "laptop gaming"). Queries containing a double quote keep their
+ * order in case phrase syntax is ever honoured.
+ */
+public final class SearchQueryNormalizer {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SearchQueryNormalizer() {
+    }
+
+    /**
+     * @return null for a null or blank query
+     */
+    public static String normalize(String query) {
+        String cleaned = clean(query);
+        if (cleaned == null || cleaned.indexOf('"') >= 0) {
+            return cleaned;
+        }
+        String[] tokens = cleaned.split(" ");
+        Arrays.sort(tokens);
+        return String.join(" ", tokens);
+    }
+
+    /**
+     * Lower-cased with whitespace collapsed but in the shopper's own word order, for anything shown
+     * back to them (e.g. spelling suggestions).
+     *
+     * @return null for a null or blank query
+     */
+    public static String clean(String query) {
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+        return WHITESPACE.matcher(query.strip().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+
+    /**
+     * Key of a page-mode search in {@code product_search}, shared by the cache annotation and the re-warm.
+     */
+    public static List<Object> cacheKey(String query, Double minPrice, Double maxPrice, String category,
+            String brand, int page, int size) {
+        return Arrays.asList(normalize(query), minPrice, maxPrice, category, brand, page, size);
+    }
+}
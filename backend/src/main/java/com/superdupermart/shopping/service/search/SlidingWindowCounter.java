@@ -0,0 +1,94 @@
+package com.superdupermart.shopping.service.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate per-key event counts over the last {@code buckets × bucketMs} milliseconds.
+ * <p>
+ * Time is cut into fixed buckets kept in a ring. Recording never blocks: an expired bucket is
+ * swapped for a fresh one with a compare-and-set, and counts are {@link LongAdder}s. Keys
+ * beyond {@code maxKeysPerBucket} are dropped for that bucket, which only ever loses rare keys.
+ */
+final class SlidingWindowCounter<K> {
+
+    private final AtomicReferenceArray<Bucket<K>> ring;
+    private final long bucketMs;
+    private final int maxKeysPerBucket;
+    private final LongSupplier clock;
+
+    SlidingWindowCounter(int buckets, long bucketMs, int maxKeysPerBucket) {
+        this(buckets, bucketMs, maxKeysPerBucket, System::currentTimeMillis);
+    }
+
+    SlidingWindowCounter(int buckets, long bucketMs, int maxKeysPerBucket, LongSupplier clock) {
+        this.ring = new AtomicReferenceArray<>(buckets);
+        this.bucketMs = bucketMs;
+        this.maxKeysPerBucket = maxKeysPerBucket;
+        this.clock = clock;
+    }
+
+    void record(K key) {
+        long epoch = clock.getAsLong() / bucketMs;
+        int slot = (int) (epoch % ring.length());
+        Bucket<K> bucket = ring.get(slot);
+        while (bucket == null || bucket.epoch != epoch) {
+            if (bucket != null && bucket.epoch > epoch) {
+                // This thread stalled past a whole window; the event is too old to count
+                return;
+            }
+            Bucket<K> fresh = new Bucket<>(epoch);
+            bucket = ring.compareAndSet(slot, bucket, fresh) ? fresh : ring.get(slot);
+        }
+
+        LongAdder count = bucket.counts.get(key);
+        if (count == null) {
+            if (bucket.counts.size() >= maxKeysPerBucket) {
+                return;
+            }
+            LongAdder created = new LongAdder();
+            count = bucket.counts.putIfAbsent(key, created);
+            if (count == null) {
+                count = created;
+            }
+        }
+        count.increment();
+    }
+
+    /**
+     * @return up to {@code limit} keys seen at least {@code minCount} times in the window, most frequent first
+     */
+    List<K> top(int limit, long minCount) {
+        long oldest = clock.getAsLong() / bucketMs - ring.length() + 1;
+        Map<K, Long> totals = new HashMap<>();
+        for (int i = 0; i < ring.length(); i++) {
+            Bucket<K> bucket = ring.get(i);
+            if (bucket != null && bucket.epoch >= oldest) {
+                bucket.counts.forEach((key, count) -> totals.merge(key, count.sum(), Long::sum));
+            }
+        }
+        List<Map.Entry<K, Long>> entries = new ArrayList<>(totals.entrySet());
+        entries.removeIf(entry -> entry.getValue() < minCount);
+        entries.sort(Map.Entry.<K, Long>comparingByValue().reversed());
+        List<K> result = new ArrayList<>(Math.min(limit, entries.size()));
+        for (int i = 0; i < entries.size() && i < limit; i++) {
+            result.add(entries.get(i).getKey());
+        }
+        return result;
+    }
+
+    private static final class Bucket<K> {
+        private final long epoch;
+        private final ConcurrentHashMap<K, LongAdder> counts = new ConcurrentHashMap<>();
+
+        private Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.superdupermart.shopping.service.search;
+
+import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import com.superdupermart.shopping.service.catalog.ProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * "Did you mean" for product search, from a {@link SpellingDictionary} of the words in product
+ * names and descriptions, weighted up by the words of queries that found enough products.
+ * <p>
+ * Changed products are added incrementally. Query words are only counted on the search path and
+ * merged on the periodic full rebuild, which also drops vanished words and re-applies the memory
+ * budget in frequency order.
+ */
+@Service
+public class SpellingCorrectionService {
+
+    private static final Logger log = LoggerFactory.getLogger(SpellingCorrectionService.class);
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MAX_WORD_LENGTH = 30;
+    private static final int RELOAD_CHUNK = 1000;
+    // Query words kept across rebuilds
+    private static final int MAX_QUERY_WORDS = 50000;
+
+    private final ProductDao productDao;
+    private final TransactionTemplate readOnlyTx;
+    private final Set<Integer> dirtyIds = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> queryWords = new ConcurrentHashMap<>();
+    private volatile SpellingDictionary dictionary;
+
+    @Value("${app.search.spelling.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.search.spelling.max-edit-distance:2}")
+    private int maxEditDistance;
+
+    @Value("${app.search.spelling.prefix-length:7}")
+    private int prefixLength;
+
+    @Value("${app.search.spelling.max-memory-mb:32}")
+    private int maxMemoryMb;
+
+    @Value("${app.search.spelling.min-word-length:3}")
+    private int minWordLength;
+
+    @Value("${app.search.spelling.few-hits:2}")
+    private long fewHits;
+
+    @Value("${app.products.export-fetch-size:500}")
+    private int fetchSize;
+
+    public SpellingCorrectionService(ProductDao productDao, PlatformTransactionManager transactionManager) {
+        this.productDao = productDao;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /**
+     * Whether a search with this many hits deserves a spelling check.
+     */
+    public boolean tooFewHits(long totalHits) {
+        return dictionary != null && totalHits <= fewHits;
+    }
+
+    /**
+     * @param query lower-cased query with single spaces, in the shopper's word order
+     * @return the query with unknown words replaced by their closest dictionary word, or null
+     *         when nothing would change
+     */
+    public String correct(String query) {
+        SpellingDictionary current = dictionary;
+        if (current == null || query == null) {
+            return null;
+        }
+        String[] tokens = query.split(" ");
+        boolean changed = false;
+        for (int i = 0; i < tokens.length; i++) {
+            if (!isWord(tokens[i])) {
+                continue;
+            }
+            String replacement = current.lookup(tokens[i]);
+            if (replacement != null && !replacement.equals(tokens[i])) {
+                tokens[i] = replacement;
+                changed = true;
+            }
+        }
+        return changed ? String.join(" ", tokens) : null;
+    }
+
+    /**
+     * Queries that found products make the words shoppers actually use more likely suggestions.
+     * Only words that are already catalog words count: a query also hits on partial words through
+     * name.prefix ("lapt" finds "Laptop"), so a hit proves nothing about a word that isn't indexed.
+     * Runs on every search, so it only touches the lock-free counts; they reach the dictionary on
+     * the next rebuild.
+     */
+    public void recordSuccessfulQuery(String query) {
+        SpellingDictionary current = dictionary;
+        if (current == null || query == null) {
+            return;
+        }
+        for (String word : words(query)) {
+            if (!isWord(word) || !current.contains(word)) {
+                continue;
+            }
+            if (queryWords.size() < MAX_QUERY_WORDS || queryWords.containsKey(word)) {
+                queryWords.merge(word, 1L, Long::sum);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Remote events included: every node holds its own dictionary
+        if (enabled) {
+            dirtyIds.addAll(event.getProductIds());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.spelling.refresh-delay-ms:5000}")
+    public synchronized void applyPendingChanges() {
+        SpellingDictionary current = dictionary;
+        if (current == null || dirtyIds.isEmpty()) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>(dirtyIds.size());
+        for (Iterator<Integer> it = dirtyIds.iterator(); it.hasNext();) {
+            ids.add(it.next());
+            it.remove();
+        }
+
+        Map<String, Long> counts = new HashMap<>();
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                for (int from = 0; from < ids.size(); from += RELOAD_CHUNK) {
+                    productDao.getProductSummariesByIds(ids.subList(from, Math.min(from + RELOAD_CHUNK, ids.size())))
+                            .forEach(p -> countWords(p, counts));
+                }
+            });
+        } catch (RuntimeException e) {
+            dirtyIds.addAll(ids);
+            log.warn("Failed to refresh the spelling dictionary: {}", e.getMessage());
+            return;
+        }
+        counts.forEach(current::add);
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.spelling.rebuild-ms:3600000}",
+            initialDelayString = "${app.search.spelling.rebuild-ms:3600000}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Long> counts = new HashMap<>();
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<ProductSummaryResponse> products = productDao.streamProductSummaries(false, fetchSize)) {
+                    products.forEach(p -> countWords(p, counts));
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to build the spelling dictionary: {}", e.getMessage());
+            return;
+        }
+        // Words no product uses any more are not learned back from old queries
+        queryWords.forEach((word, count) -> counts.computeIfPresent(word, (w, n) -> n + count));
+
+        SpellingDictionary built = new SpellingDictionary(maxEditDistance, prefixLength, maxMemoryMb * 1024L * 1024L);
+        List<Map.Entry<String, Long>> byFrequency = new ArrayList<>(counts.entrySet());
+        byFrequency.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        int dropped = 0;
+        for (Map.Entry<String, Long> entry : byFrequency) {
+            if (!built.add(entry.getKey(), entry.getValue())) {
+                dropped++;
+            }
+        }
+        dictionary = built;
+        if (dropped > 0) {
+            log.warn("Spelling dictionary hit its {} MB budget, {} rare words left out", maxMemoryMb, dropped);
+        }
+        log.info("Spelling dictionary built: {} words, ~{} KB", built.size(), built.estimatedBytes() / 1024);
+    }
+
+    private void countWords(ProductSummaryResponse product, Map<String, Long> counts) {
+        for (String text : new String[] { product.getName(), product.getDescription() }) {
+            for (String word : words(text)) {
+                if (isWord(word)) {
+                    counts.merge(word, 1L, Long::sum);
+                }
+            }
+        }
+    }
+
+    // Numbers and model codes are left alone: "x100" is no misspelling of "x200"
+    private boolean isWord(String token) {
+        if (token.length() < minWordLength || token.length() > MAX_WORD_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isLetter(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String[] words(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String cleaned = NON_WORD.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+        return cleaned.isEmpty() ? new String[0] : cleaned.split(" ");
+    }
+}
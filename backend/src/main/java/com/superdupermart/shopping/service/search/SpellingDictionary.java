@@ -0,0 +1,244 @@
+package com.superdupermart.shopping.service.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Symmetric-delete spelling dictionary (the SymSpell approach).
+ * <p>
+ * Every word is indexed under all strings reachable from its first {@code prefixLength}
+ * characters by deleting up to {@code maxEditDistance} characters. A lookup generates the same
+ * deletes from the misspelled word, so candidates are found with hash lookups alone, and only
+ * those candidates get a real (Damerau) edit distance computed. Among words within the distance
+ * the closest wins, then the most frequent.
+ * <p>
+ * Words can be added at any time. Their size is estimated as they are added, and new words are
+ * refused once {@code maxBytes} is reached. Building in descending frequency therefore keeps the
+ * most useful words.
+ */
+public final class SpellingDictionary {
+
+    // Rough heap cost of a new delete key (String + array + map entry) and of one posting
+    private static final int KEY_OVERHEAD_BYTES = 96;
+    private static final int POSTING_BYTES = 4;
+    private static final int WORD_OVERHEAD_BYTES = 64;
+
+    private final int maxEditDistance;
+    private final int prefixLength;
+    private final long maxBytes;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    private long[] counts = new long[64];
+    private final Map<String, int[]> deletes = new HashMap<>();
+    private long estimatedBytes;
+
+    public SpellingDictionary(int maxEditDistance, int prefixLength, long maxBytes) {
+        this.maxEditDistance = maxEditDistance;
+        this.prefixLength = Math.max(prefixLength, maxEditDistance + 1);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Adds {@code count} occurrences of a word.
+     *
+     * @return false when the word is new and the memory budget is used up
+     */
+    public boolean add(String word, long count) {
+        lock.writeLock().lock();
+        try {
+            Integer id = wordIds.get(word);
+            if (id != null) {
+                counts[id] += count;
+                return true;
+            }
+            Set<String> keys = deletesOf(word.length() > prefixLength ? word.substring(0, prefixLength) : word);
+            long cost = WORD_OVERHEAD_BYTES + 2L * word.length();
+            for (String key : keys) {
+                cost += deletes.containsKey(key) ? POSTING_BYTES : KEY_OVERHEAD_BYTES + key.length();
+            }
+            if (estimatedBytes + cost > maxBytes) {
+                return false;
+            }
+
+            id = words.size();
+            words.add(word);
+            wordIds.put(word, id);
+            if (id == counts.length) {
+                counts = Arrays.copyOf(counts, id * 2);
+            }
+            counts[id] = count;
+            for (String key : keys) {
+                int[] ids = deletes.get(key);
+                if (ids == null) {
+                    deletes.put(key, new int[] { id });
+                } else {
+                    int[] grown = Arrays.copyOf(ids, ids.length + 1);
+                    grown[ids.length] = id;
+                    deletes.put(key, grown);
+                }
+            }
+            estimatedBytes += cost;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(String word) {
+        lock.readLock().lock();
+        try {
+            return wordIds.containsKey(word);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the best dictionary word within the edit distance, the word itself when it is
+     *         known, or null when nothing is close enough
+     */
+    public String lookup(String input) {
+        lock.readLock().lock();
+        try {
+            if (wordIds.containsKey(input)) {
+                return input;
+            }
+            String best = null;
+            int bestDistance = Integer.MAX_VALUE;
+            long bestCount = -1;
+
+            String start = input.length() > prefixLength ? input.substring(0, prefixLength) : input;
+            Set<String> seenKeys = new HashSet<>();
+            Set<Integer> seenWords = new HashSet<>();
+            Deque<String> queue = new ArrayDeque<>();
+            queue.add(start);
+            seenKeys.add(start);
+            while (!queue.isEmpty()) {
+                String candidate = queue.poll();
+                int deleted = start.length() - candidate.length();
+                if (deleted > bestDistance) {
+                    // Breadth first: every remaining candidate is at least this far away
+                    break;
+                }
+                int[] ids = deletes.get(candidate);
+                if (ids != null) {
+                    for (int id : ids) {
+                        String word = words.get(id);
+                        if (!seenWords.add(id) || Math.abs(word.length() - input.length()) > maxEditDistance) {
+                            continue;
+                        }
+                        int distance = distance(input, word, Math.min(maxEditDistance, bestDistance));
+                        if (distance < 0) {
+                            continue;
+                        }
+                        if (distance < bestDistance || (distance == bestDistance && counts[id] > bestCount)) {
+                            best = word;
+                            bestDistance = distance;
+                            bestCount = counts[id];
+                        }
+                    }
+                }
+                if (deleted < maxEditDistance && candidate.length() > 1) {
+                    for (int i = 0; i < candidate.length(); i++) {
+                        String next = candidate.substring(0, i) + candidate.substring(i + 1);
+                        if (seenKeys.add(next)) {
+                            queue.add(next);
+                        }
+                    }
+                }
+            }
+            return best;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return words.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return estimatedBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Set<String> deletesOf(String word) {
+        Set<String> result = new HashSet<>();
+        result.add(word);
+        List<String> frontier = List.of(word);
+        for (int d = 0; d < maxEditDistance; d++) {
+            List<String> next = new ArrayList<>();
+            for (String s : frontier) {
+                if (s.length() <= 1) {
+                    continue;
+                }
+                for (int i = 0; i < s.length(); i++) {
+                    String deleted = s.substring(0, i) + s.substring(i + 1);
+                    if (result.add(deleted)) {
+                        next.add(deleted);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return result;
+    }
+
+    /**
+     * Optimal string alignment distance (adjacent transpositions count once).
+     *
+     * @return the distance, or -1 when it exceeds {@code max}
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return -1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return -1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()] <= max ? previous[b.length()] : -1;
+    }
+}
@@ -0,0 +1,243 @@
+package com.superdupermart.shopping.service.search;
+
+import com.superdupermart.shopping.document.ProductDocument;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process substitute for the Elasticsearch product index, used while Elasticsearch is down.
+ * <p>
+ * Name and description are normalized to {@code " words separated by spaces "} and every
+ * character trigram of that text maps to a sorted {@code int[]} of product ids. A query token of
+ * three or more characters narrows the candidates to the intersection of its trigram posting
+ * lists; shorter tokens must start a word. Every candidate is then checked for the actual
+ * substrings, so trigram collisions never reach the results. All query tokens must match, name
+ * matches rank before description-only matches, then lower ids first.
+ */
+public final class TrigramIndex {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int[] NO_IDS = new int[0];
+
+    private final Map<Integer, Doc> docs = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(ProductSummaryResponse row) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(row.getId());
+            Doc doc = new Doc(row, " " + normalize(row.getName()) + " ",
+                    " " + normalize(row.getName()) + " " + normalize(row.getDescription()) + " ");
+            docs.put(row.getId(), doc);
+            for (long trigram : trigrams(doc.text)) {
+                postings.computeIfAbsent(trigram, k -> new Postings()).add(row.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param page zero-based
+     */
+    public ProductSearchResult search(ProductSearchCriteria criteria, int page, int size) {
+        String[] tokens = criteria.hasText() ? normalize(criteria.getQuery()).split(" ") : new String[0];
+        lock.readLock().lock();
+        try {
+            List<Doc> matches = new ArrayList<>();
+            int[] candidates = candidates(tokens);
+            if (candidates == null) {
+                for (Doc doc : docs.values()) {
+                    addIfMatches(doc, tokens, criteria, matches);
+                }
+            } else {
+                for (int id : candidates) {
+                    addIfMatches(docs.get(id), tokens, criteria, matches);
+                }
+            }
+
+            matches.sort(Comparator.comparing((Doc doc) -> !containsAll(doc.name, tokens))
+                    .thenComparing(doc -> doc.row.getId()));
+            int from = (int) Math.min((long) page * size, matches.size());
+            int to = Math.min(from + size, matches.size());
+            List<ProductDocument> documents = new ArrayList<>(to - from);
+            for (Doc doc : matches.subList(from, to)) {
+                documents.add(ProductReindexService.toDocument(doc.row));
+            }
+            return new ProductSearchResult(documents, matches.size(), null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Sorted ids containing every trigram of every long-enough token, or null when no token narrows the search
+    private int[] candidates(String[] tokens) {
+        List<int[]> lists = new ArrayList<>();
+        for (String token : tokens) {
+            String pattern = token.length() >= 3 ? token : " " + token;
+            if (pattern.length() < 3) {
+                continue;
+            }
+            for (long trigram : trigrams(pattern)) {
+                Postings list = postings.get(trigram);
+                if (list == null) {
+                    return NO_IDS;
+                }
+                lists.add(list.toArray());
+            }
+        }
+        if (lists.isEmpty()) {
+            return null;
+        }
+        lists.sort(Comparator.comparingInt(ids -> ids.length));
+        int[] smallest = lists.get(0);
+        int[] result = new int[smallest.length];
+        int n = 0;
+        outer:
+        for (int id : smallest) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (Arrays.binarySearch(lists.get(i), id) < 0) {
+                    continue outer;
+                }
+            }
+            result[n++] = id;
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private static void addIfMatches(Doc doc, String[] tokens, ProductSearchCriteria criteria, List<Doc> matches) {
+        ProductSummaryResponse row = doc.row;
+        if (criteria.getCategory() != null && !criteria.getCategory().equals(row.getCategory())) {
+            return;
+        }
+        if (criteria.getBrand() != null && !criteria.getBrand().equals(row.getBrand())) {
+            return;
+        }
+        if (criteria.hasPriceFilter()) {
+            if (row.getRetailPrice() == null) {
+                return;
+            }
+            double price = row.getRetailPrice().doubleValue();
+            if ((criteria.getMinPrice() != null && price < criteria.getMinPrice())
+                    || (criteria.getMaxPrice() != null && price > criteria.getMaxPrice())) {
+                return;
+            }
+        }
+        if (containsAll(doc.text, tokens)) {
+            matches.add(doc);
+        }
+    }
+
+    private static boolean containsAll(String text, String[] tokens) {
+        for (String token : tokens) {
+            if (!text.contains(token.length() >= 3 ? token : " " + token)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void removeLocked(int id) {
+        Doc doc = docs.remove(id);
+        if (doc == null) {
+            return;
+        }
+        for (long trigram : trigrams(doc.text)) {
+            Postings list = postings.get(trigram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : NON_WORD.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+    }
+
+    // Distinct trigrams, each packed as three 16-bit chars
+    static long[] trigrams(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] result = new long[text.length() - 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        return Arrays.stream(result).distinct().toArray();
+    }
+
+    private static final class Doc {
+        private final ProductSummaryResponse row;
+        private final String name;
+        private final String text;
+
+        private Doc(ProductSummaryResponse row, String name, String text) {
+            this.row = row;
+            this.name = name;
+            this.text = text;
+        }
+    }
+
+    // Growable sorted int array; no boxing per posting
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+-- Loads the sellable stock of a product whose sale is pending.
+-- KEYS[1] products hash, KEYS[2] stock counter
+-- ARGV[1] product id, ARGV[2] units, ARGV[3] expected state
+if redis.call('HGET', KEYS[1], ARGV[1]) ~= ARGV[3] then
+  return 0
+end
+redis.call('SET', KEYS[2], ARGV[2])
+redis.call('HSET', KEYS[1], ARGV[1], 'active')
+return 1
@@ -0,0 +1,20 @@
+-- Turns a live reservation into sold units waiting to be written to the database. The items are
+-- kept under the confirmed key until it expires, so unconfirm.lua can undo a confirmation whose
+-- order did not commit.
+-- KEYS[1] reservation hash, KEYS[2] expiry zset, KEYS[3] held hash, KEYS[4] sold hash,
+-- KEYS[5] confirmed hash
+-- ARGV[1] reservation id, ARGV[2] now millis, ARGV[3] confirmed key ttl millis
+-- Returns 1 when confirmed, 0 when the reservation was released or has expired
+local expiresAt = redis.call('ZSCORE', KEYS[2], ARGV[1])
+if not expiresAt or tonumber(expiresAt) < tonumber(ARGV[2]) then
+  return 0
+end
+redis.call('ZREM', KEYS[2], ARGV[1])
+local items = redis.call('HGETALL', KEYS[1])
+for i = 1, #items, 2 do
+  redis.call('HINCRBY', KEYS[3], items[i], -tonumber(items[i + 1]))
+  redis.call('HINCRBY', KEYS[4], items[i], items[i + 1])
+end
+redis.call('RENAME', KEYS[1], KEYS[5])
+redis.call('PEXPIRE', KEYS[5], ARGV[3])
+return 1
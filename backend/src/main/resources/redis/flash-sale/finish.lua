@@ -0,0 +1,14 @@
+-- Hands a stopped product back to database checkout once nothing about it is left in Redis.
+-- KEYS[1] products hash, KEYS[2] held hash, KEYS[3] sold hash, KEYS[4] reconciling hash
+-- ARGV[1] product id
+if redis.call('HGET', KEYS[1], ARGV[1]) ~= 'draining' then
+  return 0
+end
+if tonumber(redis.call('HGET', KEYS[2], ARGV[1]) or '0') > 0
+    or redis.call('HEXISTS', KEYS[3], ARGV[1]) == 1
+    or redis.call('HEXISTS', KEYS[4], ARGV[1]) == 1 then
+  return 0
+end
+redis.call('HDEL', KEYS[1], ARGV[1])
+redis.call('HDEL', KEYS[2], ARGV[1])
+return 1
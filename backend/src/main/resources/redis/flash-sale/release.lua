@@ -0,0 +1,21 @@
+-- Gives a reservation's units back. Products whose sale has been stopped have no stock counter;
+-- their units never left the database, so there is nothing to give back.
+-- KEYS[1] reservation hash, KEYS[2] expiry zset, KEYS[3] held hash, KEYS[4..] stock counter per item
+-- ARGV[1] reservation id, ARGV[2..] product id of each stock counter, in the same order
+-- The caller reads the items first; a reservation's items never change once it is made.
+-- Returns 1 when released, 0 when it was already confirmed or released
+if redis.call('ZREM', KEYS[2], ARGV[1]) == 0 then
+  return 0
+end
+for i = 1, #KEYS - 3 do
+  local productId = ARGV[1 + i]
+  local quantity = redis.call('HGET', KEYS[1], productId)
+  if quantity then
+    redis.call('HINCRBY', KEYS[3], productId, -tonumber(quantity))
+    if redis.call('EXISTS', KEYS[3 + i]) == 1 then
+      redis.call('INCRBY', KEYS[3 + i], quantity)
+    end
+  end
+end
+redis.call('DEL', KEYS[1])
+return 1
@@ -0,0 +1,20 @@
+-- Takes units for every item or for none.
+-- KEYS[1] reservation hash, KEYS[2] expiry zset, KEYS[3] held hash, KEYS[4..] stock counter per item
+-- ARGV[1] reservation id, ARGV[2] expires-at millis, then product id and quantity per item
+-- Returns 0 when reserved, otherwise the 1-based position of the first item without enough stock
+local items = #KEYS - 3
+for i = 1, items do
+  local stock = tonumber(redis.call('GET', KEYS[3 + i]) or '0')
+  if stock < tonumber(ARGV[2 + 2 * i]) then
+    return i
+  end
+end
+for i = 1, items do
+  local productId = ARGV[1 + 2 * i]
+  local quantity = tonumber(ARGV[2 + 2 * i])
+  redis.call('DECRBY', KEYS[3 + i], quantity)
+  redis.call('HINCRBY', KEYS[3], productId, quantity)
+  redis.call('HSET', KEYS[1], productId, quantity)
+end
+redis.call('ZADD', KEYS[2], ARGV[2], ARGV[1])
+return 0
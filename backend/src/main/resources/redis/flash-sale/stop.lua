@@ -0,0 +1,9 @@
+-- Stops selling a product from Redis; open reservations can still be confirmed or released.
+-- KEYS[1] products hash, KEYS[2] stock counter
+-- ARGV[1] product id
+if not redis.call('HGET', KEYS[1], ARGV[1]) then
+  return 0
+end
+redis.call('HSET', KEYS[1], ARGV[1], 'draining')
+redis.call('DEL', KEYS[2])
+return 1
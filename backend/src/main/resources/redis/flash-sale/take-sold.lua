@@ -0,0 +1,10 @@
+-- Moves the sold counts aside for one reconciliation batch. A batch left over from a run that
+-- died is returned again instead of being merged with newer sales.
+-- KEYS[1] sold hash, KEYS[2] reconciling hash
+if redis.call('EXISTS', KEYS[2]) == 0 then
+  if redis.call('EXISTS', KEYS[1]) == 0 then
+    return {}
+  end
+  redis.call('RENAME', KEYS[1], KEYS[2])
+end
+return redis.call('HGETALL', KEYS[2])
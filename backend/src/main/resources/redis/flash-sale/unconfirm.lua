@@ -0,0 +1,22 @@
+-- Takes back a confirmation whose order rolled back. The sold count goes down even if it was
+-- already reconciled: a negative count gives the units back to product.quantity on the next run.
+-- Units go back on sale only while the product's stock counter exists.
+-- KEYS[1] confirmed hash, KEYS[2] sold hash, KEYS[3..] stock counter per item
+-- ARGV[1..] product id of each stock counter, in the same order
+-- The caller reads the items first; a confirmation's items never change.
+-- Returns 1 when undone, 0 when there was nothing to undo
+if redis.call('EXISTS', KEYS[1]) == 0 then
+  return 0
+end
+for i = 1, #KEYS - 2 do
+  local productId = ARGV[i]
+  local quantity = redis.call('HGET', KEYS[1], productId)
+  if quantity then
+    redis.call('HINCRBY', KEYS[2], productId, -tonumber(quantity))
+    if redis.call('EXISTS', KEYS[2 + i]) == 1 then
+      redis.call('INCRBY', KEYS[2 + i], quantity)
+    end
+  end
+end
+redis.call('DEL', KEYS[1])
+return 1
@@ -0,0 +1,9 @@
+-- Resets a lock's expiry only while it is still held by the caller.
+-- KEYS[1] lock key
+-- ARGV[1] owner
+-- ARGV[2] new TTL in milliseconds
+-- Returns 1 when extended, 0 when the lock expired or belongs to someone else
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+  return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+end
+return 0
@@ -0,0 +1,8 @@
+-- Deletes a lock only while it is still held by the caller.
+-- KEYS[1] lock key
+-- ARGV[1] owner
+-- Returns 1 when deleted, 0 when the lock expired or belongs to someone else
+if redis.call('GET', KEYS[1]) == ARGV[1] then
+  return redis.call('DEL', KEYS[1])
+end
+return 0
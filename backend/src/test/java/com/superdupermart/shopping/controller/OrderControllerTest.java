@@ -0,0 +1,72 @@
+package com.superdupermart.shopping.controller;
+
+import com.superdupermart.shopping.dto.OrderSummaryResponse;
+import com.superdupermart.shopping.dto.PageResponse;
+import com.superdupermart.shopping.security.AuthUserDetail;
+import com.superdupermart.shopping.security.JwtFilter;
+import com.superdupermart.shopping.security.JwtProvider;
+import com.superdupermart.shopping.security.SecurityConfig;
+import com.superdupermart.shopping.service.OrderService;
+import com.superdupermart.shopping.service.idempotency.IdempotencyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(OrderController.class)
+@Import({ SecurityConfig.class, JwtFilter.class })
+class OrderControllerTest {
+
+        private static final AuthUserDetail CUSTOMER = new AuthUserDetail(5, "alice", "pass",
+                        List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @MockBean
+        private OrderService orderService;
+
+        @MockBean
+        private IdempotencyService idempotencyService;
+
+        @MockBean
+        private JwtProvider jwtProvider;
+
+        @Test
+        void getAllOrders_CustomerGetsHistoryPage() throws Exception {
+                when(orderService.getOrderHistory(5, "", 10, "Completed"))
+                                .thenReturn(PageResponse.<OrderSummaryResponse>builder()
+                                                .content(List.of(new OrderSummaryResponse(12, null, "Completed")))
+                                                .size(10)
+                                                .nextCursor("next")
+                                                .build());
+
+                mockMvc.perform(get("/orders/all").param("cursor", "").param("size", "10")
+                                .param("status", "Completed")
+                                .with(user(CUSTOMER)))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.content[0].orderId").value(12))
+                                .andExpect(jsonPath("$.nextCursor").value("next"));
+        }
+
+        @Test
+        void getAllOrders_RejectsPageSizeOutOfRange() throws Exception {
+                mockMvc.perform(get("/orders/all").param("size", "0").with(user(CUSTOMER)))
+                                .andExpect(status().isBadRequest());
+                mockMvc.perform(get("/orders/all").param("size", "-1").with(user(CUSTOMER)))
+                                .andExpect(status().isBadRequest());
+
+                verifyNoInteractions(orderService);
+        }
+}
@@ -3,14 +3,22 @@ package com.superdupermart.shopping.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.superdupermart.shopping.security.SecurityConfig;
 import com.superdupermart.shopping.dto.AdminStatsResponse;
+import com.superdupermart.shopping.dto.PageResponse;
 import com.superdupermart.shopping.dto.ProductRequest;
 import com.superdupermart.shopping.dto.ProductResponse;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import com.superdupermart.shopping.dto.SuggestionResponse;
 import com.superdupermart.shopping.dto.UserStatsResponse;
+import com.superdupermart.shopping.exception.InvalidPageRequestException;
 import com.superdupermart.shopping.security.AuthUserDetail;
 import com.superdupermart.shopping.security.JwtFilter;
 import com.superdupermart.shopping.security.JwtProvider;
 import com.superdupermart.shopping.service.ProductService;
 import com.superdupermart.shopping.service.StatsService;
+import com.superdupermart.shopping.service.bulk.ProductBulkImportService;
+import com.superdupermart.shopping.service.inventory.FlashSaleService;
+import com.superdupermart.shopping.service.search.HotSearchQueries;
+import com.superdupermart.shopping.service.search.ProductSuggestService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -23,11 +31,14 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
@@ -51,9 +62,60 @@ class ProductControllerTest {
         @MockBean
         private StatsService statsService;
 
+        @MockBean
+        private ProductBulkImportService productBulkImportService;
+
+        @MockBean
+        private ProductSuggestService productSuggestService;
+
+        @MockBean
+        private HotSearchQueries hotSearchQueries;
+
+        @MockBean
+        private FlashSaleService flashSaleService;
+
         @MockBean
         private JwtProvider jwtProvider;
 
+        @Test
+        void searchProducts_CursorMode() throws Exception {
+                when(productService.searchProductsByCursor("lamp", null, null, null, null, "", 20))
+                                .thenReturn(PageResponse.<ProductResponse>builder()
+                                                .content(Collections.emptyList())
+                                                .size(20)
+                                                .nextCursor("next")
+                                                .build());
+
+                mockMvc.perform(get("/products/search").param("query", "lamp").param("cursor", "")
+                                .param("size", "20"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+                verify(productService, never()).searchProducts(any(), any(), any(), any(), any(), anyInt(), anyInt());
+        }
+
+        @Test
+        void suggest_Anonymous() throws Exception {
+                when(productSuggestService.suggest("iph", 5)).thenReturn(List.of(
+                                SuggestionResponse.builder().text("Apple iPhone 15").productId(3).build(),
+                                SuggestionResponse.builder().text("iphone").build()));
+
+                mockMvc.perform(get("/products/suggest").param("prefix", "iph").param("limit", "5"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$[0].productId").value(3))
+                                .andExpect(jsonPath("$[1].productId").doesNotExist());
+        }
+
+        @Test
+        void getProducts_CursorModeRejectsEmptyPage() throws Exception {
+                when(productService.getProductsByCursor("", 0))
+                                .thenThrow(new InvalidPageRequestException("Page size must be between 1 and 100"));
+
+                mockMvc.perform(get("/products").param("cursor", "").param("size", "0"))
+                                .andExpect(status().isBadRequest())
+                                .andExpect(jsonPath("$.message").value("Page size must be between 1 and 100"));
+        }
+
         @Test
         void getAllProducts_Anonymous() throws Exception {
                 when(productService.getAllProducts(false)).thenReturn(Collections.emptyList());
@@ -65,6 +127,25 @@ class ProductControllerTest {
                 verify(productService).getAllProducts(false);
         }
 
+        @Test
+        void getAllProducts_Ndjson() throws Exception {
+                ProductSummaryResponse p1 = ProductSummaryResponse.builder().id(1).name("P1").build();
+                ProductSummaryResponse p2 = ProductSummaryResponse.builder().id(2).name("P2").build();
+                doAnswer(invocation -> {
+                        Consumer<ProductSummaryResponse> sink = invocation.getArgument(1);
+                        sink.accept(p1);
+                        sink.accept(p2);
+                        return null;
+                }).when(productService).streamAllProducts(eq(false), any());
+
+                mockMvc.perform(get("/products/all").accept("application/x-ndjson"))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                                .andExpect(content().string("{\"id\":1,\"name\":\"P1\"}\n{\"id\":2,\"name\":\"P2\"}\n"));
+
+                verify(productService, never()).getAllProducts(anyBoolean());
+        }
+
         @Test
         void getAllProducts_Admin() throws Exception {
                 AuthUserDetail adminSearcher = new AuthUserDetail(1, "admin", "pass",
@@ -0,0 +1,162 @@
+package com.superdupermart.shopping.dao.impl;
+
+import com.superdupermart.shopping.config.StatementCountingConfig;
+import com.superdupermart.shopping.config.jdbc.StatementCounter;
+import com.superdupermart.shopping.dao.OrderDao;
+import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.dto.OrderItemResponse;
+import com.superdupermart.shopping.dto.OrderSummaryResponse;
+import com.superdupermart.shopping.entity.Address;
+import com.superdupermart.shopping.entity.Order;
+import com.superdupermart.shopping.entity.OrderItem;
+import com.superdupermart.shopping.entity.PaymentMethod;
+import com.superdupermart.shopping.entity.Product;
+import com.superdupermart.shopping.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Statement counts are the regression guard: they must not grow with the number of rows.
+// Checkout is counted end to end in OrderServiceImplStatementsTest
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ OrderDaoImpl.class, ProductDaoImpl.class, StatementCountingConfig.class })
+class OrderDaoImplTest {
+
+    @Autowired
+    private OrderDao orderDao;
+
+    @Autowired
+    private ProductDao productDao;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+    private final List<Integer> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder().username("alice").email("alice@example.com")
+                .password("secret").role("USER").build());
+        for (int i = 0; i < 20; i++) {
+            Product product = entityManager.persist(Product.builder().name("Product " + i)
+                    .wholesalePrice(BigDecimal.ONE).retailPrice(BigDecimal.TEN).quantity(100).build());
+            productIds.add(product.getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void listingPage_FixedStatementsWhateverThePageSize() {
+        persistOrders(12, 3);
+
+        for (int size : new int[] { 1, 5, 10 }) {
+            entityManager.clear();
+            StatementCounter.start();
+            List<Integer> ids = orderDao.getPaginatedOrderIds(1, size);
+            List<Order> orders = orderDao.findAllForListing(ids);
+            Map<Integer, List<OrderItemResponse>> items = orderDao.getItemSummaries(ids);
+            // Everything mapToResponse reads besides the items
+            for (Order order : orders) {
+                order.getUser().getUsername();
+                order.getShippingAddress().getCity();
+                order.getPaymentMethod().getLast4();
+            }
+            int statements = StatementCounter.stop();
+
+            // Page ids, the orders with their graph, the item summaries
+            assertEquals(3, statements, "page size " + size);
+            assertEquals(size, orders.size());
+            assertEquals(ids, orders.stream().map(Order::getId).toList());
+            orders.forEach(o -> assertEquals(3, items.get(o.getId()).size()));
+        }
+    }
+
+    @Test
+    void getItemSummaries_ProjectsProductIdAndName() {
+        persistOrders(1, 2);
+        Integer orderId = orderDao.getPaginatedOrderIds(1, 1).get(0);
+
+        List<OrderItemResponse> items = orderDao.getItemSummaries(List.of(orderId)).get(orderId);
+
+        assertEquals(2, items.size());
+        assertEquals(productIds.get(0), items.get(0).getProductId());
+        assertEquals("Product 0", items.get(0).getProductName());
+        assertEquals(0, BigDecimal.TEN.compareTo(items.get(0).getPurchasedPrice()));
+    }
+
+    @Test
+    void getUserOrderSummaries_KeysetPagesWithTotals() {
+        persistOrders(5, 2);
+
+        List<OrderSummaryResponse> first = orderDao.getUserOrderSummaries(user.getId(), null, null, null, 3);
+        OrderSummaryResponse last = first.get(2);
+        List<OrderSummaryResponse> second = orderDao.getUserOrderSummaries(user.getId(), null,
+                last.getDatePlaced(), last.getOrderId(), 3);
+
+        assertEquals(3, first.size());
+        assertEquals(2, second.size());
+        assertTrue(first.get(0).getDatePlaced().isAfter(first.get(1).getDatePlaced()));
+        assertTrue(last.getDatePlaced().isAfter(second.get(0).getDatePlaced()));
+        assertEquals(2, first.get(0).getItemCount());
+        assertEquals(0, new BigDecimal("20").compareTo(first.get(0).getTotal()));
+    }
+
+    @Test
+    void getUserOrderSummaries_FiltersByStatus() {
+        persistOrders(3, 1);
+        Integer newest = orderDao.getPaginatedOrderIds(1, 1).get(0);
+        orderDao.updateStatus(newest, "Completed", "Canceled");
+
+        List<OrderSummaryResponse> canceled = orderDao.getUserOrderSummaries(user.getId(), "Canceled", null, null,
+                10);
+
+        assertEquals(List.of(newest), canceled.stream().map(OrderSummaryResponse::getOrderId).toList());
+        assertEquals(2, orderDao.getUserOrderSummaries(user.getId(), "Completed", null, null, 10).size());
+        assertTrue(orderDao.getUserOrderSummaries(-1, null, null, null, 10).isEmpty());
+    }
+
+    @Test
+    void findAllByIds_SortedAndSkipsMissing() {
+        List<Product> products = productDao.findAllByIds(List.of(productIds.get(3), -1, productIds.get(1)));
+
+        assertEquals(List.of(productIds.get(1), productIds.get(3)), products.stream().map(Product::getId).toList());
+    }
+
+    private void persistOrders(int count, int itemsPerOrder) {
+        User owner = entityManager.find(User.class, user.getId());
+        Address address = entityManager.persist(Address.builder().user(owner).fullName("Alice")
+                .addressLine1("1 Main St").city("Springfield").state("IL").zipCode("62701").country("US").build());
+        PaymentMethod card = entityManager.persist(PaymentMethod.builder().user(owner).cardHolder("Alice")
+                .cardType("Visa").last4("4242").expiryDate("12/30").build());
+        LocalDateTime placed = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < count; i++) {
+            Order order = Order.builder().user(owner).datePlaced(placed.plusMinutes(i)).orderStatus("Completed")
+                    .shippingAddress(address).paymentMethod(card).items(new ArrayList<>()).build();
+            for (int j = 0; j < itemsPerOrder; j++) {
+                order.getItems().add(OrderItem.builder().order(order)
+                        .product(entityManager.find(Product.class, productIds.get(j)))
+                        .quantity(1).purchasedPrice(BigDecimal.TEN).build());
+            }
+            entityManager.persist(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,152 @@
+package com.superdupermart.shopping.service.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.superdupermart.shopping.dto.BulkUpsertResponse;
+import com.superdupermart.shopping.entity.Product;
+import com.superdupermart.shopping.service.catalog.ProductChangedEvent;
+import com.superdupermart.shopping.service.count.EntityCountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+// Runs the JDBC batches against H2; chunks commit for real so a failed one can be seen rolled back
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductBulkImportServiceTest {
+
+    private static final String HEADER = "id,name,wholesalePrice,retailPrice,quantity,category\n";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private CacheManager cacheManager;
+    private Cache cache;
+    private ApplicationEventPublisher eventPublisher;
+    private EntityCountService entityCountService;
+    private ProductBulkImportService service;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = mock(CacheManager.class);
+        cache = mock(Cache.class);
+        when(cacheManager.getCache(anyString())).thenReturn(cache);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        entityCountService = mock(EntityCountService.class);
+        service = new ProductBulkImportService(jdbcTemplate, transactionManager, cacheManager, eventPublisher,
+                entityCountService, new ObjectMapper());
+        ReflectionTestUtils.setField(service, "chunkSize", 10);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM product");
+    }
+
+    @Test
+    void upsert_UpdatesKnownIdsInsertsNewRowsAndReportsBadOnes() throws Exception {
+        int existingId = insertProduct("Old lamp");
+
+        BulkUpsertResponse result = upsert(HEADER
+                + existingId + ",Desk lamp,4,9.5,3,Lighting\n"
+                + ",Floor lamp,20,45,7,Lighting\n"
+                + ",,1,2,3,\n"
+                + "999999,Ghost,1,2,3,\n");
+
+        assertEquals(4, result.getReceived());
+        assertEquals(1, result.getUpdated());
+        assertEquals(1, result.getInserted());
+        assertEquals(2, result.getFailed());
+        assertEquals(List.of(4L, 5L), result.getErrors().stream().map(BulkUpsertResponse.RowError::getLine).toList());
+        assertEquals("name is required", result.getErrors().get(0).getMessage());
+        assertEquals("Product not found: 999999", result.getErrors().get(1).getMessage());
+
+        assertEquals("Desk lamp", jdbcTemplate.queryForObject(
+                "SELECT name FROM product WHERE id = ?", String.class, existingId));
+        Integer newId = jdbcTemplate.queryForObject(
+                "SELECT id FROM product WHERE name = 'Floor lamp'", Integer.class);
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product", Integer.class));
+
+        // JDBC inserts bypass the Hibernate listener, so the counter is told directly
+        verify(entityCountService).recordDelta(Product.class, 1);
+        ArgumentCaptor<ProductChangedEvent> event = ArgumentCaptor.forClass(ProductChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(Set.of(existingId, newId), event.getValue().getProductIds());
+        verify(cacheManager).getCache("product_list");
+        verify(cacheManager).getCache("product");
+        // Left to HotSearchQueries, which refreshes it once the change is indexed
+        verify(cacheManager, never()).getCache("product_search");
+        verify(cache, times(2)).clear();
+    }
+
+    @Test
+    void upsert_FailedChunkIsRolledBackAndEveryRowInItReported() throws Exception {
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+
+        // The second chunk fails on a category longer than the column allows
+        BulkUpsertResponse result = upsert(HEADER
+                + ",Pen,1,2,10,\n"
+                + ",Cup,1,2,10,\n"
+                + ",Plate,1,2,10,\n"
+                + ",Bowl,1,2,10," + "x".repeat(101) + "\n");
+
+        assertEquals(4, result.getReceived());
+        assertEquals(2, result.getInserted());
+        assertEquals(2, result.getFailed());
+        assertEquals(List.of(4L, 5L), result.getErrors().stream().map(BulkUpsertResponse.RowError::getLine).toList());
+        assertTrue(result.getErrors().stream().allMatch(e -> e.getMessage().startsWith("Not saved, batch failed")));
+
+        assertEquals(List.of("Cup", "Pen"), jdbcTemplate.queryForList(
+                "SELECT name FROM product ORDER BY name", String.class));
+        verify(entityCountService).recordDelta(Product.class, 2);
+        verify(eventPublisher, times(1)).publishEvent(any(ProductChangedEvent.class));
+        verify(cache, times(2)).clear();
+    }
+
+    @Test
+    void upsert_NothingWritten_LeavesCachesAlone() throws Exception {
+        BulkUpsertResponse result = upsert(HEADER + ",,1,2,3,\n" + "999999,Ghost,1,2,3,\n");
+
+        assertEquals(2, result.getFailed());
+        verify(entityCountService, never()).recordDelta(any(), anyLong());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+        verify(cacheManager, never()).getCache(anyString());
+    }
+
+    private BulkUpsertResponse upsert(String csv) throws Exception {
+        return service.upsert("text/csv", new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private int insertProduct(String name) {
+        jdbcTemplate.update("INSERT INTO product (name, wholesale_price, retail_price, quantity) VALUES (?, 1, 2, 3)",
+                name);
+        return jdbcTemplate.queryForObject("SELECT id FROM product WHERE name = ?", Integer.class, name);
+    }
+}
@@ -0,0 +1,82 @@
+package com.superdupermart.shopping.service.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductRowReaderTest {
+
+    private static List<ProductRow> readAll(String contentType, String body) throws Exception {
+        List<ProductRow> rows = new ArrayList<>();
+        try (ProductRowReader reader = ProductRowReader.open(contentType,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), new ObjectMapper())) {
+            ProductRow row;
+            while ((row = reader.next()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    void csv_HandlesQuotingAndMultilineFields() throws Exception {
+        String csv = "name,description,wholesale_price,retailPrice,quantity,id\r\n"
+                + "Laptop,\"Fast, light \"\"pro\"\" model\",500,899.99,3,\n"
+                + "Mouse,\"two\nlines\",5,10,100,42\n";
+
+        List<ProductRow> rows = readAll("text/csv", csv);
+
+        assertEquals(2, rows.size());
+        ProductRow laptop = rows.get(0);
+        assertTrue(laptop.isValid());
+        assertEquals(2, laptop.getLine());
+        assertNull(laptop.getId());
+        assertEquals("Fast, light \"pro\" model", laptop.getDescription());
+        assertEquals(new BigDecimal("899.99"), laptop.getRetailPrice());
+
+        ProductRow mouse = rows.get(1);
+        assertEquals(3, mouse.getLine());
+        assertEquals(42, mouse.getId());
+        assertEquals("two\nlines", mouse.getDescription());
+    }
+
+    @Test
+    void csv_ReportsInvalidRowsWithLineNumbers() throws Exception {
+        String csv = "name,wholesalePrice,retailPrice,quantity\n"
+                + ",1,2,3\n"
+                + "Pen,1,abc,3\n"
+                + "Cup,1,2\n";
+
+        List<ProductRow> rows = readAll("text/csv", csv);
+
+        assertEquals(3, rows.size());
+        assertEquals("name is required", rows.get(0).getError());
+        assertEquals(2, rows.get(0).getLine());
+        assertTrue(rows.get(1).getError().startsWith("Invalid number"));
+        assertTrue(rows.get(2).getError().startsWith("Expected 4 columns"));
+        assertEquals(4, rows.get(2).getLine());
+    }
+
+    @Test
+    void ndjson_ParsesObjectsAndSkipsBlankLines() throws Exception {
+        String ndjson = "{\"id\":7,\"name\":\"Lamp\",\"wholesalePrice\":4,\"retailPrice\":9.5,\"quantity\":2}\n"
+                + "\n"
+                + "not json\n";
+
+        List<ProductRow> rows = readAll("application/x-ndjson", ndjson);
+
+        assertEquals(2, rows.size());
+        assertTrue(rows.get(0).isValid());
+        assertEquals(7, rows.get(0).getId());
+        assertEquals(new BigDecimal("9.5"), rows.get(0).getRetailPrice());
+        assertFalse(rows.get(1).isValid());
+        assertEquals(3, rows.get(1).getLine());
+    }
+}
@@ -0,0 +1,107 @@
+package com.superdupermart.shopping.service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Two nodes share one L2; messages published by node A are handed to node B's listener
+class CacheInvalidationListenerTest {
+
+    private static final String CHANNEL = "cache-invalidation";
+
+    private ConcurrentMapCache remote;
+    private StringRedisTemplate redisTemplateA;
+    private TwoTierCache cacheA;
+    private TwoTierCache cacheB;
+    private com.github.benmanes.caffeine.cache.Cache<String, Object> localB;
+    private TwoTierCacheManager managerB;
+    private CacheInvalidationListener listenerB;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCache("product");
+        redisTemplateA = mock(StringRedisTemplate.class);
+        cacheA = new TwoTierCache("product", Caffeine.newBuilder().build(), remote,
+                new CacheInvalidationPublisher(redisTemplateA, CHANNEL, "node-a"));
+        localB = Caffeine.newBuilder().build();
+        cacheB = new TwoTierCache("product", localB, remote,
+                new CacheInvalidationPublisher(mock(StringRedisTemplate.class), CHANNEL, "node-b"));
+        managerB = mock(TwoTierCacheManager.class);
+        when(managerB.getTwoTierCache("product")).thenReturn(cacheB);
+        listenerB = new CacheInvalidationListener(managerB, "node-b");
+    }
+
+    @Test
+    void putOnOneNode_DropsTheStaleL1CopyOnAnother() {
+        cacheA.put(1, "Laptop");
+        assertEquals("Laptop", cacheB.get(1).get());
+
+        cacheA.put(1, "Laptop Pro");
+        assertEquals("Laptop", cacheB.get(1).get());
+        deliverLastMessageFromA();
+
+        assertEquals("Laptop Pro", cacheB.get(1).get());
+    }
+
+    @Test
+    void evictOnOneNode_DropsTheL1CopyOnAnother() {
+        cacheA.put(1, "Laptop");
+        assertEquals("Laptop", cacheB.get(1).get());
+
+        cacheA.evict(1);
+        deliverLastMessageFromA();
+
+        assertNull(cacheB.get(1));
+    }
+
+    @Test
+    void clearOnOneNode_EmptiesL1OnAnother() {
+        cacheB.put(1, "Laptop");
+        cacheB.put(2, "Mouse");
+
+        cacheA.clear();
+        deliverLastMessageFromA();
+
+        assertEquals(0, localB.estimatedSize());
+    }
+
+    @Test
+    void onMessage_IgnoresItsOwnMessages() {
+        cacheB.put(1, "Laptop");
+
+        listenerB.onMessage(message("node-b\nproduct\nE\n1"), null);
+
+        assertEquals("Laptop", localB.getIfPresent("1"));
+    }
+
+    @Test
+    void onMessage_IgnoresMalformedMessagesAndCachesItDoesNotHave() {
+        cacheB.put(1, "Laptop");
+
+        listenerB.onMessage(message("node-a\nproduct\nE"), null);
+        listenerB.onMessage(message("node-a\norders\nC\n"), null);
+
+        assertEquals("Laptop", localB.getIfPresent("1"));
+        verify(managerB).getTwoTierCache("orders");
+    }
+
+    private void deliverLastMessageFromA() {
+        ArgumentCaptor<Object> body = ArgumentCaptor.forClass(Object.class);
+        verify(redisTemplateA, atLeastOnce()).convertAndSend(eq(CHANNEL), body.capture());
+        listenerB.onMessage(message((String) body.getValue()), null);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,124 @@
+package com.superdupermart.shopping.service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+// L2 is an in-memory cache standing in for Redis; only the pub/sub side is mocked
+class TwoTierCacheTest {
+
+    private static final String CHANNEL = "cache-invalidation";
+
+    private StringRedisTemplate redisTemplate;
+    private com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private ConcurrentMapCache remote;
+    private TwoTierCache cache;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        local = Caffeine.newBuilder().maximumSize(100).build();
+        remote = new ConcurrentMapCache("product");
+        cache = new TwoTierCache("product", local, remote,
+                new CacheInvalidationPublisher(redisTemplate, CHANNEL, "node-a"));
+    }
+
+    @Test
+    void get_ReadsThroughToL2AndKeepsTheValueInL1() {
+        remote.put(1, "Laptop");
+
+        assertEquals("Laptop", cache.get(1).get());
+        assertEquals("Laptop", local.getIfPresent("1"));
+
+        // Served from L1 from now on
+        remote.evict(1);
+        assertEquals("Laptop", cache.get(1).get());
+    }
+
+    @Test
+    void get_MissInBothTiers_ReturnsNull() {
+        assertNull(cache.get(1));
+        assertNull(local.getIfPresent("1"));
+    }
+
+    @Test
+    void get_CachedNullIsAHit() {
+        remote.put(1, null);
+
+        Cache.ValueWrapper wrapper = cache.get(1);
+
+        assertNotNull(wrapper);
+        assertNull(wrapper.get());
+        assertNotNull(local.getIfPresent("1"));
+    }
+
+    @Test
+    void get_WithLoader_LoadsOnceAndFillsBothTiers() {
+        AtomicInteger loads = new AtomicInteger();
+        Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            return "Laptop";
+        };
+
+        assertEquals("Laptop", cache.get(1, loader));
+        assertEquals("Laptop", cache.get(1, loader));
+
+        assertEquals(1, loads.get());
+        assertEquals("Laptop", remote.get(1).get());
+        assertEquals("Laptop", local.getIfPresent("1"));
+    }
+
+    @Test
+    void put_WritesBothTiersAndTellsOtherNodes() {
+        cache.put(1, "Laptop");
+
+        assertEquals("Laptop", remote.get(1).get());
+        assertEquals("Laptop", local.getIfPresent("1"));
+        verify(redisTemplate).convertAndSend(CHANNEL, "node-a\nproduct\nE\n1");
+    }
+
+    @Test
+    void evict_DropsBothTiersAndTellsOtherNodes() {
+        cache.put(1, "Laptop");
+
+        cache.evict(1);
+
+        assertNull(remote.get(1));
+        assertNull(local.getIfPresent("1"));
+        assertNull(cache.get(1));
+        verify(redisTemplate, times(2)).convertAndSend(CHANNEL, "node-a\nproduct\nE\n1");
+    }
+
+    @Test
+    void clear_EmptiesBothTiersAndTellsOtherNodes() {
+        cache.put(1, "Laptop");
+        cache.put(2, "Mouse");
+
+        cache.clear();
+
+        assertNull(remote.get(2));
+        assertEquals(0, local.estimatedSize());
+        verify(redisTemplate).convertAndSend(CHANNEL, "node-a\nproduct\nC\n");
+    }
+
+    @Test
+    void put_StillWritesWhenPublishingFails() {
+        doThrow(new IllegalStateException("connection refused")).when(redisTemplate)
+                .convertAndSend(anyString(), anyString());
+
+        cache.put(1, "Laptop");
+
+        assertEquals("Laptop", remote.get(1).get());
+        assertEquals("Laptop", cache.get(1).get());
+    }
+}
@@ -0,0 +1,66 @@
+package com.superdupermart.shopping.service.catalog;
+
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import com.superdupermart.shopping.dto.SearchFacets;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogFacetsTest {
+
+    private static ProductSummaryResponse product(int id, String category, String brand, String price) {
+        return ProductSummaryResponse.builder().id(id).name("P" + id).category(category).brand(brand)
+                .retailPrice(new BigDecimal(price)).quantity(1).build();
+    }
+
+    private final CatalogFacets facets = CatalogFacets.of(List.of(
+            product(1, "Books", "Acme", "10.00"),
+            product(2, "Books", "Globex", "60.00"),
+            product(3, "Toys", "Acme", "75.50"),
+            product(4, null, null, "20.00")), BigDecimal.valueOf(50), 20);
+
+    @Test
+    void count_Unfiltered() {
+        SearchFacets result = facets.count(null, null);
+
+        assertEquals(List.of(new SearchFacets.FacetCount("Books", 2), new SearchFacets.FacetCount("Toys", 1)),
+                result.getCategories());
+        assertEquals(new SearchFacets.FacetCount("Acme", 2), result.getBrands().get(0));
+        assertEquals(2, result.getPrices().size());
+        assertEquals(0, BigDecimal.ZERO.compareTo(result.getPrices().get(0).getFrom()));
+        assertEquals(2, result.getPrices().get(0).getCount());
+        assertEquals(2, result.getPrices().get(1).getCount());
+    }
+
+    @Test
+    void count_Filtered() {
+        SearchFacets result = facets.count("Books", "Acme");
+
+        assertEquals(List.of(new SearchFacets.FacetCount("Books", 1)), result.getCategories());
+        assertEquals(List.of(new SearchFacets.FacetCount("Acme", 1)), result.getBrands());
+        assertEquals(1, result.getPrices().size());
+    }
+
+    @Test
+    void apply_MovesAndRemovesProducts() {
+        Map<Integer, ProductSummaryResponse> changes = new HashMap<>();
+        changes.put(1, product(1, "Toys", "Acme", "10.00"));
+        changes.put(3, null);
+        changes.put(5, product(5, "Garden", "Initech", "5.00"));
+        facets.apply(changes);
+
+        SearchFacets result = facets.count(null, null);
+
+        assertEquals(4, facets.size());
+        assertTrue(result.getCategories().contains(new SearchFacets.FacetCount("Books", 1)));
+        assertTrue(result.getCategories().contains(new SearchFacets.FacetCount("Toys", 1)));
+        assertTrue(result.getCategories().contains(new SearchFacets.FacetCount("Garden", 1)));
+        assertEquals(3, result.getPrices().get(0).getCount());
+        assertTrue(facets.count("Toys", "Globex").getCategories().isEmpty());
+    }
+}
@@ -0,0 +1,52 @@
+package com.superdupermart.shopping.service.catalog;
+
+import com.superdupermart.shopping.dto.ProductResponse;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+
+    private static ProductSummaryResponse row(int id, int quantity) {
+        return new ProductSummaryResponse(id, "P" + id, null, BigDecimal.TEN, BigDecimal.ONE, quantity, null, null);
+    }
+
+    @Test
+    void of_IndexesByIdAndHidesOutOfStock() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(row(3, 1), row(1, 5), row(2, 0)));
+
+        assertEquals(3, snapshot.size());
+        assertEquals("P1", snapshot.findAvailable(1).getName());
+        assertNull(snapshot.findAvailable(2));
+        assertNull(snapshot.findAvailable(4));
+        assertEquals(List.of(1, 3),
+                snapshot.getInStockProducts().stream().map(ProductSummaryResponse::getId).toList());
+        assertNull(snapshot.getInStockProducts().get(0).getWholesalePrice());
+    }
+
+    @Test
+    void withChanges_ReplacesInsertsAndRemoves() {
+        CatalogSnapshot original = CatalogSnapshot.of(List.of(row(1, 5), row(3, 5), row(5, 5)));
+
+        Map<Integer, ProductSummaryResponse> changes = new HashMap<>();
+        changes.put(3, null);
+        changes.put(4, row(4, 2));
+        changes.put(5, row(5, 0));
+        CatalogSnapshot updated = original.withChanges(changes);
+
+        assertEquals(3, updated.size());
+        assertNull(updated.findAvailable(3));
+        assertNotNull(updated.findAvailable(4));
+        assertNull(updated.findAvailable(5));
+        assertEquals(List.of(1, 4, 5), updated.page(0, 10).stream().map(ProductResponse::getId).toList());
+        // The original is untouched
+        assertNotNull(original.findAvailable(3));
+        assertNotNull(original.findAvailable(5));
+    }
+}
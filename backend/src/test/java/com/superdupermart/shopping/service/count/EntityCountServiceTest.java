@@ -0,0 +1,91 @@
+package com.superdupermart.shopping.service.count;
+
+import com.superdupermart.shopping.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EntityCountServiceTest {
+
+    private static final List<String> KEYS = List.of("count:{product}", "count:{product}:version");
+
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOps;
+    private JdbcTemplate jdbcTemplate;
+    private EntityCountService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new EntityCountService(redisTemplate, jdbcTemplate);
+        ReflectionTestUtils.setField(service, "ttl", Duration.ofHours(1));
+
+        EntityManager entityManager = mock(EntityManager.class);
+        TypedQuery<Long> query = mock(TypedQuery.class);
+        when(entityManager.createQuery(anyString(), eq(Long.class))).thenReturn(query);
+        when(query.getSingleResult()).thenReturn(42L);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+    }
+
+    @Test
+    void count_ReadsTheSeededCounter() {
+        when(valueOps.multiGet(KEYS)).thenReturn(List.of("7", "3"));
+
+        RowCount count = service.count(Product.class, CountMode.EXACT);
+
+        assertEquals(7L, count.getValue());
+        assertTrue(count.isExact());
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void count_SeedsAgainstTheVersionReadBeforeCounting() {
+        when(valueOps.multiGet(KEYS)).thenReturn(Arrays.asList(null, "5"));
+
+        RowCount count = service.count(Product.class, CountMode.EXACT);
+
+        assertEquals(42L, count.getValue());
+        // The script stores 42 only if no delta bumped the version past 5 meanwhile
+        verify(redisTemplate).execute(any(RedisScript.class), eq(KEYS), eq("5"), eq("42"), eq("3600000"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordDelta_BumpsTheVersionEvenWithoutACounter() {
+        service.recordDelta(Product.class, 2);
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(KEYS), eq("2"));
+    }
+
+    @Test
+    void count_EstimateWithoutStatisticsIsReportedAsExact() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(Object[].class)))
+                .thenThrow(new EmptyResultDataAccessException(1));
+        when(valueOps.multiGet(KEYS)).thenReturn(List.of("7", "0"));
+
+        RowCount count = service.count(Product.class, CountMode.ESTIMATED);
+
+        assertEquals(7L, count.getValue());
+        assertTrue(count.isExact());
+    }
+}
@@ -0,0 +1,191 @@
+package com.superdupermart.shopping.service.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.superdupermart.shopping.dto.OrderItemRequest;
+import com.superdupermart.shopping.dto.OrderRequest;
+import com.superdupermart.shopping.dto.OrderResponse;
+import com.superdupermart.shopping.exception.IdempotencyConflictException;
+import com.superdupermart.shopping.exception.InvalidIdempotencyKeyException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+
+    private static final String KEY = "idempotency:orders:5:abc";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> ops;
+    private ScheduledExecutorService heartbeat;
+    private IdempotencyService service;
+    private final AtomicLong now = new AtomicLong();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        ops = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(ops);
+        service = new IdempotencyService(redisTemplate, objectMapper);
+        ReflectionTestUtils.setField(service, "ttlMs", 60000L);
+        ReflectionTestUtils.setField(service, "leaseMs", 60000L);
+        ReflectionTestUtils.setField(service, "waitMs", 15000L);
+        // Virtual time: each pause moves the clock instead of blocking the test
+        service.clock = now::get;
+        service.sleeper = now::addAndGet;
+        // Renewals run only when the test says so
+        heartbeat = mock(ScheduledExecutorService.class);
+        doReturn(mock(ScheduledFuture.class)).when(heartbeat)
+                .scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+        service.heartbeat = heartbeat;
+        when(redisTemplate.execute(eq(IdempotencyService.COMPLETE), anyList(), any(Object[].class))).thenReturn(1L);
+    }
+
+    @Test
+    void execute_FirstAttemptRunsAndStoresResponse() {
+        when(ops.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(true);
+
+        OrderResponse response = service.execute("orders:5", "abc", request(1), OrderResponse.class,
+                () -> order(42));
+
+        assertEquals(42, response.getOrderId());
+        // Stored only over our own claim, so it cannot replace another attempt's
+        verify(redisTemplate).execute(eq(IdempotencyService.COMPLETE), eq(List.of(KEY)), eq(claimed()),
+                argThat(json -> json.toString().contains("\"DONE\"")), eq("60000"));
+        verify(ops, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void execute_RenewsTheClaimWhileTheActionRuns() {
+        when(ops.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(true);
+        ArgumentCaptor<Runnable> renew = ArgumentCaptor.forClass(Runnable.class);
+
+        service.execute("orders:5", "abc", request(1), OrderResponse.class, () -> {
+            verify(heartbeat).scheduleAtFixedRate(renew.capture(), eq(20000L), eq(20000L),
+                    eq(TimeUnit.MILLISECONDS));
+            renew.getValue().run();
+            return order(42);
+        });
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(KEY)), eq(claimed()), eq("60000"));
+    }
+
+    @Test
+    void execute_DuplicateReplaysStoredResponse() throws Exception {
+        String done = storedResponse(request(1), order(42));
+        when(ops.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(false);
+        when(ops.get(KEY)).thenReturn(done);
+        AtomicInteger runs = new AtomicInteger();
+
+        OrderResponse response = service.execute("orders:5", "abc", request(1), OrderResponse.class, () -> {
+            runs.incrementAndGet();
+            return order(43);
+        });
+
+        assertEquals(42, response.getOrderId());
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void execute_DuplicateWaitsForInFlightAttempt() throws Exception {
+        String inProgress = objectMapper.writeValueAsString(
+                new IdempotencyRecord(IdempotencyService.IN_PROGRESS, fingerprintOf(request(1)), "other", null));
+        when(ops.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(false);
+        when(ops.get(KEY)).thenReturn(inProgress, inProgress, storedResponse(request(1), order(42)));
+
+        OrderResponse response = service.execute("orders:5", "abc", request(1), OrderResponse.class,
+                () -> fail("must not run twice"));
+
+        assertEquals(42, response.getOrderId());
+        // Backed off 10ms, then 20ms
+        assertEquals(30L, now.get());
+    }
+
+    @Test
+    void execute_StillInProgressAfterWaitIsAConflict() throws Exception {
+        String inProgress = objectMapper.writeValueAsString(
+                new IdempotencyRecord(IdempotencyService.IN_PROGRESS, fingerprintOf(request(1)), "other", null));
+        when(ops.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(false);
+        when(ops.get(KEY)).thenReturn(inProgress);
+
+        assertThrows(IdempotencyConflictException.class, () -> service.execute("orders:5", "abc", request(1),
+                OrderResponse.class, () -> order(43)));
+        assertTrue(now.get() >= 15000L);
+    }
+
+    @Test
+    void execute_KeyReusedForDifferentRequest() throws Exception {
+        when(ops.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(false);
+        when(ops.get(KEY)).thenReturn(storedResponse(request(1), order(42)));
+
+        assertThrows(InvalidIdempotencyKeyException.class, () -> service.execute("orders:5", "abc", request(2),
+                OrderResponse.class, () -> order(43)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void execute_FailureFreesTheKey() {
+        when(ops.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> service.execute("orders:5", "abc", request(1),
+                OrderResponse.class, () -> {
+                    throw new IllegalStateException("declined");
+                }));
+
+        // Released by a script that checks the claim is still ours
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(KEY)), eq(claimed()));
+        verify(redisTemplate, never()).delete(KEY);
+        verify(redisTemplate, never()).execute(eq(IdempotencyService.COMPLETE), anyList(), any(Object[].class));
+    }
+
+    private String claimed() {
+        // The claim written by setIfAbsent
+        return mockingDetails(ops).getInvocations().stream()
+                .filter(i -> i.getMethod().getName().equals("setIfAbsent"))
+                .map(i -> (String) i.getArgument(1))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private String storedResponse(OrderRequest request, OrderResponse response) throws Exception {
+        return objectMapper.writeValueAsString(new IdempotencyRecord(IdempotencyService.DONE, fingerprintOf(request),
+                null, objectMapper.writeValueAsString(response)));
+    }
+
+    private String fingerprintOf(OrderRequest request) {
+        return service.fingerprint(request);
+    }
+
+    private static OrderRequest request(int quantity) {
+        return OrderRequest.builder().isPickup(true)
+                .order(List.of(OrderItemRequest.builder().productId(1).quantity(quantity).build()))
+                .build();
+    }
+
+    private static OrderResponse order(int id) {
+        return OrderResponse.builder().orderId(id).datePlaced(LocalDateTime.of(2024, 1, 1, 12, 0)).build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.superdupermart.shopping.service.image;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ImageDerivativeServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private ImageStore imageStore;
+    // Jobs run only when the test says so
+    private final List<Runnable> queued = new ArrayList<>();
+    private ImageDerivativeService service;
+
+    @BeforeEach
+    void setUp() {
+        imageStore = mock(ImageStore.class);
+        when(imageStore.findVariant(any(), any())).thenReturn(Optional.empty());
+        service = new ImageDerivativeService(imageStore, queued::add);
+        ReflectionTestUtils.setField(service, "failureTtlMs", 60000L);
+    }
+
+    @Test
+    void getOrCreate_MissingRenditionIsQueuedWithoutWaiting() {
+        assertTrue(service.getOrCreate("abc", ImageSize.THUMB).isEmpty());
+        assertTrue(service.getOrCreate("abc", ImageSize.THUMB).isEmpty());
+
+        // Both requests share one job
+        assertEquals(1, queued.size());
+        verify(imageStore, never()).find(any());
+    }
+
+    @Test
+    void getOrCreate_FailedRenditionIsNotRetriedWithinTheTtl() throws IOException {
+        Path garbage = Files.write(dir.resolve("abc"), new byte[] { 1, 2, 3 });
+        when(imageStore.find("abc")).thenReturn(Optional.of(new StoredImage("abc", garbage, 3, 0)));
+
+        service.getOrCreate("abc", ImageSize.THUMB);
+        queued.remove(0).run();
+
+        assertTrue(service.getOrCreate("abc", ImageSize.THUMB).isEmpty());
+        assertTrue(queued.isEmpty());
+        verify(imageStore, times(1)).find("abc");
+
+        ReflectionTestUtils.setField(service, "failureTtlMs", -1L);
+        service.getOrCreate("abc", ImageSize.MEDIUM);
+        queued.remove(0).run();
+        service.getOrCreate("abc", ImageSize.MEDIUM);
+        assertEquals(1, queued.size());
+    }
+}
@@ -0,0 +1,89 @@
+package com.superdupermart.shopping.service.image;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// The entity no longer maps the legacy blob column, so the tests add it to the H2 schema themselves
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ImageMigrationServiceTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ImageStore imageStore;
+    private ImageMigrationService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        imageStore = mock(ImageStore.class);
+        // The hash is the content itself; "broken" stands for a blob the store cannot take
+        when(imageStore.store(any())).thenAnswer(invocation -> {
+            String content = new String(((InputStream) invocation.getArgument(0)).readAllBytes(),
+                    StandardCharsets.UTF_8);
+            if (content.equals("broken")) {
+                throw new IOException("No space left on device");
+            }
+            return new StoredImage(content, null, content.length(), 0);
+        });
+        service = new ImageMigrationService(jdbcTemplate, imageStore);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM product");
+        jdbcTemplate.execute("ALTER TABLE product DROP COLUMN IF EXISTS image");
+    }
+
+    @Test
+    void migrateLegacyBlobs_SkipsRowsThatFailAndMovesTheRest() {
+        jdbcTemplate.execute("ALTER TABLE product ADD COLUMN image BLOB");
+        int first = insertProduct("a1");
+        int broken = insertProduct("broken");
+        int last = insertProduct("c3");
+
+        assertEquals(2, service.migrateLegacyBlobs());
+
+        assertEquals("a1", imageHash(first));
+        assertNull(imageHash(broken));
+        assertEquals("c3", imageHash(last));
+        assertEquals(List.of(broken), jdbcTemplate.queryForList(
+                "SELECT id FROM product WHERE image IS NOT NULL", Integer.class));
+    }
+
+    @Test
+    void migrateLegacyBlobs_WithoutTheBlobColumnDoesNothing() throws IOException {
+        assertEquals(0, service.migrateLegacyBlobs());
+
+        verify(imageStore, never()).store(any());
+    }
+
+    private int insertProduct(String image) {
+        jdbcTemplate.update("INSERT INTO product (name, wholesale_price, retail_price, quantity, image) "
+                + "VALUES (?, 1, 2, 3, ?)", image, image.getBytes(StandardCharsets.UTF_8));
+        return jdbcTemplate.queryForObject("SELECT id FROM product WHERE name = ?", Integer.class, image);
+    }
+
+    private String imageHash(int id) {
+        return jdbcTemplate.queryForObject("SELECT image_hash FROM product WHERE id = ?", String.class, id);
+    }
+}
@@ -0,0 +1,142 @@
+package com.superdupermart.shopping.service.impl;
+
+import com.superdupermart.shopping.config.StatementCountingConfig;
+import com.superdupermart.shopping.dao.AddressDao;
+import com.superdupermart.shopping.dao.OrderDao;
+import com.superdupermart.shopping.dao.PaymentMethodDao;
+import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.dao.UserDao;
+import com.superdupermart.shopping.dao.impl.AddressDaoImpl;
+import com.superdupermart.shopping.dao.impl.OrderDaoImpl;
+import com.superdupermart.shopping.dao.impl.PaymentMethodDaoImpl;
+import com.superdupermart.shopping.dao.impl.ProductDaoImpl;
+import com.superdupermart.shopping.dao.impl.UserDaoImpl;
+import com.superdupermart.shopping.dto.OrderItemRequest;
+import com.superdupermart.shopping.dto.OrderRequest;
+import com.superdupermart.shopping.dto.OrderResponse;
+import com.superdupermart.shopping.entity.Product;
+import com.superdupermart.shopping.entity.User;
+import com.superdupermart.shopping.service.EmailService;
+import com.superdupermart.shopping.service.PaymentService;
+import com.superdupermart.shopping.service.count.EntityCountService;
+import com.superdupermart.shopping.service.inventory.FlashSaleService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Regression guard for the real checkout path against H2: round trips must not grow with the cart.
+// Each saga step commits for real, as in production, so nothing is left to a final flush.
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ OrderDaoImpl.class, ProductDaoImpl.class, UserDaoImpl.class, AddressDaoImpl.class,
+        PaymentMethodDaoImpl.class, StatementCountingConfig.class })
+class OrderServiceImplStatementsTest {
+
+    @Autowired
+    private OrderDao orderDao;
+
+    @Autowired
+    private ProductDao productDao;
+
+    @Autowired
+    private UserDao userDao;
+
+    @Autowired
+    private AddressDao addressDao;
+
+    @Autowired
+    private PaymentMethodDao paymentMethodDao;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OrderServiceImpl orderService;
+    private Integer userId;
+    private final List<Integer> productIds = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userId = entityManager.persist(User.builder().username("alice").email("alice@example.com")
+                    .password("secret").role("USER").build()).getId();
+            for (int i = 0; i < 20; i++) {
+                productIds.add(entityManager.persist(Product.builder().name("Product " + i)
+                        .wholesalePrice(BigDecimal.ONE).retailPrice(BigDecimal.TEN).quantity(100).build()).getId());
+            }
+        });
+
+        orderService = new OrderServiceImpl(orderDao, productDao, userDao, mock(KafkaTemplate.class),
+                mock(EmailService.class), mock(PaymentService.class), addressDao, paymentMethodDao,
+                mock(EntityCountService.class), mock(ApplicationEventPublisher.class), mock(FlashSaleService.class),
+                transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(orderService, "countStatements", true);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM order_item");
+        jdbcTemplate.update("DELETE FROM orders");
+        jdbcTemplate.update("DELETE FROM product");
+        jdbcTemplate.update("DELETE FROM user");
+    }
+
+    @Test
+    void placeOrder_TwentyItemCartInSevenStatements() {
+        List<OrderItemRequest> items = new ArrayList<>();
+        productIds.forEach(id -> items.add(OrderItemRequest.builder().productId(id).quantity(2).build()));
+
+        OrderResponse response = orderService.placeOrder(userId,
+                OrderRequest.builder().isPickup(true).order(items).build());
+
+        // Reserve: the products, the stock batch, the sold-out check, the order row and the item batch.
+        // Confirm: the status update and the user.
+        assertEquals(7.0, meterRegistry.get("checkout.db.statements").summary().max());
+        assertEquals("Processing", response.getOrderStatus());
+        assertEquals(20, response.getItems().size());
+        assertEquals(20, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_item WHERE order_id = ?",
+                Integer.class, response.getOrderId()));
+        assertEquals(98, jdbcTemplate.queryForObject("SELECT quantity FROM product WHERE id = ?", Integer.class,
+                productIds.get(0)));
+    }
+
+    @Test
+    void placeOrder_StatementCountDoesNotGrowWithTheCart() {
+        orderService.placeOrder(userId, OrderRequest.builder().isPickup(true)
+                .order(List.of(OrderItemRequest.builder().productId(productIds.get(0)).quantity(1).build()))
+                .build());
+
+        assertEquals(7.0, meterRegistry.get("checkout.db.statements").summary().max());
+    }
+}
@@ -0,0 +1,321 @@
+package com.superdupermart.shopping.service.impl;
+
+import com.superdupermart.shopping.dao.AddressDao;
+import com.superdupermart.shopping.dao.OrderDao;
+import com.superdupermart.shopping.dao.PaymentMethodDao;
+import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.dao.UserDao;
+import com.superdupermart.shopping.dto.OrderItemRequest;
+import com.superdupermart.shopping.dto.OrderItemResponse;
+import com.superdupermart.shopping.dto.OrderRequest;
+import com.superdupermart.shopping.dto.OrderResponse;
+import com.superdupermart.shopping.dto.OrderSummaryResponse;
+import com.superdupermart.shopping.dto.PageResponse;
+import com.superdupermart.shopping.entity.Order;
+import com.superdupermart.shopping.entity.OrderItem;
+import com.superdupermart.shopping.entity.Product;
+import com.superdupermart.shopping.entity.User;
+import com.superdupermart.shopping.exception.InvalidPageRequestException;
+import com.superdupermart.shopping.exception.NotEnoughInventoryException;
+import com.superdupermart.shopping.exception.PaymentFailedException;
+import com.superdupermart.shopping.service.EmailService;
+import com.superdupermart.shopping.service.PaymentService;
+import com.superdupermart.shopping.service.catalog.ProductChangedEvent;
+import com.superdupermart.shopping.service.count.EntityCountService;
+import com.superdupermart.shopping.service.inventory.FlashSaleReservation;
+import com.superdupermart.shopping.service.inventory.FlashSaleService;
+import com.superdupermart.shopping.service.pagination.KeysetCursor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceImplTest {
+
+    @Mock
+    private OrderDao orderDao;
+
+    @Mock
+    private ProductDao productDao;
+
+    @Mock
+    private UserDao userDao;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private AddressDao addressDao;
+
+    @Mock
+    private PaymentMethodDao paymentMethodDao;
+
+    @Mock
+    private EntityCountService entityCountService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private FlashSaleService flashSaleService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private OrderServiceImpl orderService;
+
+    private final User user = User.builder().id(5).username("alice").email("alice@example.com").build();
+
+    @Test
+    void placeOrder_DecrementsAllProductsInOneCall() {
+        when(userDao.findById(5)).thenReturn(Optional.of(user));
+        when(productDao.findAllByIds(Set.of(1, 2))).thenReturn(List.of(product(1, "Desk"), product(2, "Lamp")));
+        when(productDao.decrementStock(Map.of(1, 1, 2, 3))).thenReturn(List.of());
+        when(productDao.getSoldOutIds(any())).thenReturn(List.of(2));
+        when(orderDao.updateStatus(any(), eq("Pending"), eq("Processing"))).thenReturn(true);
+
+        orderService.placeOrder(5, pickup(item(2, 2), item(1, 1), item(2, 1)));
+
+        verify(productDao).decrementStock(Map.of(1, 1, 2, 3));
+        verify(productDao, never()).update(any());
+        verify(orderDao).insertWithItems(any(Order.class));
+        verify(eventPublisher).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    void placeOrder_NotificationFailuresDoNotFailAPlacedOrder() {
+        when(userDao.findById(5)).thenReturn(Optional.of(user));
+        when(productDao.findAllByIds(Set.of(1))).thenReturn(List.of(product(1, "Desk")));
+        when(productDao.decrementStock(Map.of(1, 1))).thenReturn(List.of());
+        when(orderDao.updateStatus(any(), eq("Pending"), eq("Processing"))).thenReturn(true);
+        when(kafkaTemplate.send(any(), any())).thenThrow(new IllegalStateException("broker down"));
+        doThrow(new IllegalStateException("smtp down")).when(emailService).sendOrderConfirmation(any(), any());
+
+        OrderResponse response = orderService.placeOrder(5, pickup(item(1, 1)));
+
+        assertEquals("Processing", response.getOrderStatus());
+        verify(orderDao, never()).updateStatus(any(), eq("Pending"), eq("Failed"));
+        verify(productDao, never()).adjustStock(any());
+    }
+
+    @Test
+    void placeOrder_NotEnoughInventory() {
+        when(productDao.findAllByIds(Set.of(1))).thenReturn(List.of(product(1, "Desk")));
+        when(productDao.decrementStock(Map.of(1, 4))).thenReturn(List.of(1));
+
+        NotEnoughInventoryException e = assertThrows(NotEnoughInventoryException.class,
+                () -> orderService.placeOrder(5, pickup(item(1, 4))));
+
+        assertTrue(e.getMessage().contains("Desk"));
+        verify(paymentService, never()).authorizeTransaction(any());
+        verify(orderDao, never()).insertWithItems(any());
+    }
+
+    @Test
+    void placeOrder_ReservesFlashSaleProductsInRedis() {
+        when(userDao.findById(5)).thenReturn(Optional.of(user));
+        when(productDao.findAllByIds(Set.of(1, 2))).thenReturn(List.of(product(1, "Desk"), product(2, "Lamp")));
+        when(flashSaleService.flashProductIds(any())).thenReturn(Set.of(2));
+        when(flashSaleService.reserve(Map.of(2, 3))).thenReturn(FlashSaleReservation.reserved("r1"));
+        when(flashSaleService.confirm("r1")).thenReturn(true);
+        when(orderDao.updateStatus(any(), eq("Pending"), eq("Processing"))).thenReturn(true);
+
+        orderService.placeOrder(5, pickup(item(1, 1), item(2, 3)));
+
+        verify(productDao).decrementStock(Map.of(1, 1));
+        verify(flashSaleService).confirm("r1");
+        verify(orderDao).insertWithItems(any(Order.class));
+    }
+
+    @Test
+    void placeOrder_ConfirmationUndoneWhenTheCommitFails() {
+        when(userDao.findById(5)).thenReturn(Optional.of(user));
+        when(productDao.findAllByIds(Set.of(2))).thenReturn(List.of(product(2, "Lamp")));
+        when(flashSaleService.flashProductIds(any())).thenReturn(Set.of(2));
+        when(flashSaleService.reserve(Map.of(2, 1))).thenReturn(FlashSaleReservation.reserved("r1"));
+        when(flashSaleService.confirm("r1")).thenReturn(true);
+        when(orderDao.updateStatus(any(), eq("Pending"), eq("Processing"))).thenReturn(true);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            orderService.placeOrder(5, pickup(item(2, 1)));
+            List<TransactionSynchronization> registered = TransactionSynchronizationManager.getSynchronizations();
+
+            registered.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            verify(flashSaleService, never()).unconfirm(any());
+
+            // As if the confirm transaction had rolled back after the Redis confirm
+            registered.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            verify(flashSaleService).unconfirm("r1");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void placeOrder_FlashSaleSoldOutSkipsPayment() {
+        when(productDao.findAllByIds(Set.of(2))).thenReturn(List.of(product(2, "Lamp")));
+        when(flashSaleService.flashProductIds(any())).thenReturn(Set.of(2));
+        when(flashSaleService.reserve(Map.of(2, 1))).thenReturn(FlashSaleReservation.insufficient(2));
+
+        NotEnoughInventoryException e = assertThrows(NotEnoughInventoryException.class,
+                () -> orderService.placeOrder(5, pickup(item(2, 1))));
+
+        assertTrue(e.getMessage().contains("Lamp"));
+        verify(paymentService, never()).authorizeTransaction(any());
+        verify(flashSaleService, never()).confirm(any());
+    }
+
+    @Test
+    void placeOrder_ExpiredReservationFailsTheOrder() {
+        when(productDao.findAllByIds(Set.of(2))).thenReturn(List.of(product(2, "Lamp")));
+        when(flashSaleService.flashProductIds(any())).thenReturn(Set.of(2));
+        when(flashSaleService.reserve(Map.of(2, 1))).thenReturn(FlashSaleReservation.reserved("r1"));
+        when(flashSaleService.confirm("r1")).thenReturn(false);
+        when(orderDao.updateStatus(any(), eq("Pending"), eq("Processing"))).thenReturn(true);
+        when(orderDao.updateStatus(any(), eq("Pending"), eq("Failed"))).thenReturn(true);
+
+        assertThrows(RuntimeException.class, () -> orderService.placeOrder(5, pickup(item(2, 1))));
+
+        verify(kafkaTemplate, never()).send(any(), any());
+        verify(flashSaleService).release("r1");
+        // The flash-sale unit never left product.quantity
+        verify(productDao).adjustStock(Map.of());
+    }
+
+    @Test
+    void placeOrder_PaymentFailureCompensates() {
+        when(productDao.findAllByIds(Set.of(1))).thenReturn(List.of(product(1, "Desk")));
+        when(paymentService.authorizeTransaction(any())).thenThrow(new PaymentFailedException("Card declined"));
+        when(orderDao.updateStatus(any(), eq("Pending"), eq("Failed"))).thenReturn(true);
+
+        assertThrows(PaymentFailedException.class, () -> orderService.placeOrder(5, pickup(item(1, 2))));
+
+        verify(orderDao).insertWithItems(any(Order.class));
+        verify(orderDao, never()).updateStatus(any(), eq("Pending"), eq("Processing"));
+        verify(productDao).adjustStock(Map.of(1, 2));
+    }
+
+    @Test
+    void failStalePendingOrders_GivesStockBackOnce() {
+        Order order = Order.builder().id(9).user(user).orderStatus("Pending").items(new ArrayList<>()).build();
+        order.getItems().add(OrderItem.builder().order(order).product(product(1, "Desk")).quantity(2).build());
+        when(orderDao.getOrderIdsByStatusBefore(eq("Pending"), any(), anyInt())).thenReturn(List.of(9));
+        when(orderDao.findById(9)).thenReturn(Optional.of(order));
+        // No longer Pending by the second sweep
+        when(orderDao.updateStatus(9, "Pending", "Failed")).thenReturn(true, false);
+
+        orderService.failStalePendingOrders();
+        orderService.failStalePendingOrders();
+
+        verify(productDao, times(1)).adjustStock(Map.of(1, 2));
+    }
+
+    @Test
+    void cancelOrder_RestocksOnlyWhenStatusChanges() {
+        Order order = Order.builder().id(9).user(user).orderStatus("Processing").items(new ArrayList<>()).build();
+        order.getItems().add(OrderItem.builder().order(order).product(product(1, "Desk")).quantity(2).build());
+        when(orderDao.findById(9)).thenReturn(Optional.of(order));
+        when(orderDao.updateStatus(9, "Processing", "Canceled")).thenReturn(true, false);
+        when(productDao.getSoldOutIds(any())).thenReturn(List.of());
+
+        orderService.cancelOrder(9, 5, false);
+        // A second request that read the order before the first one committed
+        assertThrows(RuntimeException.class, () -> orderService.cancelOrder(9, 5, false));
+
+        verify(productDao, times(1)).adjustStock(Map.of(1, 2));
+    }
+
+    @Test
+    void getOrderHistory_ExtraRowBecomesNextCursor() {
+        LocalDateTime placed = LocalDateTime.of(2024, 3, 1, 9, 30);
+        when(orderDao.getUserOrderSummaries(5, "Completed", null, null, 3)).thenReturn(List.of(
+                new OrderSummaryResponse(12, placed, "Completed"),
+                new OrderSummaryResponse(11, placed, "Completed"),
+                new OrderSummaryResponse(10, placed.minusDays(1), "Completed")));
+        when(orderDao.getUserOrderSummaries(5, "Completed", placed, 11, 3)).thenReturn(List.of(
+                new OrderSummaryResponse(10, placed.minusDays(1), "Completed")));
+
+        PageResponse<OrderSummaryResponse> page = orderService.getOrderHistory(5, null, 2, "Completed");
+
+        assertEquals(List.of(12, 11), page.getContent().stream().map(OrderSummaryResponse::getOrderId).toList());
+        assertEquals(KeysetCursor.encode(placed, 11), page.getNextCursor());
+
+        PageResponse<OrderSummaryResponse> next = orderService.getOrderHistory(5, page.getNextCursor(), 2,
+                "Completed");
+        assertEquals(10, next.getContent().get(0).getOrderId());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void getOrderHistory_LastPageHasNoCursor() {
+        when(orderDao.getUserOrderSummaries(5, null, null, null, 6)).thenReturn(List.of(
+                new OrderSummaryResponse(1, LocalDateTime.of(2024, 1, 1, 0, 0), "Processing")));
+
+        assertNull(orderService.getOrderHistory(5, "", 5, null).getNextCursor());
+    }
+
+    @Test
+    void getOrderHistory_RejectsEmptyPage() {
+        assertThrows(InvalidPageRequestException.class, () -> orderService.getOrderHistory(5, null, 0, null));
+        verifyNoInteractions(orderDao);
+    }
+
+    @Test
+    void getOrderItems_OnlyForTheOwner() {
+        Order order = Order.builder().id(9).user(user).orderStatus("Completed").build();
+        when(orderDao.findById(9)).thenReturn(Optional.of(order));
+        when(orderDao.getItemSummaries(List.of(9))).thenReturn(Map.of(9, List.of(
+                new OrderItemResponse(1, "Desk", 2, BigDecimal.TEN))));
+
+        assertEquals(1, orderService.getOrderItems(9, 5, false).size());
+        assertEquals(1, orderService.getOrderItems(9, 1, true).size());
+        assertThrows(RuntimeException.class, () -> orderService.getOrderItems(9, 6, false));
+    }
+
+    private static Product product(int id, String name) {
+        return Product.builder().id(id).name(name).retailPrice(BigDecimal.TEN).quantity(10).build();
+    }
+
+    private static OrderItemRequest item(int productId, int quantity) {
+        return OrderItemRequest.builder().productId(productId).quantity(quantity).build();
+    }
+
+    private static OrderRequest pickup(OrderItemRequest... items) {
+        return OrderRequest.builder().isPickup(true).order(List.of(items)).build();
+    }
+}
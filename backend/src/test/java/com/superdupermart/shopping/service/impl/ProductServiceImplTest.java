@@ -1,16 +1,42 @@
 package com.superdupermart.shopping.service.impl;
 
 import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.document.ProductDocument;
+import com.superdupermart.shopping.dto.PageResponse;
 import com.superdupermart.shopping.dto.ProductRequest;
 import com.superdupermart.shopping.dto.ProductResponse;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import com.superdupermart.shopping.dto.ReindexStatusResponse;
 import com.superdupermart.shopping.entity.Product;
+import com.superdupermart.shopping.exception.InvalidPageRequestException;
+import com.superdupermart.shopping.service.catalog.CatalogSnapshot;
+import com.superdupermart.shopping.service.catalog.CatalogSnapshotService;
+import com.superdupermart.shopping.service.catalog.ProductChangedEvent;
+import com.superdupermart.shopping.service.count.CountMode;
+import com.superdupermart.shopping.service.count.EntityCountService;
+import com.superdupermart.shopping.service.count.RowCount;
+import com.superdupermart.shopping.service.image.ImageDerivativeService;
+import com.superdupermart.shopping.service.image.ImageStore;
+import com.superdupermart.shopping.service.image.StoredImage;
+import com.superdupermart.shopping.service.pagination.KeysetCursor;
+import com.superdupermart.shopping.service.search.FallbackSearchService;
+import com.superdupermart.shopping.service.search.ProductReindexService;
+import com.superdupermart.shopping.service.search.ProductSearchCriteria;
+import com.superdupermart.shopping.service.search.ProductSearchResult;
+import com.superdupermart.shopping.service.search.ProductSearchService;
+import com.superdupermart.shopping.service.search.SearchCircuitBreaker;
+import com.superdupermart.shopping.service.search.SpellingCorrectionService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockMultipartFile;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -18,6 +44,10 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,31 +56,194 @@ class ProductServiceImplTest {
     @Mock
     private ProductDao productDao;
 
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private ImageStore imageStore;
+
+    @Mock
+    private ImageDerivativeService imageDerivativeService;
+
+    @Mock
+    private EntityCountService entityCountService;
+
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProductReindexService productReindexService;
+
+    @Mock
+    private SearchCircuitBreaker searchCircuitBreaker;
+
+    @Mock
+    private FallbackSearchService fallbackSearchService;
+
+    @Mock
+    private SpellingCorrectionService spellingCorrectionService;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
+    @Test
+    void getProductsByCursor_RejectsEmptyPage() {
+        assertThrows(InvalidPageRequestException.class, () -> productService.getProductsByCursor("", 0));
+        assertThrows(InvalidPageRequestException.class, () -> productService.getProductsByCursor("", -1));
+        verifyNoInteractions(productDao);
+    }
+
+    @Test
+    void getProductsByCursor_LastRowBecomesCursor() {
+        when(productDao.getProductSummariesAfter(null, 2)).thenReturn(List.of(
+                ProductSummaryResponse.builder().id(3).build(), ProductSummaryResponse.builder().id(8).build()));
+
+        PageResponse<ProductSummaryResponse> page = productService.getProductsByCursor("", 1);
+
+        assertEquals(1, page.getContent().size());
+        assertEquals(3, KeysetCursor.decodeId(page.getNextCursor()));
+    }
+
+    @Test
+    void searchProducts_FallsBackWhenElasticsearchFails() {
+        when(fallbackSearchService.isReady()).thenReturn(true);
+        when(searchCircuitBreaker.tryAcquire()).thenReturn(true);
+        when(productSearchService.search(any(ProductSearchCriteria.class), eq(0), eq(10), eq(true)))
+                .thenThrow(new RuntimeException("Connection refused"));
+        when(fallbackSearchService.search(any(ProductSearchCriteria.class), eq(0), eq(10)))
+                .thenReturn(new ProductSearchResult(List.of(), 0, null));
+
+        PageResponse<ProductResponse> result = productService.searchProducts("phone", null, null, null, null, 0, 10);
+
+        assertEquals(Boolean.TRUE, result.getDegraded());
+        verify(searchCircuitBreaker).onFailure();
+    }
+
+    @Test
+    void searchProducts_SkipsElasticsearchWhileBreakerOpen() {
+        when(fallbackSearchService.isReady()).thenReturn(true);
+        when(searchCircuitBreaker.tryAcquire()).thenReturn(false);
+        when(fallbackSearchService.search(any(ProductSearchCriteria.class), eq(0), eq(10)))
+                .thenReturn(new ProductSearchResult(List.of(), 0, null));
+
+        PageResponse<ProductResponse> result = productService.searchProducts("phone", null, null, null, null, 0, 10);
+
+        assertEquals(Boolean.TRUE, result.getDegraded());
+        verifyNoInteractions(productSearchService);
+    }
+
+    @Test
+    void searchProducts_AnswersCorrectedQueryWhenNothingMatches() {
+        when(productSearchService.search(argThat(c -> c != null && "labtop".equals(c.getQuery())), eq(0), eq(10),
+                eq(true)))
+                .thenReturn(new ProductSearchResult(List.of(), 0, null));
+        when(productSearchService.search(argThat(c -> c != null && "laptop".equals(c.getQuery())), eq(0), eq(10),
+                eq(true)))
+                .thenReturn(new ProductSearchResult(List.of(ProductDocument.builder().id(7).name("Laptop").build()),
+                        1, null));
+        when(spellingCorrectionService.tooFewHits(0)).thenReturn(true);
+        when(spellingCorrectionService.correct("labtop")).thenReturn("laptop");
+
+        PageResponse<ProductResponse> result = productService.searchProducts("Labtop", null, null, null, null, 0, 10);
+
+        assertEquals("laptop", result.getCorrectedQuery());
+        assertNull(result.getSuggestedQuery());
+        assertEquals(7, result.getContent().get(0).getId());
+    }
+
+    @Test
+    void searchProducts_SuggestsSpellingWhenFewMatch() {
+        when(productSearchService.search(any(ProductSearchCriteria.class), eq(0), eq(10), eq(true)))
+                .thenReturn(new ProductSearchResult(
+                        List.of(ProductDocument.builder().id(3).name("Hedge trimmer").build()), 1, null));
+        when(spellingCorrectionService.tooFewHits(1)).thenReturn(true);
+        when(spellingCorrectionService.correct("hedghog")).thenReturn("hedgehog");
+
+        PageResponse<ProductResponse> result = productService.searchProducts("hedghog", null, null, null, null, 0, 10);
+
+        assertEquals("hedgehog", result.getSuggestedQuery());
+        assertNull(result.getCorrectedQuery());
+        verify(productSearchService, times(1)).search(any(ProductSearchCriteria.class), anyInt(), anyInt(),
+                anyBoolean());
+    }
+
+    @Test
+    void searchProducts_MultiWordCorrectionKeepsTheShoppersWordOrder() {
+        // Elasticsearch gets the normalized, token-sorted form of both queries
+        when(productSearchService.search(argThat(c -> c != null && "mouse wireles".equals(c.getQuery())), eq(0),
+                eq(10), eq(true)))
+                .thenReturn(new ProductSearchResult(List.of(), 0, null));
+        when(productSearchService.search(argThat(c -> c != null && "mouse wireless".equals(c.getQuery())), eq(0),
+                eq(10), eq(true)))
+                .thenReturn(new ProductSearchResult(List.of(ProductDocument.builder().id(9).name("Mouse").build()),
+                        1, null));
+        when(spellingCorrectionService.tooFewHits(0)).thenReturn(true);
+        when(spellingCorrectionService.correct("wireles mouse")).thenReturn("wireless mouse");
+
+        PageResponse<ProductResponse> result = productService.searchProducts(" Wireles  Mouse", null, null, null,
+                null, 0, 10);
+
+        assertEquals("wireless mouse", result.getCorrectedQuery());
+        assertEquals(9, result.getContent().get(0).getId());
+    }
+
     @Test
     void getAllProducts_Admin() {
-        Product p1 = Product.builder().id(1).name("P1").quantity(10).build();
-        when(productDao.getAllProducts()).thenReturn(Arrays.asList(p1));
+        ProductSummaryResponse p1 = new ProductSummaryResponse(1, "P1", null, BigDecimal.TEN, BigDecimal.ONE, 10,
+                null, null);
+        when(productDao.getProductSummaries(false)).thenReturn(Arrays.asList(p1));
 
-        List<ProductResponse> result = productService.getAllProducts(true);
+        List<ProductSummaryResponse> result = productService.getAllProducts(true);
 
         assertEquals(1, result.size());
-        verify(productDao).getAllProducts();
-        verify(productDao, never()).getInStockProducts();
+        assertEquals(10, result.get(0).getQuantity());
+        verify(productDao).getProductSummaries(false);
+        verify(productDao, never()).getProductSummaries(true);
     }
 
     @Test
     void getAllProducts_User() {
-        Product p1 = Product.builder().id(1).name("P1").quantity(10).build();
-        when(productDao.getInStockProducts()).thenReturn(Arrays.asList(p1));
+        ProductSummaryResponse p1 = new ProductSummaryResponse(1, "P1", null, BigDecimal.TEN, BigDecimal.ONE, 10,
+                "image/png", "a".repeat(64));
+        when(productDao.getProductSummaries(true)).thenReturn(Arrays.asList(p1));
+
+        List<ProductSummaryResponse> result = productService.getAllProducts(false);
+
+        assertEquals(1, result.size());
+        assertNull(result.get(0).getWholesalePrice());
+        assertNull(result.get(0).getQuantity());
+        assertEquals("/products/1/image?v=" + "a".repeat(64), result.get(0).getImageUrl());
+        verify(productDao).getProductSummaries(true);
+        verify(productDao, never()).getProductSummaries(false);
+    }
+
+    @Test
+    void getAllProducts_User_FromSnapshot() {
+        CatalogSnapshot snapshot = CatalogSnapshot.of(List.of(
+                new ProductSummaryResponse(1, "P1", null, BigDecimal.TEN, BigDecimal.ONE, 10, null, null)));
+        when(catalogSnapshotService.current()).thenReturn(snapshot);
 
-        List<ProductResponse> result = productService.getAllProducts(false);
+        List<ProductSummaryResponse> result = productService.getAllProducts(false);
 
         assertEquals(1, result.size());
-        verify(productDao).getInStockProducts();
-        verify(productDao, never()).getAllProducts();
+        assertNull(result.get(0).getQuantity());
+        verifyNoInteractions(productDao);
+    }
+
+    @Test
+    void getProductsPage_UsesCountService() {
+        when(productDao.getPaginatedProductSummaries(1, 5)).thenReturn(Collections.emptyList());
+        when(entityCountService.count(Product.class, CountMode.ESTIMATED)).thenReturn(RowCount.estimated(12L));
+
+        PageResponse<ProductSummaryResponse> result = productService.getProductsPage(1, 5, CountMode.ESTIMATED);
+
+        assertEquals(12L, result.getTotalElements());
+        assertEquals(3, result.getTotalPages());
+        assertFalse(result.getTotalExact());
+        verify(productDao, never()).countProducts();
     }
 
     @Test
@@ -128,8 +321,51 @@ class ProductServiceImplTest {
         // Assert
         verify(productDao).findById(productId);
         verify(productDao).update(any(Product.class)); // or capture argument to assert changes
+        verify(eventPublisher).publishEvent(any(ProductChangedEvent.class));
 
         // Detailed assertion using ArgumentCaptor is better, but this suffices for
         // basic flow
     }
+
+    @Test
+    void uploadProductImage_StoresHashNotBytes() throws Exception {
+        Product product = Product.builder().id(1).name("P1").quantity(10).build();
+        when(productDao.findById(1)).thenReturn(Optional.of(product));
+        String hash = "a".repeat(64);
+        when(imageStore.store(any(InputStream.class)))
+                .thenReturn(new StoredImage(hash, Path.of("unused"), 3, 0L));
+
+        productService.uploadProductImage(1,
+                new MockMultipartFile("file", "p.png", "image/png", new byte[] { 1, 2, 3 }));
+
+        assertEquals(hash, product.getImageHash());
+        assertEquals("image/png", product.getImageContentType());
+        verify(productDao).update(product);
+        verify(imageDerivativeService).generateAllAsync(hash);
+    }
+
+    @Test
+    void uploadProductImage_ReplacedImageDeletedWhenUnreferenced() throws Exception {
+        String oldHash = "b".repeat(64);
+        String newHash = "c".repeat(64);
+        Product product = Product.builder().id(1).name("P1").quantity(10).imageHash(oldHash).build();
+        when(productDao.findById(1)).thenReturn(Optional.of(product));
+        when(imageStore.store(any(InputStream.class)))
+                .thenReturn(new StoredImage(newHash, Path.of("unused"), 3, 0L));
+        when(productDao.countByImageHash(oldHash)).thenReturn(0L);
+
+        productService.uploadProductImage(1,
+                new MockMultipartFile("file", "p.png", "image/png", new byte[] { 1, 2, 3 }));
+
+        verify(imageStore).delete(oldHash);
+    }
+
+    @Test
+    void syncAllProducts_StartsReindex() {
+        ReindexStatusResponse status = ReindexStatusResponse.builder().status("RUNNING").index("products_v1").build();
+        when(productReindexService.start()).thenReturn(status);
+
+        assertSame(status, productService.syncAllProducts());
+        verifyNoInteractions(productSearchService);
+    }
 }
@@ -0,0 +1,231 @@
+package com.superdupermart.shopping.service.inventory;
+
+import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.entity.Product;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.superdupermart.shopping.service.inventory.FlashSaleService.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+// Runs the Lua scripts against a real Redis; skipped where Docker is not available
+@Testcontainers(disabledWithoutDocker = true)
+class FlashSaleScriptsTest {
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private ProductDao productDao;
+    private FlashSaleService service;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(REDIS.getHost(), REDIS.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute(connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        }, true);
+        productDao = mock(ProductDao.class);
+        service = new FlashSaleService(redisTemplate, productDao, mock(ApplicationEventPublisher.class),
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "reservationTtlMs", 60000L);
+        ReflectionTestUtils.setField(service, "activationDelayMs", 0L);
+    }
+
+    @Test
+    void start_LoadsStockFromTheDatabaseOnceDue() {
+        Product product = Product.builder().id(1).quantity(4).build();
+        when(productDao.findById(1)).thenReturn(Optional.of(product));
+        when(productDao.findByIdForUpdate(1)).thenReturn(Optional.of(product));
+
+        service.start(1);
+
+        assertEquals("ACTIVE", service.getStatus(1).getState());
+        assertEquals(4L, service.getStatus(1).getStock());
+    }
+
+    @Test
+    void reserve_AllItemsOrNone() {
+        activeSale(1, 5);
+        activeSale(2, 1);
+
+        FlashSaleReservation tooMany = service.reserve(Map.of(1, 2, 2, 2));
+        assertFalse(tooMany.isReserved());
+        assertEquals(2, tooMany.getInsufficientProductId());
+        assertEquals("5", stock(1));
+        assertEquals(0L, service.getStatus(1).getHeld());
+
+        assertTrue(service.reserve(Map.of(1, 2, 2, 1)).isReserved());
+        assertEquals("3", stock(1));
+        assertEquals("0", stock(2));
+        assertEquals(2L, service.getStatus(1).getHeld());
+    }
+
+    @Test
+    void release_Twice_GivesUnitsBackOnce() {
+        activeSale(1, 5);
+        String id = service.reserve(Map.of(1, 2)).getId();
+
+        service.release(id);
+        service.release(id);
+
+        assertEquals("5", stock(1));
+        assertEquals(0L, service.getStatus(1).getHeld());
+    }
+
+    @Test
+    void confirm_Twice_SellsOnce() {
+        activeSale(1, 5);
+        String id = service.reserve(Map.of(1, 2)).getId();
+
+        assertTrue(service.confirm(id));
+        assertFalse(service.confirm(id));
+        // Too late to release a confirmed reservation
+        service.release(id);
+
+        assertEquals("3", stock(1));
+        assertEquals(0L, service.getStatus(1).getHeld());
+        assertEquals(2L, service.getStatus(1).getUnreconciled());
+    }
+
+    @Test
+    void confirm_AfterReleaseFails() {
+        activeSale(1, 5);
+        String id = service.reserve(Map.of(1, 2)).getId();
+
+        service.release(id);
+
+        assertFalse(service.confirm(id));
+        assertEquals("5", stock(1));
+        assertEquals(0L, service.getStatus(1).getUnreconciled());
+    }
+
+    @Test
+    void expiredReservation_CannotBeConfirmedAndIsSweptOnce() {
+        activeSale(1, 5);
+        ReflectionTestUtils.setField(service, "reservationTtlMs", -1L);
+        String id = service.reserve(Map.of(1, 2)).getId();
+
+        assertFalse(service.confirm(id));
+        service.releaseExpired();
+        service.releaseExpired();
+        assertFalse(service.confirm(id));
+
+        assertEquals("5", stock(1));
+        assertEquals(0L, service.getStatus(1).getUnreconciled());
+    }
+
+    @Test
+    void sweeper_LeavesConfirmedReservationsAlone() {
+        activeSale(1, 5);
+        String id = service.reserve(Map.of(1, 2)).getId();
+        assertTrue(service.confirm(id));
+
+        service.releaseExpired();
+
+        assertEquals("3", stock(1));
+        assertEquals(2L, service.getStatus(1).getUnreconciled());
+    }
+
+    @Test
+    void unconfirm_GivesUnitsBackOnce() {
+        activeSale(1, 5);
+        String id = service.reserve(Map.of(1, 2)).getId();
+        assertTrue(service.confirm(id));
+
+        service.unconfirm(id);
+        service.unconfirm(id);
+
+        assertEquals("5", stock(1));
+        assertEquals(0L, service.getStatus(1).getUnreconciled());
+    }
+
+    @Test
+    void unconfirm_AfterReconcileGivesUnitsBackToTheDatabase() {
+        activeSale(1, 5);
+        String id = service.reserve(Map.of(1, 2)).getId();
+        assertTrue(service.confirm(id));
+        service.reconcile();
+        verify(productDao).adjustStock(Map.of(1, -2));
+
+        service.unconfirm(id);
+        service.reconcile();
+
+        verify(productDao).adjustStock(Map.of(1, 2));
+        assertEquals("5", stock(1));
+        // The lock was released after each run
+        assertNull(redisTemplate.opsForValue().get(RECONCILE_LOCK_KEY));
+    }
+
+    @Test
+    void stop_FinishesOnlyOnceReservationsAreSettledAndReconciled() {
+        activeSale(1, 5);
+        String open = service.reserve(Map.of(1, 1)).getId();
+        String sold = service.reserve(Map.of(1, 2)).getId();
+        assertTrue(service.confirm(sold));
+
+        service.stop(1);
+        assertNull(stock(1));
+        service.refresh();
+        assertEquals("DRAINING", service.getStatus(1).getState());
+
+        // Nothing goes back to a stopped sale's counter; those units never left the database
+        service.release(open);
+        service.refresh();
+        assertEquals("DRAINING", service.getStatus(1).getState());
+
+        service.reconcile();
+        service.refresh();
+        assertEquals("NONE", service.getStatus(1).getState());
+        verify(productDao).adjustStock(Map.of(1, -2));
+        verify(productDao, never()).adjustStock(Map.of(1, 1));
+        assertTrue(service.flashProductIds(Set.of(1)).contains(1));
+        service.refresh();
+        assertTrue(service.flashProductIds(Set.of(1)).isEmpty());
+        verify(productDao, never()).findByIdForUpdate(any());
+    }
+
+    private void activeSale(int productId, int units) {
+        redisTemplate.opsForHash().put(PRODUCTS_KEY, String.valueOf(productId), ACTIVE);
+        redisTemplate.opsForValue().set(STOCK_PREFIX + productId, String.valueOf(units));
+        service.refresh();
+    }
+
+    private String stock(int productId) {
+        return redisTemplate.opsForValue().get(STOCK_PREFIX + productId);
+    }
+}
@@ -0,0 +1,168 @@
+package com.superdupermart.shopping.service.inventory;
+
+import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.entity.Product;
+import com.superdupermart.shopping.service.catalog.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.superdupermart.shopping.service.inventory.FlashSaleService.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Scheduling and database side of the service; the scripts themselves run in FlashSaleScriptsTest
+class FlashSaleServiceTest {
+
+    private StringRedisTemplate redisTemplate;
+    private HashOperations<String, Object, Object> hashOps;
+    private ValueOperations<String, String> valueOps;
+    private ProductDao productDao;
+    private ApplicationEventPublisher eventPublisher;
+    private FlashSaleService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        hashOps = mock(HashOperations.class);
+        valueOps = mock(ValueOperations.class);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOps);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        productDao = mock(ProductDao.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        service = new FlashSaleService(redisTemplate, productDao, eventPublisher,
+                mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "enabled", true);
+    }
+
+    @Test
+    void refresh_ActivatesDueSalesAndFinishesDrainingOnes() {
+        String due = PENDING_PREFIX + (System.currentTimeMillis() - 1000);
+        String later = PENDING_PREFIX + (System.currentTimeMillis() + 60000);
+        when(hashOps.entries(PRODUCTS_KEY)).thenReturn(Map.of("1", due, "2", later, "3", DRAINING, "4", ACTIVE));
+        when(productDao.findByIdForUpdate(1)).thenReturn(Optional.of(Product.builder().id(1).quantity(7).build()));
+
+        service.refresh();
+
+        verify(redisTemplate).execute(ACTIVATE, List.of(PRODUCTS_KEY, STOCK_PREFIX + 1), "1", "7", due);
+        verify(redisTemplate).execute(FINISH, List.of(PRODUCTS_KEY, HELD_KEY, SOLD_KEY, RECONCILING_KEY), "3");
+        verify(productDao, never()).findByIdForUpdate(2);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), any(Object[].class));
+        assertEquals(Set.of(1, 2, 3, 4), service.flashProductIds(Set.of(1, 2, 3, 4, 5)));
+    }
+
+    @Test
+    void refresh_ActivatesOversoldProductWithNoUnits() {
+        String due = PENDING_PREFIX + (System.currentTimeMillis() - 1000);
+        when(hashOps.entries(PRODUCTS_KEY)).thenReturn(Map.of("1", due));
+        when(productDao.findByIdForUpdate(1)).thenReturn(Optional.of(Product.builder().id(1).quantity(-2).build()));
+
+        service.refresh();
+
+        verify(redisTemplate).execute(ACTIVATE, List.of(PRODUCTS_KEY, STOCK_PREFIX + 1), "1", "0", due);
+    }
+
+    @Test
+    void refresh_KeepsRoutingOnLastStatesWhenRedisFails() {
+        when(hashOps.entries(PRODUCTS_KEY)).thenReturn(Map.of("1", ACTIVE))
+                .thenThrow(new IllegalStateException("connection refused"));
+
+        service.refresh();
+        service.refresh();
+
+        assertEquals(Set.of(1), service.flashProductIds(Set.of(1, 2)));
+    }
+
+    @Test
+    void release_PassesTheStockKeysOfItsItems() {
+        when(hashOps.keys(RESERVATION_PREFIX + "r1")).thenReturn(new LinkedHashSet<>(List.of("1", "2")));
+
+        service.release("r1");
+
+        verify(redisTemplate).execute(RELEASE,
+                List.of(RESERVATION_PREFIX + "r1", EXPIRY_KEY, HELD_KEY, STOCK_PREFIX + "1", STOCK_PREFIX + "2"),
+                "r1", "1", "2");
+    }
+
+    @Test
+    void unconfirm_PassesTheStockKeysOfItsItems() {
+        when(hashOps.keys(CONFIRMED_PREFIX + "r1")).thenReturn(new LinkedHashSet<>(List.of("1", "2")));
+
+        service.unconfirm("r1");
+
+        verify(redisTemplate).execute(UNCONFIRM,
+                List.of(CONFIRMED_PREFIX + "r1", SOLD_KEY, STOCK_PREFIX + "1", STOCK_PREFIX + "2"), "1", "2");
+    }
+
+    @Test
+    void unconfirm_WithoutAConfirmationRunsNoScript() {
+        when(hashOps.keys(CONFIRMED_PREFIX + "r1")).thenReturn(Set.of());
+
+        service.unconfirm("r1");
+
+        verify(redisTemplate, never()).execute(eq(UNCONFIRM), anyList(), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconcile_WritesSoldUnitsAndClearsTheBatch() {
+        when(valueOps.setIfAbsent(eq(RECONCILE_LOCK_KEY), anyString(), any(Duration.class))).thenReturn(true);
+        when(redisTemplate.execute(TAKE_SOLD, List.of(SOLD_KEY, RECONCILING_KEY)))
+                .thenReturn(List.of("1", "3", "2", "0", "5", "-2"));
+        when(productDao.getSoldOutIds(any())).thenReturn(List.of(1));
+
+        service.reconcile();
+
+        // An undone confirmation left a negative count, which gives units back
+        verify(productDao).adjustStock(Map.of(1, -3, 5, 2));
+        verify(eventPublisher).publishEvent(any(ProductChangedEvent.class));
+        verify(redisTemplate).delete(RECONCILING_KEY);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(RECONCILE_LOCK_KEY)), anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconcile_FailedWriteKeepsTheBatchForTheNextRun() {
+        when(valueOps.setIfAbsent(eq(RECONCILE_LOCK_KEY), anyString(), any(Duration.class))).thenReturn(true);
+        when(redisTemplate.execute(TAKE_SOLD, List.of(SOLD_KEY, RECONCILING_KEY))).thenReturn(List.of("1", "3"));
+        doThrow(new IllegalStateException("deadlock")).doNothing().when(productDao).adjustStock(any());
+
+        service.reconcile();
+        verify(redisTemplate, never()).delete(RECONCILING_KEY);
+
+        service.reconcile();
+        verify(productDao, times(2)).adjustStock(Map.of(1, -3));
+        verify(redisTemplate).delete(RECONCILING_KEY);
+        // Released after both runs
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), eq(List.of(RECONCILE_LOCK_KEY)),
+                anyString());
+    }
+
+    @Test
+    void reconcile_SkipsWhileAnotherNodeHoldsTheLock() {
+        when(valueOps.setIfAbsent(eq(RECONCILE_LOCK_KEY), anyString(), any(Duration.class))).thenReturn(false);
+
+        service.reconcile();
+
+        verify(redisTemplate, never()).execute(eq(TAKE_SOLD), anyList());
+        verify(productDao, never()).adjustStock(any());
+    }
+}
@@ -0,0 +1,46 @@
+package com.superdupermart.shopping.service.pagination;
+
+import com.superdupermart.shopping.exception.InvalidCursorException;
+import com.superdupermart.shopping.exception.InvalidPageRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsCompositeKey() {
+        LocalDateTime datePlaced = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123000);
+        String cursor = KeysetCursor.encode(datePlaced, 42);
+
+        String[] keys = KeysetCursor.decode(cursor, 2);
+
+        assertEquals(datePlaced, LocalDateTime.parse(keys[0]));
+        assertEquals("42", keys[1]);
+    }
+
+    @Test
+    void emptyCursorMeansFirstPage() {
+        assertNull(KeysetCursor.decode(null, 2));
+        assertNull(KeysetCursor.decode("", 2));
+        assertNull(KeysetCursor.decodeId(""));
+    }
+
+    @Test
+    void rejectsTamperedCursor() {
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode("not base64!", 1));
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode(KeysetCursor.encode(1), 2));
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.decodeId(KeysetCursor.encode("abc")));
+    }
+
+    @Test
+    void rejectsPageSizeOutOfRange() {
+        assertThrows(InvalidPageRequestException.class, () -> KeysetCursor.checkPageSize(0));
+        assertThrows(InvalidPageRequestException.class, () -> KeysetCursor.checkPageSize(-5));
+        assertThrows(InvalidPageRequestException.class,
+                () -> KeysetCursor.checkPageSize(KeysetCursor.MAX_PAGE_SIZE + 1));
+        assertDoesNotThrow(() -> KeysetCursor.checkPageSize(1));
+    }
+}
@@ -0,0 +1,63 @@
+package com.superdupermart.shopping.service.search;
+
+import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class FallbackSearchServiceTest {
+
+    private ProductDao productDao;
+    private FallbackSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        productDao = mock(ProductDao.class);
+        service = new FallbackSearchService(productDao, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "maxProducts", 2);
+        ReflectionTestUtils.setField(service, "fetchSize", 100);
+    }
+
+    @Test
+    void retryLoad_RecoversFromAFailedStartupLoad() {
+        when(productDao.streamProductSummaries(anyBoolean(), anyInt()))
+                .thenThrow(new IllegalStateException("connection refused"))
+                .thenAnswer(inv -> Stream.of(row(1)));
+
+        service.onApplicationReady();
+        assertFalse(service.isReady());
+
+        service.retryLoad();
+        assertTrue(service.isReady());
+        service.retryLoad();
+        verify(productDao, times(2)).streamProductSummaries(anyBoolean(), anyInt());
+    }
+
+    @Test
+    void retryLoad_EnablesAgainOnceTheCatalogFits() {
+        when(productDao.streamProductSummaries(anyBoolean(), anyInt()))
+                .thenAnswer(inv -> Stream.of(row(1), row(2), row(3)))
+                .thenAnswer(inv -> Stream.of(row(1), row(2)));
+
+        service.onApplicationReady();
+        assertFalse(service.isReady());
+
+        service.retryLoad();
+        assertTrue(service.isReady());
+    }
+
+    private static ProductSummaryResponse row(int id) {
+        return ProductSummaryResponse.builder().id(id).name("Product " + id).retailPrice(BigDecimal.TEN).build();
+    }
+}
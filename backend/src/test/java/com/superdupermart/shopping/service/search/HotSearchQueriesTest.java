@@ -0,0 +1,122 @@
+package com.superdupermart.shopping.service.search;
+
+import com.superdupermart.shopping.dto.PageResponse;
+import com.superdupermart.shopping.dto.ProductResponse;
+import com.superdupermart.shopping.service.ProductService;
+import com.superdupermart.shopping.service.catalog.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class HotSearchQueriesTest {
+
+    private static final List<Object> LAPTOP_KEY = SearchQueryNormalizer.cacheKey("laptop", null, null, null, null,
+            0, 20);
+
+    private ProductService productService;
+    private Cache cache;
+    private HotSearchQueries hotQueries;
+    private final PageResponse<ProductResponse> fresh = PageResponse.<ProductResponse>builder()
+            .content(List.of()).build();
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ProductService.class);
+        when(productService.searchProductsUncached(any(), any(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(fresh);
+        ProductIndexer productIndexer = mock(ProductIndexer.class);
+        when(productIndexer.isIdle()).thenReturn(true);
+        CacheManager cacheManager = mock(CacheManager.class);
+        cache = mock(Cache.class);
+        when(cacheManager.getCache("product_search")).thenReturn(cache);
+        hotQueries = new HotSearchQueries(productService, productIndexer, cacheManager, 10, 60000, 100);
+        ReflectionTestUtils.setField(hotQueries, "enabled", true);
+        ReflectionTestUtils.setField(hotQueries, "topN", 50);
+        ReflectionTestUtils.setField(hotQueries, "minCount", 1L);
+        ReflectionTestUtils.setField(hotQueries, "settleMs", 0L);
+        hotQueries.record("laptop", null, null, null, null, 0, 20);
+    }
+
+    @Test
+    void rewarm_OnlyAfterAChange() {
+        hotQueries.rewarm();
+        verify(cache, never()).clear();
+
+        hotQueries.onProductChanged(ProductChangedEvent.of(1));
+        hotQueries.rewarm();
+        hotQueries.rewarm();
+
+        verify(cache, times(1)).clear();
+        verify(productService, times(1)).searchProductsUncached("laptop", null, null, null, null, 0, 20);
+        verify(productService, never()).searchProducts(any(), any(), any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void rewarm_SearchesBeforeClearingAndPutsTheFreshResultsBack() {
+        hotQueries.onProductChanged(ProductChangedEvent.of(1));
+
+        hotQueries.rewarm();
+
+        InOrder order = inOrder(productService, cache);
+        order.verify(productService).searchProductsUncached("laptop", null, null, null, null, 0, 20);
+        order.verify(cache).clear();
+        order.verify(cache).put(LAPTOP_KEY, fresh);
+    }
+
+    @Test
+    void rewarm_DegradedResultIsNotCached() {
+        fresh.setDegraded(true);
+        hotQueries.onProductChanged(ProductChangedEvent.of(1));
+
+        hotQueries.rewarm();
+
+        verify(cache).clear();
+        verify(cache, never()).put(any(), any());
+    }
+
+    @Test
+    void rewarm_ChangeDuringARunIsNotLost() {
+        hotQueries.onProductChanged(ProductChangedEvent.of(1));
+        // Another product changes while the first re-warm is re-running searches
+        doAnswer(inv -> {
+            hotQueries.onProductChanged(ProductChangedEvent.of(2));
+            return fresh;
+        }).doReturn(fresh).when(productService)
+                .searchProductsUncached(any(), any(), any(), any(), any(), anyInt(), anyInt());
+
+        hotQueries.rewarm();
+        hotQueries.rewarm();
+        hotQueries.rewarm();
+
+        verify(cache, times(2)).clear();
+    }
+
+    @Test
+    void rewarm_DisabledStillClearsAfterAChange() {
+        ReflectionTestUtils.setField(hotQueries, "enabled", false);
+        hotQueries.onProductChanged(ProductChangedEvent.of(1));
+
+        hotQueries.rewarm();
+
+        verify(cache).clear();
+        verify(productService, never()).searchProductsUncached(any(), any(), any(), any(), any(), anyInt(),
+                anyInt());
+    }
+
+    @Test
+    void remoteChangesAreLeftToTheOriginatingNode() {
+        hotQueries.onProductChanged(new ProductChangedEvent(List.of(1), true));
+        hotQueries.rewarm();
+
+        verify(cache, never()).clear();
+    }
+}
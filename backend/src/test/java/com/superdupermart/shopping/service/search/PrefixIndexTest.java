@@ -0,0 +1,42 @@
+package com.superdupermart.shopping.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+
+    // Targets: 0 = apple iphone, 1 = apple watch, 2 = apricot jam
+    private final List<String> keys = List.of("apple iphone", "iphone", "apple watch", "watch", "apricot jam", "jam");
+    private final int[] targets = { 0, 0, 1, 1, 2, 2 };
+    private final long[] weights = { 50, 10, 30 };
+
+    @Test
+    void lookup_RanksByWeight() {
+        PrefixIndex index = PrefixIndex.build(keys, targets, weights, 10);
+
+        assertArrayEquals(new int[] { 0, 2, 1 }, index.lookup("ap"));
+        assertArrayEquals(new int[] { 0, 1 }, index.lookup("apple"));
+        assertArrayEquals(new int[] { 1 }, index.lookup("apple w"));
+        assertArrayEquals(new int[] { 0 }, index.lookup("iph"));
+    }
+
+    @Test
+    void lookup_ReportsEachTargetOnceAndHonoursTopK() {
+        PrefixIndex index = PrefixIndex.build(keys, targets, weights, 2);
+
+        assertArrayEquals(new int[] { 0, 2 }, index.lookup(""));
+        assertArrayEquals(new int[] { 0, 2 }, index.lookup("a"));
+    }
+
+    @Test
+    void lookup_NoMatch() {
+        PrefixIndex index = PrefixIndex.build(keys, targets, weights, 10);
+
+        assertEquals(0, index.lookup("apples").length);
+        assertEquals(0, index.lookup("z").length);
+        assertEquals(0, PrefixIndex.build(List.of(), new int[0], new long[0], 10).lookup("a").length);
+    }
+}
@@ -0,0 +1,99 @@
+package com.superdupermart.shopping.service.search;
+
+import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.document.ProductDocument;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import com.superdupermart.shopping.repository.ProductSearchRepository;
+import com.superdupermart.shopping.service.catalog.ProductChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class ProductIndexerTest {
+
+    private ProductDao productDao;
+    private ProductSearchRepository productSearchRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductIndexer indexer;
+
+    @BeforeEach
+    void setUp() {
+        productDao = mock(ProductDao.class);
+        productSearchRepository = mock(ProductSearchRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        indexer = new ProductIndexer(productDao, productSearchRepository, mock(PlatformTransactionManager.class),
+                meterRegistry);
+        ReflectionTestUtils.setField(indexer, "batchSize", 500);
+        ReflectionTestUtils.setField(indexer, "initialBackoffMs", 60_000L);
+        ReflectionTestUtils.setField(indexer, "maxBackoffMs", 60_000L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_CoalescesRepeatedChanges() {
+        indexer.onProductChanged(ProductChangedEvent.of(1));
+        indexer.onProductChanged(ProductChangedEvent.of(1));
+        indexer.onProductChanged(ProductChangedEvent.of(List.of(1, 2)));
+        when(productDao.getProductSummariesByIds(anyCollection())).thenReturn(List.of(summary(1), summary(2)));
+
+        indexer.flush();
+
+        verify(productDao, times(1)).getProductSummariesByIds(Set.of(1, 2));
+        ArgumentCaptor<Iterable<ProductDocument>> saved = ArgumentCaptor.forClass(Iterable.class);
+        verify(productSearchRepository, times(1)).saveAll(saved.capture());
+        assertEquals(2, ((List<ProductDocument>) saved.getValue()).size());
+        verify(productSearchRepository, never()).deleteAllById(any());
+        assertEquals(0, meterRegistry.get("search.indexer.queue.depth").gauge().value());
+    }
+
+    @Test
+    void flush_RemovesDeletedProducts() {
+        indexer.onProductChanged(ProductChangedEvent.of(7));
+        when(productDao.getProductSummariesByIds(anyCollection())).thenReturn(List.of());
+
+        indexer.flush();
+
+        verify(productSearchRepository).deleteAllById(Set.of(7));
+        verify(productSearchRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void flush_RequeuesAndBacksOffOnFailure() {
+        indexer.onProductChanged(ProductChangedEvent.of(3));
+        when(productDao.getProductSummariesByIds(anyCollection())).thenReturn(List.of(summary(3)));
+        when(productSearchRepository.saveAll(any())).thenThrow(new RuntimeException("cluster unavailable"));
+
+        indexer.flush();
+        indexer.flush();
+
+        // Second flush is inside the backoff window
+        verify(productSearchRepository, times(1)).saveAll(any());
+        assertEquals(1, meterRegistry.get("search.indexer.queue.depth").gauge().value());
+        assertEquals(1, meterRegistry.get("search.indexer.failures").counter().count());
+    }
+
+    @Test
+    void onProductChanged_IgnoresRemoteEvents() {
+        indexer.onProductChanged(new ProductChangedEvent(List.of(5), true));
+
+        indexer.flush();
+
+        verifyNoInteractions(productDao, productSearchRepository);
+    }
+
+    private static ProductSummaryResponse summary(int id) {
+        return ProductSummaryResponse.builder().id(id).name("P" + id).retailPrice(BigDecimal.TEN).quantity(1).build();
+    }
+}
@@ -0,0 +1,198 @@
+package com.superdupermart.shopping.service.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.DeleteIndexRequest;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import co.elastic.clients.elasticsearch.indices.GetAliasResponse;
+import co.elastic.clients.elasticsearch.indices.UpdateAliasesRequest;
+import co.elastic.clients.elasticsearch.indices.get_alias.IndexAliases;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import co.elastic.clients.transport.endpoints.BooleanResponse;
+import co.elastic.clients.util.ObjectBuilder;
+import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.exception.ReindexInProgressException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static com.superdupermart.shopping.service.search.ProductReindexService.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ProductReindexServiceTest {
+
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOps;
+    private HashOperations<String, Object, Object> hashOps;
+    private ElasticsearchOperations operations;
+    private ElasticsearchIndicesClient indices;
+    private ProductReindexService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOps = mock(ValueOperations.class);
+        hashOps = mock(HashOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOps);
+        when(redisTemplate.opsForSet()).thenReturn(mock(SetOperations.class));
+        operations = mock(ElasticsearchOperations.class);
+        ElasticsearchClient client = mock(ElasticsearchClient.class);
+        indices = mock(ElasticsearchIndicesClient.class);
+        when(client.indices()).thenReturn(indices);
+        service = new ProductReindexService(mock(ProductDao.class), operations, client, redisTemplate,
+                mock(PlatformTransactionManager.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void start_RefusedWhileAnotherNodeHoldsTheLock() {
+        when(valueOps.setIfAbsent(eq(LOCK_KEY), anyString(), any(Duration.class))).thenReturn(false);
+
+        assertThrows(ReindexInProgressException.class, () -> service.start());
+
+        verify(hashOps, never()).entries(any());
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void start_FailureReleasesOnlyOurLock() {
+        when(valueOps.setIfAbsent(eq(LOCK_KEY), anyString(), any(Duration.class))).thenReturn(true);
+        when(hashOps.entries(STATE_KEY)).thenThrow(new IllegalStateException("connection refused"));
+
+        assertThrows(IllegalStateException.class, () -> service.start());
+
+        // Compare-and-delete: a lock that expired and was taken over is left alone
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(LOCK_KEY)), eq(service.nodeId));
+        verify(redisTemplate, never()).delete(LOCK_KEY);
+    }
+
+    @Test
+    void extendLock_OnlyExtendsOurLock() {
+        service.extendLock();
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(LOCK_KEY)), eq(service.nodeId),
+                eq(String.valueOf(LOCK_TTL.toMillis())));
+        verify(redisTemplate, never()).expire(anyString(), any(Duration.class));
+    }
+
+    @Test
+    void start_ResumesAFailedJobIntoItsIndex() {
+        when(valueOps.setIfAbsent(eq(LOCK_KEY), anyString(), any(Duration.class))).thenReturn(true);
+        when(hashOps.entries(STATE_KEY)).thenReturn(Map.of("status", FAILED, "index", "products_v1",
+                "startedAt", "2024-01-01T00:00:00"));
+        IndexOperations indexOps = mock(IndexOperations.class);
+        when(operations.indexOps(IndexCoordinates.of("products_v1"))).thenReturn(indexOps);
+        when(indexOps.exists()).thenReturn(true);
+
+        service.start();
+
+        // The background run ends (here with a failure) by releasing the lock
+        verify(redisTemplate, timeout(2000)).execute(any(RedisScript.class), eq(List.of(LOCK_KEY)),
+                eq(service.nodeId));
+        verify(hashOps).put(STATE_KEY, "status", RUNNING);
+        verify(hashOps).delete(STATE_KEY, "error", "finishedAt");
+        verify(hashOps, never()).putAll(eq(STATE_KEY), any());
+        verify(redisTemplate, never()).delete(any(List.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void swapAlias_MovesTheAliasAndRecordsWhatItServedBefore() throws Exception {
+        when(indices.existsAlias(any(Function.class))).thenReturn(new BooleanResponse(true));
+        when(indices.getAlias(any(Function.class))).thenReturn(new GetAliasResponse.Builder()
+                .result(Map.of("products_v1", IndexAliases.of(a -> a.aliases(Map.of()))))
+                .build());
+
+        service.swapAlias("products_v2");
+
+        verify(hashOps).putIfAbsent(STATE_KEY, "previous", "products_v1");
+        ArgumentCaptor<Function<UpdateAliasesRequest.Builder, ObjectBuilder<UpdateAliasesRequest>>> update =
+                ArgumentCaptor.forClass(Function.class);
+        verify(indices).updateAliases(update.capture());
+        List<Action> actions = update.getValue().apply(new UpdateAliasesRequest.Builder()).build().actions();
+        assertEquals(2, actions.size());
+        assertEquals("products_v1", actions.get(0).remove().index());
+        assertEquals("products_v2", actions.get(1).add().index());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deleteOldIndices_DeletesOnlyThePreviousAliasTargets() throws Exception {
+        when(hashOps.get(STATE_KEY, "previous")).thenReturn("products_v1");
+
+        service.deleteOldIndices("products_v2");
+
+        ArgumentCaptor<Function<DeleteIndexRequest.Builder, ObjectBuilder<DeleteIndexRequest>>> delete =
+                ArgumentCaptor.forClass(Function.class);
+        verify(indices).delete(delete.capture());
+        assertEquals(List.of("products_v1"), delete.getValue().apply(new DeleteIndexRequest.Builder()).build().index());
+        verify(indices, never()).get(any(Function.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deleteOldIndices_NothingRecordedDeletesNothing() throws Exception {
+        when(hashOps.get(STATE_KEY, "previous")).thenReturn("");
+
+        service.deleteOldIndices("products_v2");
+
+        verify(indices, never()).delete(any(Function.class));
+    }
+
+    @Test
+    void partition_CoversRangeWithoutGaps() {
+        List<int[]> partitions = ProductReindexService.partition(new int[] { 1, 100 }, 8);
+
+        assertEquals(0, partitions.get(0)[0]);
+        assertEquals(100, partitions.get(partitions.size() - 1)[1]);
+        for (int i = 1; i < partitions.size(); i++) {
+            // Each range starts right after the previous one ends (afterId is exclusive)
+            assertEquals(partitions.get(i - 1)[1], partitions.get(i)[0]);
+        }
+        assertTrue(partitions.size() <= 8);
+    }
+
+    @Test
+    void partition_SmallRangeAndEmptyTable() {
+        assertEquals(3, ProductReindexService.partition(new int[] { 5, 7 }, 32).size());
+        assertTrue(ProductReindexService.partition(null, 8).isEmpty());
+    }
+
+    @Test
+    void encodePartitions_RoundTrips() {
+        List<int[]> partitions = ProductReindexService.partition(new int[] { 10, 5000 }, 4);
+
+        List<int[]> decoded = ProductReindexService.decodePartitions(
+                ProductReindexService.encodePartitions(partitions));
+
+        assertEquals(partitions.size(), decoded.size());
+        for (int i = 0; i < partitions.size(); i++) {
+            assertArrayEquals(partitions.get(i), decoded.get(i));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.superdupermart.shopping.service.search;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.superdupermart.shopping.exception.InvalidPageRequestException;
+import com.superdupermart.shopping.document.ProductDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ProductSearchServiceTest {
+
+    private ElasticsearchOperations operations;
+    private ProductSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        operations = mock(ElasticsearchOperations.class);
+        service = new ProductSearchService(operations);
+        ReflectionTestUtils.setField(service, "keepAlive", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(service, "maxPitsPerKeepAlive", 500);
+    }
+
+    @Test
+    void toQuery_PriceOnlyIsPureFilter() {
+        BoolQuery bool = ProductSearchService.toQuery(ProductSearchCriteria.builder()
+                .minPrice(10.0)
+                .maxPrice(99.99)
+                .build()).bool();
+
+        assertTrue(bool.must().isEmpty());
+        assertEquals(1, bool.filter().size());
+        Query range = bool.filter().get(0);
+        assertTrue(range.isRange());
+        assertEquals("price", range.range().field());
+    }
+
+    @Test
+    void toQuery_OnlyTextScores() {
+        BoolQuery bool = ProductSearchService.toQuery(ProductSearchCriteria.builder()
+                .query("lapt")
+                .category("Computers")
+                .brand("Acme")
+                .build()).bool();
+
+        assertEquals(1, bool.must().size());
+        assertTrue(bool.must().get(0).multiMatch().fields().contains("name.prefix"));
+        assertEquals(2, bool.filter().size());
+        assertTrue(bool.filter().stream().allMatch(Query::isTerm));
+    }
+
+    @Test
+    void searchAfter_BadSizeOpensNothing() {
+        assertThrows(InvalidPageRequestException.class,
+                () -> service.searchAfter(ProductSearchCriteria.builder().build(), null, 0));
+
+        verifyNoInteractions(operations);
+    }
+
+    @Test
+    void searchAfter_FailedQueryClosesThePit() {
+        when(operations.openPointInTime(any(IndexCoordinates.class), any(Duration.class))).thenReturn("pit-1");
+        when(operations.search(any(org.springframework.data.elasticsearch.core.query.Query.class),
+                eq(ProductDocument.class))).thenThrow(new IllegalStateException("timeout"));
+
+        assertThrows(IllegalStateException.class,
+                () -> service.searchAfter(ProductSearchCriteria.builder().build(), null, 10));
+
+        verify(operations).closePointInTime("pit-1");
+    }
+
+    @Test
+    void searchAfter_ShortPageClosesThePit() {
+        when(operations.openPointInTime(any(IndexCoordinates.class), any(Duration.class))).thenReturn("pit-1");
+        stubEmptyPage("pit-2");
+
+        ProductSearchResult result = service.searchAfter(ProductSearchCriteria.builder().build(), null, 10);
+
+        assertNull(result.getNextCursor());
+        verify(operations).closePointInTime("pit-2");
+    }
+
+    @Test
+    void searchAfter_PastTheCapPagesWithoutAPit() {
+        ReflectionTestUtils.setField(service, "maxPitsPerKeepAlive", 1);
+        when(operations.openPointInTime(any(IndexCoordinates.class), any(Duration.class))).thenReturn("pit-1");
+        stubEmptyPage(null);
+
+        service.searchAfter(ProductSearchCriteria.builder().build(), null, 10);
+        service.searchAfter(ProductSearchCriteria.builder().build(), null, 10);
+
+        verify(operations, times(1)).openPointInTime(any(IndexCoordinates.class), any(Duration.class));
+        verify(operations, times(1)).closePointInTime(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubEmptyPage(String pitId) {
+        SearchHits<ProductDocument> hits = mock(SearchHits.class);
+        when(hits.getSearchHits()).thenReturn(List.of());
+        when(hits.getPointInTimeId()).thenReturn(pitId);
+        when(operations.search(any(org.springframework.data.elasticsearch.core.query.Query.class),
+                eq(ProductDocument.class))).thenReturn(hits);
+    }
+}
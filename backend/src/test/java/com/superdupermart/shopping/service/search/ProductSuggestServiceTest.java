@@ -0,0 +1,51 @@
+package com.superdupermart.shopping.service.search;
+
+import com.superdupermart.shopping.dao.OrderDao;
+import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class ProductSuggestServiceTest {
+
+    private ProductDao productDao;
+    private ProductSuggestService service;
+
+    @BeforeEach
+    void setUp() {
+        productDao = mock(ProductDao.class);
+        OrderDao orderDao = mock(OrderDao.class);
+        when(orderDao.getUnitsSoldByProduct()).thenReturn(Map.of());
+        service = new ProductSuggestService(productDao, orderDao, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "maxResults", 10);
+        ReflectionTestUtils.setField(service, "maxProducts", 100);
+        ReflectionTestUtils.setField(service, "fetchSize", 100);
+    }
+
+    @Test
+    void retryLoad_RecoversFromAFailedStartupLoad() {
+        when(productDao.streamProductSummaries(anyBoolean(), anyInt()))
+                .thenThrow(new IllegalStateException("connection refused"))
+                .thenAnswer(inv -> Stream.of(ProductSummaryResponse.builder().id(1).name("Phone Case").build()));
+
+        service.onApplicationReady();
+        assertTrue(service.suggest("pho", 5).isEmpty());
+
+        service.retryLoad();
+        assertFalse(service.suggest("pho", 5).isEmpty());
+        // Loaded now, so no further full loads
+        service.retryLoad();
+        verify(productDao, times(2)).streamProductSummaries(anyBoolean(), anyInt());
+    }
+}
@@ -0,0 +1,32 @@
+package com.superdupermart.shopping.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchQueryNormalizerTest {
+
+    @Test
+    void normalize_IgnoresCaseWhitespaceAndWordOrder() {
+        assertEquals("laptop", SearchQueryNormalizer.normalize(" Laptop"));
+        assertEquals("laptop", SearchQueryNormalizer.normalize("LAPTOP "));
+        assertEquals("gaming laptop", SearchQueryNormalizer.normalize("laptop  \tGaming"));
+    }
+
+    @Test
+    void normalize_KeepsOrderOfQuotedQueries() {
+        assertEquals("\"red wine\" glass", SearchQueryNormalizer.normalize("\"Red Wine\" glass"));
+    }
+
+    @Test
+    void normalize_BlankIsNull() {
+        assertNull(SearchQueryNormalizer.normalize(null));
+        assertNull(SearchQueryNormalizer.normalize("   "));
+    }
+
+    @Test
+    void clean_KeepsTheShoppersWordOrder() {
+        assertEquals("wireles mouse", SearchQueryNormalizer.clean("  Wireles \tMOUSE "));
+        assertNull(SearchQueryNormalizer.clean("   "));
+    }
+}
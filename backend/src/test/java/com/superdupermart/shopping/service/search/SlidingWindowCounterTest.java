@@ -0,0 +1,58 @@
+package com.superdupermart.shopping.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowCounterTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+    private final SlidingWindowCounter<String> counter = new SlidingWindowCounter<>(3, 1000, 100, now::get);
+
+    @Test
+    void top_RanksByCountWithinWindow() {
+        record("laptop", 5);
+        record("phone", 2);
+        now.set(1500);
+        record("phone", 4);
+        record("tv", 1);
+
+        assertEquals(List.of("phone", "laptop", "tv"), counter.top(10, 1));
+        assertEquals(List.of("phone"), counter.top(1, 1));
+        assertEquals(List.of("phone", "laptop"), counter.top(10, 2));
+    }
+
+    @Test
+    void top_ForgetsExpiredBuckets() {
+        record("laptop", 5);
+        now.set(2500);
+        record("phone", 1);
+        assertEquals(List.of("laptop", "phone"), counter.top(10, 1));
+
+        // Bucket 0 is now outside the three-bucket window, and its ring slot gets reused
+        now.set(3100);
+        assertEquals(List.of("phone"), counter.top(10, 1));
+        record("tv", 1);
+        assertEquals(List.of("phone", "tv"), counter.top(10, 1).stream().sorted().toList());
+    }
+
+    @Test
+    void record_DropsNewKeysBeyondCap() {
+        SlidingWindowCounter<Integer> small = new SlidingWindowCounter<>(1, 1000, 2, now::get);
+        small.record(1);
+        small.record(2);
+        small.record(3);
+        small.record(1);
+
+        assertEquals(List.of(1, 2), small.top(10, 1));
+    }
+
+    private void record(String key, int times) {
+        for (int i = 0; i < times; i++) {
+            counter.record(key);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.superdupermart.shopping.service.search;
+
+import com.superdupermart.shopping.dao.ProductDao;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+class SpellingCorrectionServiceTest {
+
+    private SpellingCorrectionService service;
+
+    @BeforeEach
+    void setUp() {
+        ProductDao productDao = mock(ProductDao.class);
+        when(productDao.streamProductSummaries(anyBoolean(), anyInt())).thenAnswer(inv -> Stream.of(
+                row(1, "Desk lamp"), row(2, "Floor lamp"), row(3, "Laptop"), row(4, "Lamb wool rug")));
+        service = new SpellingCorrectionService(productDao, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "maxEditDistance", 2);
+        ReflectionTestUtils.setField(service, "prefixLength", 7);
+        ReflectionTestUtils.setField(service, "maxMemoryMb", 1);
+        ReflectionTestUtils.setField(service, "minWordLength", 3);
+        ReflectionTestUtils.setField(service, "fetchSize", 100);
+        service.rebuild();
+    }
+
+    @Test
+    void recordSuccessfulQuery_CountsOnlyOnTheNextRebuild() {
+        assertEquals("lamp", service.correct("lamx"));
+
+        for (int i = 0; i < 3; i++) {
+            service.recordSuccessfulQuery("lamb");
+        }
+        assertEquals("lamp", service.correct("lamx"));
+
+        service.rebuild();
+        assertEquals("lamb", service.correct("lamx"));
+    }
+
+    @Test
+    void recordSuccessfulQuery_IgnoresWordsThatAreNotIndexed() {
+        // "lapto" hits Laptop through name.prefix; it must not become a known word
+        service.recordSuccessfulQuery("lapto");
+        service.rebuild();
+
+        assertEquals("laptop", service.correct("lapto"));
+    }
+
+    @Test
+    void correct_KeepsTheWordOrderItWasGiven() {
+        assertEquals("desk lamp", service.correct("desk lamx"));
+        assertEquals("lamp desk", service.correct("lamx desk"));
+        assertNull(service.correct("floor lamp"));
+    }
+
+    private static ProductSummaryResponse row(int id, String name) {
+        return ProductSummaryResponse.builder().id(id).name(name).build();
+    }
+}
@@ -0,0 +1,56 @@
+package com.superdupermart.shopping.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpellingDictionaryTest {
+
+    private SpellingDictionary dictionary(long maxBytes) {
+        SpellingDictionary dictionary = new SpellingDictionary(2, 7, maxBytes);
+        dictionary.add("laptop", 40);
+        dictionary.add("lapdog", 2);
+        dictionary.add("hedgehog", 5);
+        dictionary.add("headphones", 30);
+        return dictionary;
+    }
+
+    @Test
+    void lookup_FindsClosestWord() {
+        SpellingDictionary dictionary = dictionary(Long.MAX_VALUE);
+
+        assertEquals("laptop", dictionary.lookup("labtop"));
+        assertEquals("laptop", dictionary.lookup("latpop"));
+        assertEquals("hedgehog", dictionary.lookup("hedghog"));
+        assertEquals("headphones", dictionary.lookup("headphnes"));
+        assertEquals("laptop", dictionary.lookup("laptop"));
+        assertNull(dictionary.lookup("keyboard"));
+    }
+
+    @Test
+    void lookup_PrefersFrequentWordsAtEqualDistance() {
+        SpellingDictionary dictionary = dictionary(Long.MAX_VALUE);
+
+        // One substitution away from both "laptop" and "lapdog"
+        assertEquals("laptop", dictionary.lookup("lapdop"));
+        dictionary.add("lapdog", 100);
+        assertEquals("lapdog", dictionary.lookup("lapdop"));
+    }
+
+    @Test
+    void add_RefusesNewWordsOverBudget() {
+        SpellingDictionary dictionary = new SpellingDictionary(2, 7, 4000);
+        assertTrue(dictionary.add("laptop", 1));
+        assertTrue(dictionary.add("laptop", 1));
+        assertFalse(dictionary.add("headphones", 1));
+        assertEquals(1, dictionary.size());
+        assertTrue(dictionary.estimatedBytes() <= 4000);
+    }
+
+    @Test
+    void distance_CountsTranspositionOnce() {
+        assertEquals(1, SpellingDictionary.distance("latpop", "laptop", 2));
+        assertEquals(2, SpellingDictionary.distance("lptpo", "laptop", 2));
+        assertEquals(-1, SpellingDictionary.distance("tv", "laptop", 2));
+    }
+}
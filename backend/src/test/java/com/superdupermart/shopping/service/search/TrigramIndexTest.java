@@ -0,0 +1,81 @@
+package com.superdupermart.shopping.service.search;
+
+import com.superdupermart.shopping.document.ProductDocument;
+import com.superdupermart.shopping.dto.ProductSummaryResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramIndex();
+        index.put(row(1, "Apple iPhone 15", "Smartphone with a great camera", "49.99", "Phones", "Apple"));
+        index.put(row(2, "Phone Case", "Fits the Apple iPhone", "9.99", "Accessories", "Generic"));
+        index.put(row(3, "Galaxy Tab", "Android tablet", "299.00", "Tablets", "Samsung"));
+    }
+
+    @Test
+    void search_MatchesSubstringsAndRanksNameMatchesFirst() {
+        assertEquals(List.of(1, 2), ids(index.search(query("iphone"), 0, 10)));
+        assertEquals(List.of(1, 2), ids(index.search(query("HONE"), 0, 10)));
+        assertEquals(List.of(3), ids(index.search(query("android tab"), 0, 10)));
+    }
+
+    @Test
+    void search_RequiresEveryToken() {
+        assertEquals(List.of(2), ids(index.search(query("case apple"), 0, 10)));
+        assertTrue(index.search(query("iphone android"), 0, 10).getDocuments().isEmpty());
+        assertTrue(index.search(query("xyz"), 0, 10).getDocuments().isEmpty());
+    }
+
+    @Test
+    void search_ShortTokensMatchWordStarts() {
+        assertEquals(List.of(3), ids(index.search(query("ga"), 0, 10)));
+        assertTrue(index.search(query("al"), 0, 10).getDocuments().isEmpty());
+    }
+
+    @Test
+    void search_AppliesFiltersAndPages() {
+        ProductSearchCriteria apple = ProductSearchCriteria.builder().query("iphone").brand("Apple").build();
+        assertEquals(List.of(1), ids(index.search(apple, 0, 10)));
+
+        ProductSearchCriteria cheap = ProductSearchCriteria.builder().maxPrice(50.0).build();
+        ProductSearchResult page = index.search(cheap, 1, 1);
+        assertEquals(2, page.getTotalHits());
+        assertEquals(List.of(2), ids(page));
+    }
+
+    @Test
+    void putAndRemove_KeepPostingsCurrent() {
+        index.put(row(1, "Pixel 8", "Google phone", "49.99", "Phones", "Google"));
+        assertEquals(List.of(2), ids(index.search(query("iphone"), 0, 10)));
+        assertEquals(List.of(1), ids(index.search(query("pixel"), 0, 10)));
+
+        index.remove(1);
+        assertTrue(index.search(query("pixel"), 0, 10).getDocuments().isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    private static ProductSearchCriteria query(String text) {
+        return ProductSearchCriteria.builder().query(text).build();
+    }
+
+    private static List<Integer> ids(ProductSearchResult result) {
+        return result.getDocuments().stream().map(ProductDocument::getId).collect(Collectors.toList());
+    }
+
+    private static ProductSummaryResponse row(int id, String name, String description, String price,
+            String category, String brand) {
+        return new ProductSummaryResponse(id, name, description, new BigDecimal(price), category, brand, null, 5,
+                null, null);
+    }
+}
@@ -4,6 +4,7 @@ import { MatSnackBar } from '@angular/material/snack-bar';
 import { Product, ProductRequest } from '../../models/product.model';
 import { ProductService } from '../../services/product.service';
 import { DomSanitizer, SafeUrl } from '@angular/platform-browser';
+import { environment } from 'src/environments/environment';
 
 @Component({
   selector: 'app-product-management',
@@ -11,6 +12,7 @@ import { DomSanitizer, SafeUrl } from '@angular/platform-browser';
   styleUrls: ['./product-management.component.css']
 })
 export class ProductManagementComponent implements OnInit {
+  apiUrl = environment.apiUrl;
   products: Product[] = [];
   displayedColumns = ['id', 'image', 'name', 'description', 'retailPrice', 'wholesalePrice', 'quantity', 'actions'];
   loading = true;
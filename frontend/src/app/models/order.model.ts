@@ -45,3 +45,12 @@ export interface OrderResponse {
         last4Digits: string;
     };
 }
+
+// One row of the customer's order history; items load separately
+export interface OrderSummaryResponse {
+    orderId: number;
+    datePlaced: string;
+    orderStatus: string;
+    itemCount: number;
+    total: number;
+}
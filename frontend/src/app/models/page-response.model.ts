@@ -4,4 +4,6 @@ export interface PageResponse<T> {
     totalPages: number;
     size: number;
     number: number;
+    // Keyset pages only; absent on the last page
+    nextCursor?: string;
 }
@@ -7,6 +7,8 @@ export interface Product {
     quantity?: number;       // Admin only
     image?: string;          // Base64 string
     imageContentType?: string;
+    imageVersion?: string;   // Content hash of the image
+    imageUrl?: string;       // Relative URL pinned to imageVersion
 }
 
 export interface ProductRequest {
@@ -1,8 +1,8 @@
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpHeaders, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
 import { environment } from '../../environments/environment';
-import { OrderRequest, OrderResponse } from '../models/order.model';
+import { OrderItemResponse, OrderRequest, OrderResponse, OrderSummaryResponse } from '../models/order.model';
 import { PageResponse } from '../models/page-response.model';
 
 @Injectable({
@@ -13,12 +13,23 @@ export class OrderService {
     constructor(private http: HttpClient) { }
 
     // User endpoints
-    placeOrder(orderRequest: OrderRequest): Observable<OrderResponse> {
-        return this.http.post<OrderResponse>(`${environment.apiUrl}/orders`, orderRequest);
+    // Resending with the same idempotencyKey returns the original order instead of placing another
+    placeOrder(orderRequest: OrderRequest, idempotencyKey?: string): Observable<OrderResponse> {
+        const headers = idempotencyKey ? new HttpHeaders({ 'Idempotency-Key': idempotencyKey }) : undefined;
+        return this.http.post<OrderResponse>(`${environment.apiUrl}/orders`, orderRequest, { headers });
     }
 
-    getUserOrders(): Observable<OrderResponse[]> {
-        return this.http.get<OrderResponse[]>(`${environment.apiUrl}/orders/all`);
+    // Keyset pages, newest first; pass the previous page's nextCursor to continue
+    getUserOrders(cursor?: string, size = 10, status?: string): Observable<PageResponse<OrderSummaryResponse>> {
+        let params = new HttpParams().set('size', size).set('cursor', cursor ?? '');
+        if (status) {
+            params = params.set('status', status);
+        }
+        return this.http.get<PageResponse<OrderSummaryResponse>>(`${environment.apiUrl}/orders/all`, { params });
+    }
+
+    getOrderItems(orderId: number): Observable<OrderItemResponse[]> {
+        return this.http.get<OrderItemResponse[]>(`${environment.apiUrl}/orders/${orderId}/items`);
     }
 
     cancelOrder(orderId: number): Observable<string> {
@@ -34,6 +34,8 @@ export class CheckoutComponent implements OnInit {
   selectedPaymentMethodId: number | null = null;
 
   processing: boolean = false;
+  // Reused until the server answers, so resubmitting after a timeout cannot place a second order
+  private idempotencyKey: string | null = null;
 
   constructor(
     private cartService: CartService,
@@ -143,9 +145,11 @@ export class CheckoutComponent implements OnInit {
       paymentMethodId: this.selectedPaymentMethodId || undefined
     };
 
-    this.orderService.placeOrder(request).subscribe({
+    this.idempotencyKey = this.idempotencyKey || crypto.randomUUID();
+    this.orderService.placeOrder(request, this.idempotencyKey).subscribe({
       next: (res) => {
         this.processing = false;
+        this.idempotencyKey = null;
         this.cartService.clearCart();
         this.snackBar.open('Order placed successfully!', 'View Orders', { duration: 5000 })
           .onAction().subscribe(() => this.router.navigate(['/user/orders']));
@@ -153,6 +157,10 @@ export class CheckoutComponent implements OnInit {
       },
       error: (err) => {
         this.processing = false;
+        // 409: the first attempt is still running, so keep its key for the next try
+        if (err.status && err.status !== 409) {
+          this.idempotencyKey = null;
+        }
         this.snackBar.open(err.error?.message || 'Failed to place order', 'Close', { duration: 3000 });
       }
     });
@@ -1,6 +1,6 @@
 import { Component, OnInit } from '@angular/core';
 import { MatSnackBar } from '@angular/material/snack-bar';
-import { OrderResponse } from '../../models/order.model';
+import { OrderItemResponse, OrderSummaryResponse } from '../../models/order.model';
 import { OrderService } from '../../services/order.service';
 
 @Component({
@@ -9,8 +9,16 @@ import { OrderService } from '../../services/order.service';
   styleUrls: ['./order-history.component.css']
 })
 export class OrderHistoryComponent implements OnInit {
-  orders: OrderResponse[] = [];
+  readonly pageSize = 10;
+  readonly statuses = ['Processing', 'Completed', 'Canceled', 'Failed'];
+
+  orders: OrderSummaryResponse[] = [];
+  nextCursor: string | null = null;
+  statusFilter = '';
+  // Line items are fetched when an order is first expanded
+  items: { [orderId: number]: OrderItemResponse[] } = {};
   loading = true;
+  loadingMore = false;
   error = '';
   expandedOrderId: number | null = null;
 
@@ -25,11 +33,13 @@ export class OrderHistoryComponent implements OnInit {
 
   loadOrders(): void {
     this.loading = true;
-    this.orderService.getUserOrders().subscribe({
-      next: (orders) => {
-        this.orders = orders.sort((a, b) =>
-          new Date(b.datePlaced).getTime() - new Date(a.datePlaced).getTime()
-        );
+    this.error = '';
+    this.orderService.getUserOrders(undefined, this.pageSize, this.statusFilter).subscribe({
+      next: (page) => {
+        this.orders = page.content;
+        this.nextCursor = page.nextCursor ?? null;
+        this.items = {};
+        this.expandedOrderId = null;
         this.loading = false;
       },
       error: () => {
@@ -39,8 +49,32 @@ export class OrderHistoryComponent implements OnInit {
     });
   }
 
+  loadMore(): void {
+    if (!this.nextCursor || this.loadingMore) {
+      return;
+    }
+    this.loadingMore = true;
+    this.orderService.getUserOrders(this.nextCursor, this.pageSize, this.statusFilter).subscribe({
+      next: (page) => {
+        this.orders = this.orders.concat(page.content);
+        this.nextCursor = page.nextCursor ?? null;
+        this.loadingMore = false;
+      },
+      error: () => {
+        this.snackBar.open('Failed to load more orders', 'Close', { duration: 3000 });
+        this.loadingMore = false;
+      }
+    });
+  }
+
   toggleExpand(orderId: number): void {
     this.expandedOrderId = this.expandedOrderId === orderId ? null : orderId;
+    if (this.expandedOrderId !== null && !this.items[orderId]) {
+      this.orderService.getOrderItems(orderId).subscribe({
+        next: (items) => this.items[orderId] = items,
+        error: () => this.snackBar.open('Failed to load order items', 'Close', { duration: 3000 })
+      });
+    }
   }
 
   cancelOrder(orderId: number): void {
@@ -57,11 +91,6 @@ export class OrderHistoryComponent implements OnInit {
     }
   }
 
-  getOrderTotal(order: OrderResponse): number {
-    return order.items.reduce((total, item) =>
-      total + (item.purchasedPrice * item.quantity), 0);
-  }
-
   getStatusClass(status: string): string {
     switch (status?.toLowerCase()) {
       case 'completed': return 'status-completed';
@@ -56,3 +56,12 @@ INSERT INTO `product` (`id`, `name`, `description`, `quantity`, `retail_price`,
 (8, 'Tablet Mini', 'Perfect for reading and notes', 80, 299.00, 200.00),
 (9, 'Smart Watch', 'Track your health 24/7', 90, 199.99, 130.00),
 (10, 'Wireless Mouse', 'Precision sensor and long battery', 150, 59.99, 35.00);
+
+-- Keyset pagination over orders (datePlaced, id); also declared on the Order entity
+CREATE INDEX `idx_orders_date_placed_id` ON `orders` (`date_placed`, `id`);
+
+-- Per-user order history, keyset over (datePlaced, id); also declared on the Order entity
+CREATE INDEX `idx_orders_user_date_placed_id` ON `orders` (`user_id`, `date_placed`, `id`);
+
+-- Stale Pending order sweep (orderStatus, datePlaced); also declared on the Order entity
+CREATE INDEX `idx_orders_status_date_placed` ON `orders` (`order_status`, `date_placed`);
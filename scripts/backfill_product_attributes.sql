@@ -0,0 +1,8 @@
+-- Fills the category and brand facet columns for rows loaded by seed_10k.sql, whose
+-- descriptions read 'A <brand> product in the <category> category. ...'.
+-- Run after the application has added the columns, then trigger POST /products/sync.
+UPDATE product
+SET brand = SUBSTRING_INDEX(SUBSTRING_INDEX(description, ' product in the ', 1), 'A ', -1),
+    category = SUBSTRING_INDEX(SUBSTRING_INDEX(description, ' category.', 1), 'in the ', -1)
+WHERE category IS NULL
+  AND description LIKE 'A % product in the % category.%';
@@ -7,15 +7,20 @@ ES_URL = "http://localhost:19200" # Mapped to 9200
 def sync():
     print("Fetching products from backend...")
     try:
-        r = requests.get(f"{BASE_URL}/products/all")
+        # NDJSON export streams one product per line instead of one huge JSON array
+        r = requests.get(f"{BASE_URL}/products/all",
+                         headers={"Accept": "application/x-ndjson"}, stream=True)
         r.raise_for_status()
-        products = r.json()
-        print(f"Found {len(products)} products.")
     except Exception as e:
         print(f"Error fetching products: {e}")
         return
 
-    for p in products:
+    count = 0
+    for line in r.iter_lines():
+        if not line:
+            continue
+        p = json.loads(line)
+        count += 1
         doc = {
             "name": p["name"],
             "description": p["description"],
@@ -30,5 +35,7 @@ def sync():
         except Exception as e:
             print(f"Error indexing product {p['id']}: {e}")
 
+    print(f"Indexed {count} products.")
+
 if __name__ == "__main__":
     sync()